@@ -0,0 +1,148 @@
+package sinc2.impl.base;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sinc2.common.Argument;
+import sinc2.kb.KbException;
+import sinc2.kb.NumeratedKb;
+import sinc2.rule.Eval;
+import sinc2.rule.Fingerprint;
+import sinc2.rule.Rule;
+import sinc2.rule.TabuSet;
+import sinc2.rule.UpdateStatus;
+import sinc2.util.datagen.FamilyRelationGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Micro benchmarks of the specialization operations in 'CachedRule'. The KBs are generated by
+ * 'FamilyRelationGenerator' in the "simple" mode (24 facts per family) at several sizes.
+ *
+ * The benchmarks are built and run by the "benchmark" profile:
+ *   mvn -P benchmark package -DskipTests
+ *   java -jar target/benchmarks.jar CachedRuleBenchmark
+ *
+ * Every specialization is applied to a clone of a prepared rule. The fingerprint cache is cleared before each
+ * invocation, otherwise the repeated specializations would be rejected as duplications.
+ *
+ * @since 2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CachedRuleBenchmark {
+
+    /** The number of families in the generated KB */
+    @Param({"100", "1000", "10000"})
+    public int families;
+
+    protected File kbBaseDir;
+    protected NumeratedKb kb;
+    protected int numFather;
+    protected int numMother;
+    protected int numParent;
+    protected int constant;
+
+    protected final Set<Fingerprint> fingerprintCache = new HashSet<>();
+    protected final TabuSet tabuSet = new TabuSet();
+
+    /** parent(?,?) :- */
+    protected CachedRule startRule;
+    /** parent(X0,?) :- father(X0,?) */
+    protected CachedRule extendedRule;
+    /** parent(X0,X1) :- father(X0,X1) */
+    protected CachedRule completeRule;
+    /** parent(X0,X1) :- father(X0,X1), with the indices not updated yet */
+    protected CachedRule staleIndicesRule;
+
+    @Setup(Level.Trial)
+    public void setupKb() throws IOException, KbException {
+        Rule.MIN_FACT_COVERAGE = 0.0;
+        kbBaseDir = Files.createTempDirectory("sinc2-bench").toFile();
+        FamilyRelationGenerator.generateSimple(kbBaseDir.getAbsolutePath(), "family", families, 0.0);
+        kb = new NumeratedKb("family", kbBaseDir.getAbsolutePath());
+        kb.updatePromisingConstants();
+        numFather = kb.name2Num(FamilyRelationGenerator.FamilyRelations.FATHER.getName());
+        numMother = kb.name2Num(FamilyRelationGenerator.FamilyRelations.MOTHER.getName());
+        numParent = kb.name2Num(FamilyRelationGenerator.FamilyRelations.PARENT.getName());
+        constant = Argument.decode(kb.getRelation(numParent).iterator().next().args[0]);
+
+        startRule = new CachedRule(numParent, 2, fingerprintCache, tabuSet, kb);
+        extendedRule = startRule.clone();
+        checkStatus(extendedRule.cvt2Uvs2NewLv(numFather, 2, 0, 0, 0));
+        extendedRule.updateCacheIndices();
+        completeRule = extendedRule.clone();
+        checkStatus(completeRule.cvt2Uvs2NewLv(0, 1, 1, 1));
+        completeRule.updateCacheIndices();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        fingerprintCache.clear();
+        tabuSet.clear();
+        staleIndicesRule = extendedRule.clone();
+        staleIndicesRule.cvt2Uvs2NewLv(0, 1, 1, 1);
+        fingerprintCache.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void removeKb() throws IOException {
+        try (Stream<Path> paths = Files.walk(kbBaseDir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    protected static void checkStatus(UpdateStatus status) {
+        if (UpdateStatus.NORMAL != status) {
+            throw new IllegalStateException("Benchmark rule preparation failed: " + status);
+        }
+    }
+
+    /**
+     * parent(X0,?) :- father(X0,?), mother(X0,?)
+     */
+    @Benchmark
+    public UpdateStatus cvt1Uv2ExtLv() {
+        return extendedRule.clone().cvt1Uv2ExtLv(numMother, 2, 0, 0);
+    }
+
+    /**
+     * parent(X0,?) :- father(X0,?)
+     */
+    @Benchmark
+    public UpdateStatus cvt2Uvs2NewLv() {
+        return startRule.clone().cvt2Uvs2NewLv(numFather, 2, 0, 0, 0);
+    }
+
+    /**
+     * parent(c,?) :-
+     */
+    @Benchmark
+    public UpdateStatus cvt1Uv2Const() {
+        return startRule.clone().cvt1Uv2Const(0, 0, constant);
+    }
+
+    @Benchmark
+    public void updateCacheIndices() {
+        staleIndicesRule.updateCacheIndices();
+    }
+
+    @Benchmark
+    public Eval calculateEval() {
+        return completeRule.calculateEval();
+    }
+
+    @Benchmark
+    public void getCounterexamples(Blackhole blackhole) {
+        blackhole.consume(completeRule.getCounterexamples());
+    }
+}
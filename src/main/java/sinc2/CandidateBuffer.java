@@ -0,0 +1,237 @@
+package sinc2;
+
+import sinc2.rule.EvalMetric;
+import sinc2.rule.Rule;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A bounded buffer of candidate rules that keeps the top-k rules w.r.t. an evaluation metric. The rules are organized
+ * in a min-heap of their scores, and the scores are calculated only once when the rules are offered. Thus, the worst
+ * candidate is available in O(1) time and an offer costs O(log k) time.
+ *
+ * Each rule is also offered with a key, and ties in the scores are broken by the keys: the rule with the smaller key
+ * is better. The keys are the indices of the operations that produce the rules, or the insertion sequence if not
+ * specified. Thus, the buffer keeps the same rules whatever order they are offered in, and the sequential and the
+ * parallel evaluations select the same beams.
+ *
+ * The buffer is not thread-safe. Parallel evaluations keep local buffers and merge them.
+ *
+ * @since 2.0
+ */
+public class CandidateBuffer implements Iterable<Rule> {
+    /** The rule evaluation metric */
+    protected final EvalMetric evalMetric;
+    /** The rules in the heap */
+    protected final Rule[] rules;
+    /** The scores of the rules in the heap */
+    protected final double[] scores;
+    /** The keys of the rules in the heap */
+    protected final long[] keys;
+    /** The key of the next rule offered without a key */
+    protected long nextSequence = 0;
+    /** The number of rules in the buffer */
+    protected int size = 0;
+
+    /**
+     * @param capacity The maximum number of rules in the buffer, i.e., the beamwidth
+     * @param evalMetric The rule evaluation metric
+     */
+    public CandidateBuffer(int capacity, EvalMetric evalMetric) {
+        this.evalMetric = evalMetric;
+        this.rules = new Rule[capacity];
+        this.scores = new double[capacity];
+        this.keys = new long[capacity];
+    }
+
+    /**
+     * Offer a rule to the buffer. The rule takes an empty slot if there is one. Otherwise, it replaces the worst
+     * candidate if the rule is better.
+     *
+     * @return Whether the rule is added to the buffer
+     */
+    public boolean offer(Rule rule) {
+        return offer(rule, rule.getEval().value(evalMetric));
+    }
+
+    /**
+     * Offer a rule with its score to the buffer. The key of the rule is the insertion sequence.
+     *
+     * @param rule The rule
+     * @param score The score of the rule w.r.t. the metric of the buffer
+     * @return Whether the rule is added to the buffer
+     */
+    public boolean offer(Rule rule, double score) {
+        return offer(rule, score, nextSequence++);
+    }
+
+    /**
+     * Offer a rule with its score and key to the buffer.
+     *
+     * @param rule The rule
+     * @param score The score of the rule w.r.t. the metric of the buffer
+     * @param key The key that breaks the ties in the scores
+     * @return Whether the rule is added to the buffer
+     */
+    public boolean offer(Rule rule, double score, long key) {
+        if (size < rules.length) {
+            rules[size] = rule;
+            scores[size] = score;
+            keys[size] = key;
+            siftUp(size);
+            size++;
+            return true;
+        }
+        if (0 < size && worse(scores[0], keys[0], score, key)) {
+            rules[0] = rule;
+            scores[0] = score;
+            keys[0] = key;
+            siftDown(0);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Merge all candidates in another buffer into this one. The keys of the candidates are kept.
+     */
+    public void merge(CandidateBuffer another) {
+        for (int i = 0; i < another.size; i++) {
+            offer(another.rules[i], another.scores[i], another.keys[i]);
+        }
+    }
+
+    /**
+     * Merge the candidates in another buffer that pass a filter into this one. The keys of the candidates are kept.
+     */
+    public void merge(CandidateBuffer another, Predicate<Rule> filter) {
+        for (int i = 0; i < another.size; i++) {
+            if (filter.test(another.rules[i])) {
+                offer(another.rules[i], another.scores[i], another.keys[i]);
+            }
+        }
+    }
+
+    /**
+     * @return The best rule in the buffer, the one with the smallest key if ties. NULL if the buffer is empty.
+     */
+    public Rule best() {
+        if (0 == size) {
+            return null;
+        }
+        int best_idx = 0;
+        for (int i = 1; i < size; i++) {
+            if (worse(scores[best_idx], keys[best_idx], scores[i], keys[i])) {
+                best_idx = i;
+            }
+        }
+        return rules[best_idx];
+    }
+
+    /**
+     * @return The score of the worst rule in the buffer. Negative infinity if the buffer is empty.
+     */
+    public double worstScore() {
+        return (0 == size) ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public boolean isFull() {
+        return rules.length == size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return rules.length;
+    }
+
+    /**
+     * Iterate the rules from the best to the worst, so that the order does not depend on the layout of the heap.
+     */
+    @Override
+    public Iterator<Rule> iterator() {
+        final Integer[] ranked_idxs = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ranked_idxs[i] = i;
+        }
+        Arrays.sort(ranked_idxs, (i, j) -> worse(scores[i], keys[i], scores[j], keys[j]) ? 1 :
+                (worse(scores[j], keys[j], scores[i], keys[i]) ? -1 : 0));
+        return new Iterator<>() {
+            int idx = 0;
+
+            @Override
+            public boolean hasNext() {
+                return idx < ranked_idxs.length;
+            }
+
+            @Override
+            public Rule next() {
+                if (idx >= ranked_idxs.length) {
+                    throw new NoSuchElementException();
+                }
+                return rules[ranked_idxs[idx++]];
+            }
+        };
+    }
+
+    /**
+     * Check whether a rule is worse than another one, i.e., it has a lower score, or the same score but a larger key.
+     */
+    protected static boolean worse(double score1, long key1, double score2, long key2) {
+        return score1 < score2 || (score1 == score2 && key1 > key2);
+    }
+
+    protected void siftUp(int pos) {
+        final Rule rule = rules[pos];
+        final double score = scores[pos];
+        final long key = keys[pos];
+        while (0 < pos) {
+            final int parent_pos = (pos - 1) / 2;
+            if (!worse(score, key, scores[parent_pos], keys[parent_pos])) {
+                break;
+            }
+            rules[pos] = rules[parent_pos];
+            scores[pos] = scores[parent_pos];
+            keys[pos] = keys[parent_pos];
+            pos = parent_pos;
+        }
+        rules[pos] = rule;
+        scores[pos] = score;
+        keys[pos] = key;
+    }
+
+    protected void siftDown(int pos) {
+        final Rule rule = rules[pos];
+        final double score = scores[pos];
+        final long key = keys[pos];
+        while (true) {
+            int child_pos = pos * 2 + 1;
+            if (child_pos >= size) {
+                break;
+            }
+            if (child_pos + 1 < size &&
+                    worse(scores[child_pos + 1], keys[child_pos + 1], scores[child_pos], keys[child_pos])) {
+                child_pos++;
+            }
+            if (!worse(scores[child_pos], keys[child_pos], score, key)) {
+                break;
+            }
+            rules[pos] = rules[child_pos];
+            scores[pos] = scores[child_pos];
+            keys[pos] = keys[child_pos];
+            pos = child_pos;
+        }
+        rules[pos] = rule;
+        scores[pos] = score;
+        keys[pos] = key;
+    }
+}
@@ -0,0 +1,177 @@
+package sinc2;
+
+import sinc2.kb.KbRelation;
+import sinc2.kb.NumeratedKb;
+import sinc2.kb.Record;
+import sinc2.util.IntArrayList;
+import sinc2.util.IntKeyMap;
+import sinc2.util.graph.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The dependency graph of the facts in a KB. A fact is identified by an integer ID, i.e., the row ID of the record in
+ * the relation plus the offset of the relation. ID 0 refers to the axiom node "⊥", on which the facts entailed by rules
+ * with empty bodies depend.
+ *
+ * The graph is built in two phases:
+ *   1. The relation miners add the dependencies of the entailed facts. The dependencies of each head relation are kept
+ *      in a separate buffer, which is only updated by the miner of the relation. Thus, miners can add dependencies in
+ *      parallel without synchronization.
+ *   2. The buffers are converted into a CSR graph by "build", where the neighbours of a node are the facts it depends
+ *      on, i.e., edges are in the reversed direction of the entailments.
+ *
+ * Note: The row IDs in the relations should not change, i.e., no record should be removed from the KB, while the graph
+ * is in use.
+ *
+ * @since 2.0
+ */
+public class DependencyGraph {
+    /** The ID of the axiom node "⊥" */
+    public static final int AXIOM_NODE = 0;
+
+    /** The KB */
+    protected final NumeratedKb kb;
+    /** The numerations of the relations, in the order of the offsets */
+    protected final int[] relations;
+    /** The node ID offsets of the relations. The IDs of the records in relations[i] start from offsets[i] */
+    protected final int[] offsets;
+    /** Map relation numerations to the indices in "relations" */
+    protected final IntKeyMap<Integer> relationIndices;
+    /** The total number of nodes, including the axiom node */
+    protected final int totalNodes;
+    /** Whether the neighbours of the CSR graph are stored out of the Java heap */
+    protected final boolean offHeap;
+    /** The buffers of the dependencies, i.e., pairs of (head, dependency), of each head relation */
+    protected IntArrayList[] dependencyBuffers;
+    /** The CSR graph. NULL before "build" */
+    protected CsrGraph graph = null;
+
+    /**
+     * Create an empty dependency graph for the records currently in a KB.
+     *
+     * @param kb The KB
+     * @param offHeap Whether the neighbours of the graph are stored out of the Java heap
+     */
+    public DependencyGraph(NumeratedKb kb, boolean offHeap) {
+        this.kb = kb;
+        this.offHeap = offHeap;
+        final List<KbRelation> relation_list = new ArrayList<>(kb.getRelations());
+        relations = new int[relation_list.size()];
+        offsets = new int[relation_list.size()];
+        relationIndices = new IntKeyMap<>(relation_list.size());
+        dependencyBuffers = new IntArrayList[relation_list.size()];
+        int offset = AXIOM_NODE + 1;
+        for (int i = 0; i < relation_list.size(); i++) {
+            final KbRelation relation = relation_list.get(i);
+            relations[i] = relation.getNumeration();
+            offsets[i] = offset;
+            relationIndices.put(relation.getNumeration(), i);
+            dependencyBuffers[i] = new IntArrayList();
+            offset += relation.totalRecords();
+        }
+        totalNodes = offset;
+    }
+
+    /**
+     * Get the node ID of a fact.
+     *
+     * @param relNum The numeration of the relation
+     * @param args The arguments of the fact
+     * @return The node ID, or -1 if the fact is not in the KB
+     */
+    public int nodeOf(int relNum, int[] args) {
+        final Integer idx = relationIndices.get(relNum);
+        if (null == idx) {
+            return -1;
+        }
+        final int row = kb.getRelation(relNum).rowOf(args);
+        return (0 > row) ? -1 : offsets[idx] + row;
+    }
+
+    /**
+     * Find the numeration of the relation where a node is located.
+     */
+    public int relationOf(int node) {
+        return relations[relationIdxOf(node)];
+    }
+
+    /**
+     * Create the record of a fact node.
+     */
+    public Record recordOf(int node) {
+        final int idx = relationIdxOf(node);
+        return kb.getRelation(relations[idx]).recordAt(node - offsets[idx]);
+    }
+
+    protected int relationIdxOf(int node) {
+        int idx = Arrays.binarySearch(offsets, node);
+        idx = (0 <= idx) ? idx : -idx - 2;
+        while (idx + 1 < offsets.length && offsets[idx + 1] <= node) {
+            /* Skip the empty relations sharing the same offset */
+            idx++;
+        }
+        return idx;
+    }
+
+    /**
+     * Add a dependency of an entailed fact. This method should only be invoked by the miner of the head relation.
+     *
+     * @param headRelNum The numeration of the relation where the entailed fact is located
+     * @param head The node ID of the entailed fact
+     * @param dependency The node ID of a fact that the entailed fact depends on
+     */
+    public void addDependency(int headRelNum, int head, int dependency) {
+        final IntArrayList buffer = dependencyBuffers[relationIndices.get(headRelNum)];
+        buffer.add(head);
+        buffer.add(dependency);
+    }
+
+    /**
+     * Convert the dependencies into a CSR graph. The dependency buffers are released afterwards.
+     */
+    public CsrGraph build() {
+        if (null == graph) {
+            graph = CsrGraph.fromEdges(totalNodes, Arrays.asList(dependencyBuffers), offHeap);
+            dependencyBuffers = null;
+        }
+        return graph;
+    }
+
+    /**
+     * Check whether a fact has been entailed, i.e., it depends on other nodes. This should be invoked after "build".
+     */
+    public boolean isEntailed(int node) {
+        return 0 < graph.degree(node);
+    }
+
+    /**
+     * Find the records of a relation that are not entailed. The nodes of a relation are in a consecutive range, thus the
+     * records are found by scanning the range without looking up the nodes. This should be invoked after "build".
+     */
+    public List<Record> nonEntailedRecords(int relNum) {
+        final List<Record> records = new ArrayList<>();
+        final Integer idx = relationIndices.get(relNum);
+        if (null == idx) {
+            return records;
+        }
+        final KbRelation relation = kb.getRelation(relNum);
+        final int end = (idx + 1 < offsets.length) ? offsets[idx + 1] : totalNodes;
+        for (int node = offsets[idx]; node < end; node++) {
+            if (0 == graph.degree(node)) {
+                records.add(relation.recordAt(node - offsets[idx]));
+            }
+        }
+        return records;
+    }
+
+    public int totalNodes() {
+        return totalNodes;
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+}
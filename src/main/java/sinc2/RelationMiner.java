@@ -3,17 +3,18 @@ package sinc2;
 import sinc2.common.ArgLocation;
 import sinc2.common.Argument;
 import sinc2.common.InterruptedSignal;
+import sinc2.common.PerformanceMonitor;
 import sinc2.common.Predicate;
+import sinc2.common.RuleMonitor;
 import sinc2.kb.KbException;
 import sinc2.kb.KbRelation;
 import sinc2.kb.NumeratedKb;
-import sinc2.kb.Record;
 import sinc2.rule.*;
-import sinc2.util.MultiSet;
-import sinc2.util.graph.GraphNode;
 
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * A relation miner is used to induce logic rules that compress a single relation in a KB.
@@ -21,6 +22,9 @@ import java.util.*;
  * @since 2.0
  */
 public abstract class RelationMiner {
+    /** The maximum number of specialization operations evaluated sequentially in a single fork-join task */
+    public static final int SPECIALIZATION_TASK_GRANULARITY = 8;
+
     /** The input KB */
     protected final NumeratedKb kb;
     /** The target relation numeration */
@@ -31,16 +35,23 @@ public abstract class RelationMiner {
     protected final int beamwidth;
     /** The stopping compression ratio for inducing a single rule */
     protected final double stopCompressionRatio;
-    /** A mapping from predicates to the nodes in the dependency graph */
-    protected final Map<Predicate, GraphNode<Predicate>> predicate2NodeMap;
-    /** The dependency graph, in the form of an adjacent list */
-    protected final Map<GraphNode<Predicate>, Set<GraphNode<Predicate>>> dependencyGraph;
+    /** The dependency graph (shared by miners, each of which only adds the dependencies of the target relation) */
+    protected final DependencyGraph dependencyGraph;
     /** The hypothesis set, i.e., a list of rules */
     protected final List<Rule> hypothesis = new ArrayList<>();
-    /** The set of counterexamples */
-    protected final Set<Record> counterexamples = new HashSet<>();
-    /** The tabu set */
-    protected final Map<MultiSet<Integer>, Set<Fingerprint>> tabuSet = new HashMap<>();
+    /**
+     * The counterexamples of the target relation. The counterexamples are stored in a relation instead of a set of
+     * records to keep the memory cost low when a rule produces a large number of counterexamples.
+     */
+    protected final KbRelation counterexamples;
+    /** The tabu set (should be thread-safe as candidate rules may be evaluated in parallel) */
+    protected final TabuSet tabuSet = new TabuSet();
+    /** The worker pool for parallel candidate evaluation. NULL if the candidates are evaluated sequentially */
+    protected final ForkJoinPool workerPool;
+    /** The monitor of the mining procedure on the target relation */
+    protected final PerformanceMonitor.RelationMinerMonitor monitor;
+    /** The monitor of the operations on the rules (may be shared by the miners of the same compressor) */
+    protected final RuleMonitor ruleMonitor;
 
     /** Logger */
     protected final PrintWriter logger;
@@ -53,24 +64,53 @@ public abstract class RelationMiner {
      * @param evalMetric The rule evaluation metric
      * @param beamwidth The beamwidth used in the rule mining procedure
      * @param stopCompressionRatio The stopping compression ratio for inducing a single rule
-     * @param predicate2NodeMap The mapping from predicates to the nodes in the dependency graph
      * @param dependencyGraph The dependency graph
+     * @param workerPool The worker pool for parallel candidate evaluation. NULL if candidates are evaluated sequentially
+     * @param logger A logger
+     */
+    public RelationMiner(
+            NumeratedKb kb, int targetRelation, EvalMetric evalMetric, int beamwidth, double stopCompressionRatio,
+            DependencyGraph dependencyGraph, ForkJoinPool workerPool, PrintWriter logger
+    ) {
+        this(
+                kb, targetRelation, evalMetric, beamwidth, stopCompressionRatio, dependencyGraph, workerPool,
+                new RuleMonitor(), logger
+        );
+    }
+
+    /**
+     * Construct by passing parameters from the compressor that loads the data.
+     *
+     * @param kb The input KB
+     * @param targetRelation The target relation in the KB
+     * @param evalMetric The rule evaluation metric
+     * @param beamwidth The beamwidth used in the rule mining procedure
+     * @param stopCompressionRatio The stopping compression ratio for inducing a single rule
+     * @param dependencyGraph The dependency graph
+     * @param workerPool The worker pool for parallel candidate evaluation. NULL if candidates are evaluated sequentially
+     * @param ruleMonitor The monitor of the operations on the rules
      * @param logger A logger
      */
     public RelationMiner(
             NumeratedKb kb, int targetRelation, EvalMetric evalMetric, int beamwidth, double stopCompressionRatio,
-            Map<Predicate, GraphNode<Predicate>> predicate2NodeMap,
-            Map<GraphNode<Predicate>, Set<GraphNode<Predicate>>> dependencyGraph,
-            PrintWriter logger
+            DependencyGraph dependencyGraph, ForkJoinPool workerPool, RuleMonitor ruleMonitor, PrintWriter logger
     ) {
         this.kb = kb;
         this.targetRelation = targetRelation;
         this.evalMetric = evalMetric;
         this.beamwidth = beamwidth;
         this.stopCompressionRatio = stopCompressionRatio;
-        this.predicate2NodeMap = predicate2NodeMap;
         this.dependencyGraph = dependencyGraph;
+        this.workerPool = workerPool;
+        this.ruleMonitor = ruleMonitor;
         this.logger = logger;
+        final KbRelation target_relation = kb.getRelation(targetRelation);
+        this.counterexamples = new KbRelation(
+                target_relation.getName(), target_relation.getNumeration(), target_relation.getArity()
+        );
+        this.monitor = new PerformanceMonitor.RelationMinerMonitor(
+                target_relation.getName(), target_relation.totalRecords()
+        );
     }
 
     /**
@@ -85,24 +125,29 @@ public abstract class RelationMiner {
      */
     protected Rule findRule() {
         /* Create the beams */
-        Rule[] beams = new Rule[beamwidth];
-        beams[0] = getStartRule();
+        CandidateBuffer beams = new CandidateBuffer(beamwidth, evalMetric);
+        beams.offer(getStartRule());
         Rule best_local_optimum = null;
 
         /* Find a local optimum (there is certainly a local optimum in the search routine) */
         while (true) {
             /* Find the candidates in the next round according to current beams */
-            Rule[] best_candidates = new Rule[beamwidth];
+            CandidateBuffer best_candidates = new CandidateBuffer(beamwidth, evalMetric);
             try {
-                for (int i = 0; i < beamwidth && null != beams[i]; i++) {
-                    Rule r = beams[i];
+                /* The beams are iterated from the best to the worst. The candidates are keyed by the rank of the beam,
+                   the kind, and the index of the operation, so that the ties are broken in the same way whether or not
+                   the specializations are evaluated in parallel */
+                long beam_rank = 0;
+                for (Rule r: beams) {
                     selectAsBeam(r);
                     logger.printf("Extend: %s\n", r.toDumpString(kb.getNumerationMap()));
                     logger.flush();
 
                     /* Find the specializations and generalizations of rule 'r' */
-                    int specializations_cnt = findSpecializations(r, best_candidates);
-                    int generalizations_cnt = findGeneralizations(r, best_candidates);
+                    final long key_base = beam_rank << 33;
+                    int specializations_cnt = findSpecializations(r, best_candidates, key_base);
+                    int generalizations_cnt = findGeneralizations(r, best_candidates, key_base | (1L << 32));
+                    beam_rank++;
                     if (0 == specializations_cnt && 0 == generalizations_cnt) {
                         /* If no better specialized and generalized rules, 'r' is a local optimum */
                         /* Keep track of only the best local optimum */
@@ -114,30 +159,17 @@ public abstract class RelationMiner {
                 }
             } catch (InterruptedSignal e) {
                 /* Stop the finding procedure at the current stage and return the best rule */
-                Rule best_rule = beams[0];
-                for (int i = 1; i < beamwidth && null != beams[i]; i++) {
-                    if (best_rule.getEval().value(evalMetric) < beams[i].getEval().value(evalMetric)) {
-                        best_rule = beams[i];
-                    }
-                }
-                for (int i = 0; i < beamwidth && null != best_candidates[i]; i++) {
-                    if (best_rule.getEval().value(evalMetric) < best_candidates[i].getEval().value(evalMetric)) {
-                        best_rule = best_candidates[i];
-                    }
+                Rule best_rule = beams.best();
+                Rule best_candidate = best_candidates.best();
+                if (null != best_candidate &&
+                        best_rule.getEval().value(evalMetric) < best_candidate.getEval().value(evalMetric)) {
+                    best_rule = best_candidate;
                 }
                 return (null != best_rule) ? (best_rule.getEval().useful() ? best_rule : null) : null;
             }
 
             /* Find the best candidate */
-            Rule best_candidate = null;
-            if (null != best_candidates[0]) {
-                best_candidate = best_candidates[0];
-                for (int i = 1; i < beamwidth && null != best_candidates[i]; i++) {
-                    if (best_candidate.getEval().value(evalMetric) < best_candidates[i].getEval().value(evalMetric)) {
-                        best_candidate = best_candidates[i];
-                    }
-                }
-            }
+            Rule best_candidate = best_candidates.best();
 
             /* If there is a local optimum and it is the best among all, return the rule */
             if (null != best_local_optimum &&
@@ -165,13 +197,71 @@ public abstract class RelationMiner {
      * Find the specializations of a base rule. Only the specializations that have a better quality score is added to the
      * candidate list. The candidate list always keeps the best rules.
      *
+     * If a worker pool is available, the candidate specializations are evaluated in parallel. Each fork-join task keeps
+     * a local candidate list, and the local lists are reduced into the candidate list when the tasks are joined.
+     *
+     * The specializations are skipped before they are applied if the upper bound of their scores (see
+     * "Rule.specializationUpperBound") cannot make them candidates.
+     *
      * @param rule The basic rule
      * @param candidates The candidate list
      * @return The number of added candidates
      * @throws InterruptedSignal Thrown when the workflow should be interrupted
      */
-    protected int findSpecializations(final Rule rule, final Rule[] candidates) throws InterruptedSignal {
-        int added_candidate_cnt = 0;
+    protected int findSpecializations(final Rule rule, final CandidateBuffer candidates) throws InterruptedSignal {
+        return findSpecializations(rule, candidates, 0);
+    }
+
+    /**
+     * Find the specializations of a base rule. The specialization by the i-th operation is offered to the candidate
+     * list with the key "keyBase + i".
+     *
+     * @param rule The basic rule
+     * @param candidates The candidate list
+     * @param keyBase The key of the specialization by the first operation
+     * @return The number of added candidates
+     * @throws InterruptedSignal Thrown when the workflow should be interrupted
+     */
+    protected int findSpecializations(
+            final Rule rule, final CandidateBuffer candidates, final long keyBase
+    ) throws InterruptedSignal {
+        final List<SpecOpr> operations = enumerateSpecializations(rule);
+        final double upper_bound = rule.specializationUpperBound().value(evalMetric);
+        if (null == workerPool || SPECIALIZATION_TASK_GRANULARITY >= operations.size()) {
+            int added_candidate_cnt = 0;
+            for (int i = 0; i < operations.size(); i++) {
+                if (cannotBeCandidate(upper_bound, rule, candidates)) {
+                    ruleMonitor.recordUpperBoundPrunedCandidates(1);
+                    continue;
+                }
+                final Rule new_rule = rule.clone();
+                final UpdateStatus update_status = specialize(new_rule, operations.get(i));
+                added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates, keyBase + i);
+            }
+            return added_candidate_cnt;
+        }
+
+        final SpecializationTask task = new SpecializationTask(
+                rule, operations, 0, operations.size(), candidates.capacity(), upper_bound, keyBase
+        );
+        final SpecializationResult result = workerPool.invoke(task);
+        rule.getFingerprintCache().addAll(result.usedFingerprints);
+        if (result.interrupted) {
+            throw new InterruptedSignal("Interrupted");
+        }
+        candidates.merge(result.candidates);
+        return result.addedFingerprints.size();
+    }
+
+    /**
+     * Enumerate all specialization operations applicable to a rule. The operations are listed in the order of: case 1
+     * and 2 for each existing LV, then case 5, 3, and 4 for each empty argument.
+     *
+     * @param rule The basic rule
+     * @return The list of specialization operations
+     */
+    protected List<SpecOpr> enumerateSpecializations(final Rule rule) {
+        final List<SpecOpr> operations = new ArrayList<>();
 
         /* Find all empty arguments */
         List<ArgLocation> empty_args = new ArrayList<>();
@@ -189,19 +279,13 @@ public abstract class RelationMiner {
         for (int var_id = 0; var_id < rule.usedLimitedVars(); var_id++) {
             /* Case 1 */
             for (ArgLocation vacant: empty_args) {
-                final Rule new_rule = rule.clone();
-                final UpdateStatus update_status = new_rule.cvt1Uv2ExtLv(vacant.predIdx, vacant.argIdx, var_id);
-                added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates);
+                operations.add(new SpecOprCase1(vacant.predIdx, vacant.argIdx, var_id));
             }
 
             /* Case 2 */
             for (KbRelation relation: relations) {
                 for (int arg_idx = 0; arg_idx < relation.getArity(); arg_idx++) {
-                    final Rule new_rule = rule.clone();
-                    final UpdateStatus update_status = new_rule.cvt1Uv2ExtLv(
-                            relation.getNumeration(), relation.getArity(), arg_idx, var_id
-                    );
-                    added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates);
+                    operations.add(new SpecOprCase2(relation.getNumeration(), relation.getArity(), arg_idx, var_id));
                 }
             }
         }
@@ -215,36 +299,198 @@ public abstract class RelationMiner {
             /* Case 5 */
             final int[] const_list = kb.getPromisingConstants(predicate1.functor)[empty_arg_loc_1.argIdx];
             for (int constant: const_list) {
-                final Rule new_rule = rule.clone();
-                final UpdateStatus update_status = new_rule.cvt1Uv2Const(
-                        empty_arg_loc_1.predIdx, empty_arg_loc_1.argIdx, constant
-                );
-                added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates);
+                operations.add(new SpecOprCase5(empty_arg_loc_1.predIdx, empty_arg_loc_1.argIdx, constant));
             }
 
             /* Case 3 */
             for (int j = i + 1; j < empty_args.size(); j++) {
                 /* Find another empty argument */
                 final ArgLocation empty_arg_loc_2 = empty_args.get(j);
-                final Rule new_rule = rule.clone();
-                final UpdateStatus update_status = new_rule.cvt2Uvs2NewLv(
+                operations.add(new SpecOprCase3(
                         empty_arg_loc_1.predIdx, empty_arg_loc_1.argIdx, empty_arg_loc_2.predIdx, empty_arg_loc_2.argIdx
-                );
-                added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates);
+                ));
             }
 
             /* Case 4 */
             for (KbRelation relation: relations) {
                 for (int arg_idx = 0; arg_idx < relation.getArity(); arg_idx++) {
-                    final Rule new_rule = rule.clone();
-                    final UpdateStatus update_status = new_rule.cvt2Uvs2NewLv(
-                            relation.getNumeration(), relation.getArity(), arg_idx, empty_arg_loc_1.predIdx, empty_arg_loc_1.argIdx
-                    );
-                    added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates);
+                    operations.add(new SpecOprCase4(
+                            relation.getNumeration(), relation.getArity(), arg_idx, empty_arg_loc_1.predIdx,
+                            empty_arg_loc_1.argIdx
+                    ));
                 }
             }
         }
-        return added_candidate_cnt;
+        return operations;
+    }
+
+    /**
+     * Apply a specialization operation on a rule and record the time cost in the monitor.
+     *
+     * @param rule The rule that is going to be specialized
+     * @param operation The specialization operation
+     * @return The update status
+     */
+    protected UpdateStatus specialize(final Rule rule, final SpecOpr operation) {
+        final long time_start = System.nanoTime();
+        final UpdateStatus update_status = operation.specialize(rule);
+        ruleMonitor.recordSpecialization(operation.getSpecCase(), update_status, System.nanoTime() - time_start);
+        return update_status;
+    }
+
+    /**
+     * The result of a specialization task, i.e., the local candidate list, the added candidates, and the fingerprints
+     * used by the task.
+     */
+    protected static class SpecializationResult {
+        final CandidateBuffer candidates;
+        boolean interrupted = false;
+        final Set<Fingerprint> usedFingerprints = new HashSet<>();
+        /** The fingerprints of the added candidates, the size of which is the number of added candidates */
+        final List<Fingerprint> addedFingerprints = new ArrayList<>();
+
+        SpecializationResult(int beamwidth, EvalMetric evalMetric) {
+            this.candidates = new CandidateBuffer(beamwidth, evalMetric);
+        }
+    }
+
+    /**
+     * The fingerprint cache of a specialization task. The shared cache is only read by the tasks, and the fingerprints
+     * used by a task are added to its local set. Thus, whether a specialization is duplicated within a task does not
+     * depend on the scheduling of the other tasks.
+     */
+    protected static class TaskFingerprintCache extends AbstractSet<Fingerprint> {
+        /** The cache of the fingerprints used before the tasks */
+        final Set<Fingerprint> sharedCache;
+        /** The fingerprints used by the task, which are not in the shared cache */
+        final Set<Fingerprint> localCache;
+
+        TaskFingerprintCache(Set<Fingerprint> sharedCache, Set<Fingerprint> localCache) {
+            this.sharedCache = sharedCache;
+            this.localCache = localCache;
+        }
+
+        @Override
+        public boolean add(Fingerprint fingerprint) {
+            return !sharedCache.contains(fingerprint) && localCache.add(fingerprint);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return sharedCache.contains(o) || localCache.contains(o);
+        }
+
+        @Override
+        public Iterator<Fingerprint> iterator() {
+            final Iterator<Fingerprint> shared_itr = sharedCache.iterator();
+            final Iterator<Fingerprint> local_itr = localCache.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return shared_itr.hasNext() || local_itr.hasNext();
+                }
+
+                @Override
+                public Fingerprint next() {
+                    return shared_itr.hasNext() ? shared_itr.next() : local_itr.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return sharedCache.size() + localCache.size();
+        }
+    }
+
+    /**
+     * The fork-join task that evaluates a range of specialization operations on a base rule. The range is split into
+     * halves until it is no larger than "SPECIALIZATION_TASK_GRANULARITY".
+     *
+     * The specializations are checked for duplication by the cache of each task (see "TaskFingerprintCache"), and the
+     * duplications among the tasks are removed when the results are reduced, where the one by the operation with the
+     * smallest key is kept as in sequential evaluation. The fingerprints used by the tasks are added to the shared cache
+     * after all tasks are done.
+     */
+    protected class SpecializationTask extends RecursiveTask<SpecializationResult> {
+        private static final long serialVersionUID = 1L;
+
+        final Rule rule;
+        final List<SpecOpr> operations;
+        final int startIdx;
+        final int endIdx;
+        final int beamwidth;
+        /** The upper bound of the scores of the specializations */
+        final double upperBound;
+        /** The key of the specialization by the first operation in the list */
+        final long keyBase;
+
+        SpecializationTask(
+                Rule rule, List<SpecOpr> operations, int startIdx, int endIdx, int beamwidth, double upperBound,
+                long keyBase
+        ) {
+            this.rule = rule;
+            this.operations = operations;
+            this.startIdx = startIdx;
+            this.endIdx = endIdx;
+            this.beamwidth = beamwidth;
+            this.upperBound = upperBound;
+            this.keyBase = keyBase;
+        }
+
+        @Override
+        protected SpecializationResult compute() {
+            if (SPECIALIZATION_TASK_GRANULARITY >= endIdx - startIdx) {
+                final SpecializationResult result = new SpecializationResult(beamwidth, evalMetric);
+                final Rule task_rule = rule.clone();
+                task_rule.setFingerprintCache(
+                        new TaskFingerprintCache(rule.getFingerprintCache(), result.usedFingerprints)
+                );
+                try {
+                    for (int i = startIdx; i < endIdx; i++) {
+                        if (cannotBeCandidate(upperBound, rule, result.candidates)) {
+                            ruleMonitor.recordUpperBoundPrunedCandidates(1);
+                            continue;
+                        }
+                        final Rule new_rule = task_rule.clone();
+                        final UpdateStatus update_status = specialize(new_rule, operations.get(i));
+                        if (0 < checkThenAddRule(update_status, new_rule, rule, result.candidates, keyBase + i)) {
+                            result.addedFingerprints.add(new_rule.getFingerprint());
+                        }
+                    }
+                } catch (InterruptedSignal e) {
+                    result.interrupted = true;
+                }
+                return result;
+            }
+
+            final int mid_idx = (startIdx + endIdx) / 2;
+            final SpecializationTask left_task = new SpecializationTask(
+                    rule, operations, startIdx, mid_idx, beamwidth, upperBound, keyBase
+            );
+            final SpecializationTask right_task = new SpecializationTask(
+                    rule, operations, mid_idx, endIdx, beamwidth, upperBound, keyBase
+            );
+            right_task.fork();
+            final SpecializationResult left_result = left_task.compute();
+            final SpecializationResult right_result = right_task.join();
+
+            /* Reduce the local candidate lists. The operations of the left task have smaller keys, thus the candidates
+               of the right task that are duplicated in the left task are dropped. A duplicated candidate that is not
+               kept in the left list cannot be kept in the merged list either, as it is worse than the one in the left
+               task, which has the same score and a smaller key */
+            left_result.interrupted |= right_result.interrupted;
+            left_result.candidates.merge(
+                    right_result.candidates, r -> !left_result.usedFingerprints.contains(r.getFingerprint())
+            );
+            for (Fingerprint fingerprint: right_result.addedFingerprints) {
+                if (!left_result.usedFingerprints.contains(fingerprint)) {
+                    left_result.addedFingerprints.add(fingerprint);
+                }
+            }
+            left_result.usedFingerprints.addAll(right_result.usedFingerprints);
+            return left_result;
+        }
     }
 
     /**
@@ -256,16 +502,35 @@ public abstract class RelationMiner {
      * @return The number of added candidates
      * @throws InterruptedSignal Thrown when the workflow should be interrupted
      */
-    protected int findGeneralizations(final Rule rule, final Rule[] candidates) throws InterruptedSignal {
+    protected int findGeneralizations(final Rule rule, final CandidateBuffer candidates) throws InterruptedSignal {
+        return findGeneralizations(rule, candidates, 0);
+    }
+
+    /**
+     * Find the generalizations of a basic rule. The generalizations are offered to the candidate list with the keys
+     * "keyBase", "keyBase + 1", ..., in the order of the removed arguments.
+     *
+     * @param rule The original rule
+     * @param candidates The candidate list
+     * @param keyBase The key of the first generalization
+     * @return The number of added candidates
+     * @throws InterruptedSignal Thrown when the workflow should be interrupted
+     */
+    protected int findGeneralizations(
+            final Rule rule, final CandidateBuffer candidates, final long keyBase
+    ) throws InterruptedSignal {
         int added_candidate_cnt = 0;
+        long key = keyBase;
         for (int pred_idx = Rule.HEAD_PRED_IDX; pred_idx < rule.predicates(); pred_idx++) {
             /* Independent fragment may appear in a generalized rule, but this will be found by checking rule validness */
             final Predicate predicate = rule.getPredicate(pred_idx);
             for (int arg_idx = 0; arg_idx < predicate.arity(); arg_idx++) {
                 if (Argument.isNonEmpty(predicate.args[arg_idx])) {
                     final Rule new_rule = rule.clone();
+                    final long time_start = System.nanoTime();
                     final UpdateStatus update_status = new_rule.rmAssignedArg(pred_idx, arg_idx);
-                    added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates);
+                    ruleMonitor.recordGeneralization(update_status, System.nanoTime() - time_start);
+                    added_candidate_cnt += checkThenAddRule(update_status, new_rule, rule, candidates, key++);
                 }
             }
         }
@@ -280,35 +545,24 @@ public abstract class RelationMiner {
      * @param updatedRule The updated rule
      * @param originalRule The original rule
      * @param candidates The candidate list
+     * @param key The key of the updated rule in the candidate list
      * @return 1 if the update is successful and the updated rule is better than the original one; 0 otherwise.
      * @throws InterruptedSignal Thrown when the workflow should be interrupted
      */
     protected int checkThenAddRule(
-            UpdateStatus updateStatus, Rule updatedRule, Rule originalRule, Rule[] candidates
+            UpdateStatus updateStatus, Rule updatedRule, Rule originalRule, CandidateBuffer candidates, long key
     ) throws InterruptedSignal {
         boolean updated_is_better = false;
         switch (updateStatus) {
             case NORMAL:
-                if (updatedRule.getEval().value(evalMetric) > originalRule.getEval().value(evalMetric)) {
+                if (updatedRule.evalIsApproximated() && screenOut(updatedRule, originalRule, candidates)) {
+                    ruleMonitor.recordScreenedOutCandidate();
+                    break;
+                }
+                final double updated_score = updatedRule.getEval().value(evalMetric);
+                if (updated_score > originalRule.getEval().value(evalMetric)) {
                     updated_is_better = true;
-                    if (null == candidates[0]) {
-                        candidates[0] = updatedRule;
-                    } else {
-                        int worst_candidate_idx = 0;
-                        double lowest_score = candidates[0].getEval().value(evalMetric);
-                        for (int i = 1; i < candidates.length; i++) {
-                            if (null == candidates[i]) {
-                                worst_candidate_idx = i;
-                                break;
-                            }
-                            double candidate_socre = candidates[i].getEval().value(evalMetric);
-                            if (lowest_score > candidate_socre) {
-                                worst_candidate_idx = i;
-                                lowest_score = candidate_socre;
-                            }
-                        }
-                        candidates[worst_candidate_idx] = updatedRule;
-                    }
+                    candidates.offer(updatedRule, updated_score, key);
                 }
                 break;
             case INVALID:
@@ -326,6 +580,34 @@ public abstract class RelationMiner {
         return updated_is_better ? 1 : 0;
     }
 
+    /**
+     * Check whether a rule with an approximated evaluation can be discarded without calculating the exact evaluation.
+     * The approximated evaluation is optimistic, thus the rule is discarded if the estimated score is not higher than
+     * the original rule or the worst candidate in a full candidate list.
+     *
+     * @param updatedRule The updated rule, the evaluation of which is approximated
+     * @param originalRule The original rule
+     * @param candidates The candidate list
+     * @return Whether the rule should be discarded
+     */
+    protected boolean screenOut(Rule updatedRule, Rule originalRule, CandidateBuffer candidates) {
+        return cannotBeCandidate(updatedRule.getApproxEval().value(evalMetric), originalRule, candidates);
+    }
+
+    /**
+     * Check whether a rule can never be added to the candidate list by "checkThenAddRule" if its score is no higher than
+     * a certain value, i.e., the value is not higher than the original rule or the worst candidate in a full candidate
+     * list.
+     *
+     * @param scoreUpperBound The upper bound of the score of the rule
+     * @param originalRule The original rule
+     * @param candidates The candidate list
+     */
+    protected boolean cannotBeCandidate(double scoreUpperBound, Rule originalRule, CandidateBuffer candidates) {
+        return scoreUpperBound <= originalRule.getEval().value(evalMetric) ||
+                (candidates.isFull() && scoreUpperBound <= candidates.worstScore());
+    }
+
     /**
      * Select rule r as one of the beams in the next iteration of rule mining. Shared operations for beams may be added
      * in this method, e.g., updating the cache indices.
@@ -339,36 +621,42 @@ public abstract class RelationMiner {
      * @throws KbException When KB operation fails
      */
     protected void updateKbAndDependencyGraph(Rule rule) throws KbException {
-        counterexamples.addAll(rule.getCounterexamples());
+        final long time_start = System.nanoTime();
+        rule.forEachCounterexample(counterexamples::addRecordUnchecked);
+        final long time_ce_done = System.nanoTime();
+        monitor.counterexampleTimeNano += time_ce_done - time_start;
+        ruleMonitor.recordCounterexamples(time_ce_done - time_start);
         EvidenceBatch evidence_batch = rule.getEvidenceAndMarkEntailment();
         for (int[][] grounding: evidence_batch.evidenceList) {
-            final Predicate head_pred = new Predicate(
+            final int head_node = nodeOf(
                     evidence_batch.relationsInRule[Rule.HEAD_PRED_IDX], grounding[Rule.HEAD_PRED_IDX]
             );
-            final GraphNode<Predicate> head_node = predicate2NodeMap.computeIfAbsent(
-                    head_pred, k -> new GraphNode<>(head_pred)
-            );
-            dependencyGraph.compute(head_node, (h, dependencies) -> {
-                if (null == dependencies) {
-                    dependencies = new HashSet<>();
+            if (1 >= grounding.length) {
+                /* dependency is the "⊥" node */
+                dependencyGraph.addDependency(targetRelation, head_node, DependencyGraph.AXIOM_NODE);
+            } else {
+                for (int pred_idx = Rule.FIRST_BODY_PRED_IDX; pred_idx < grounding.length; pred_idx++) {
+                    final int body_node = nodeOf(evidence_batch.relationsInRule[pred_idx], grounding[pred_idx]);
+                    dependencyGraph.addDependency(targetRelation, head_node, body_node);
                 }
-                if (1 >= grounding.length) {
-                    /* dependency is the "⊥" node */
-                    dependencies.add(SInC.AXIOM_NODE);
-                } else {
-                    for (int pred_idx = Rule.FIRST_BODY_PRED_IDX; pred_idx < grounding.length; pred_idx++) {
-                        final Predicate body_pred = new Predicate(
-                                evidence_batch.relationsInRule[pred_idx], grounding[pred_idx]
-                        );
-                        final GraphNode<Predicate> body_node = predicate2NodeMap.computeIfAbsent(
-                                body_pred, kk -> new GraphNode<>(body_pred)
-                        );
-                        dependencies.add(body_node);
-                    }
-                }
-                return dependencies;
-            });
+            }
         }
+        monitor.updateKbAndDependencyGraphTimeNano += System.nanoTime() - time_start;
+    }
+
+    /**
+     * Find the node of a fact in the dependency graph.
+     *
+     * @throws KbException When the fact is not in the KB
+     */
+    protected int nodeOf(int relNum, int[] args) throws KbException {
+        final int node = dependencyGraph.nodeOf(relNum, args);
+        if (0 > node) {
+            throw new KbException(String.format(
+                    "Fact not in the KB: %s%s", kb.num2Name(relNum), Arrays.toString(args)
+            ));
+        }
+        return node;
     }
 
     /**
@@ -377,19 +665,43 @@ public abstract class RelationMiner {
      * @throws KbException When KB operation fails
      */
     public void run() throws KbException {
-        Rule rule;
-        while (!SInC.interrupted && (null != (rule = findRule()))) {
-            logger.printf("Found: %s\n", rule.toDumpString(kb.getNumerationMap()));
-            hypothesis.add(rule);
-            updateKbAndDependencyGraph(rule);
+        final long time_start = System.nanoTime();
+        try {
+            while (!SInC.interrupted) {
+                final long time_iteration_start = System.nanoTime();
+                final Rule rule = findRule();
+                monitor.findRuleTimeNano.add(System.nanoTime() - time_iteration_start);
+                if (null == rule) {
+                    break;
+                }
+                logger.printf("Found: %s\n", rule.toDumpString(kb.getNumerationMap()));
+                hypothesis.add(rule);
+                updateKbAndDependencyGraph(rule);
+            }
+        } finally {
+            monitor.rules = hypothesis.size();
+            monitor.counterexamples = counterexamples.totalRecords();
+            monitor.totalTimeNano = System.nanoTime() - time_start;
         }
     }
 
-    public Set<Record> getCounterexamples() {
+    public int getTargetRelation() {
+        return targetRelation;
+    }
+
+    public KbRelation getCounterexamples() {
         return counterexamples;
     }
 
     public List<Rule> getHypothesis() {
         return hypothesis;
     }
+
+    public PerformanceMonitor.RelationMinerMonitor getMonitor() {
+        return monitor;
+    }
+
+    public RuleMonitor getRuleMonitor() {
+        return ruleMonitor;
+    }
 }
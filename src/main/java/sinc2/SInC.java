@@ -1,15 +1,16 @@
 package sinc2;
 
-import sinc2.common.Predicate;
+import sinc2.common.PerformanceMonitor;
 import sinc2.kb.*;
 import sinc2.rule.Rule;
-import sinc2.util.graph.FeedbackVertexSetSolver;
-import sinc2.util.graph.GraphNode;
-import sinc2.util.graph.Tarjan;
+import sinc2.util.graph.CsrFeedbackVertexSetSolver;
+import sinc2.util.graph.CsrGraph;
+import sinc2.util.graph.CsrTarjan;
 
 import java.io.*;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * The abstract class for SInC. The overall compression procedure is implemented here.
@@ -22,6 +23,8 @@ public abstract class SInC {
     public static final String LOG_FILE_NAME = "log.meta";
     /** The output content (stdout/stderr) file name */
     public static final String STD_OUTPUT_FILE_NAME = "std.meta";
+    /** The performance info file name in the compressed KB */
+    public static final String PERFORMANCE_FILE_NAME = "perf.meta";
     /** The command string to interrupt the compression workflow */
     public static final String INTERRUPT_CMD = "stop";
 
@@ -29,30 +32,32 @@ public abstract class SInC {
      * A flag denoting the interruption of the workflow. It is shared read-only by all worker threads and shared
      * write-only to the daemon thread.
      */
-    public static boolean interrupted = false;
-
-    /** The axiom node refers to the "⊥" node in the dependency graph */
-    protected static final GraphNode<Predicate> AXIOM_NODE = new GraphNode<>(new Predicate(0, 0));
+    public static volatile boolean interrupted = false;
 
     /* Runtime configurations */
     /** SInC configuration */
     protected final SincConfig config;
     /** The logger */
     protected final PrintWriter logger;
+    /**
+     * The work-stealing pool shared by relation miners and parallel candidate evaluation. NULL if SInC runs in a single
+     * thread.
+     */
+    protected final ForkJoinPool workerPool;
+    /** The performance monitor */
+    protected final PerformanceMonitor performanceMonitor = new PerformanceMonitor();
 
     /* Compression related data */
     /** The input KB */
     protected NumeratedKb kb;
     /** The compressed KB */
     protected CompressedKb compressedKb;
-    /** A mapping from predicates to the nodes in the dependency graph */
-    protected final Map<Predicate, GraphNode<Predicate>> predicate2NodeMap = new HashMap<>();
     /**
-     * The dependency graph, in the form of an adjacent list.
-     * Note: In the implementation, the set of neighbours in the adjacent list refers to the in-neighbours instead of
-     * out-neighbours.
+     * The dependency graph of the facts. The graph is shared by relation miners running in parallel, and the
+     * dependencies of the facts in a relation are only added by the miner of the relation.
+     * Note: The edges in the graph are from the entailed facts to the facts they depend on.
      */
-    protected final Map<GraphNode<Predicate>, Set<GraphNode<Predicate>>> dependencyGraph = new HashMap<>();
+    protected DependencyGraph dependencyGraph;
 
     /**
      * Create a SInC object with configurations.
@@ -83,13 +88,14 @@ public abstract class SInC {
 
         Rule.MIN_FACT_COVERAGE = config.minFactCoverage;
         KbRelation.MIN_CONSTANT_COVERAGE = config.minConstantCoverage;
+        this.workerPool = (1 < config.threads) ? new ForkJoinPool(config.threads) : null;
     }
 
     /**
      * Load a KB (in the format of Numerated KB) and return the KB
      */
     protected NumeratedKb loadKb() throws KbException, IOException {
-        NumeratedKb kb =  new NumeratedKb(config.kbName, config.basePath);
+        NumeratedKb kb =  new NumeratedKb(config.kbName, config.basePath, false, config.threads);
         kb.updatePromisingConstants();
         return kb;
     }
@@ -107,34 +113,137 @@ public abstract class SInC {
     }
 
     /**
-     * Determine the necessary set.
+     * Determine the necessary set. If more than one thread is configured, the non-entailed records of each relation are
+     * found by a separate task on the worker pool, concurrently with the SCC analysis.
      */
     protected void dependencyAnalysis() throws KbException {
         /* The KB has already been updated by the relation miners. Here we only need to find the nodes with no in-degree
          * and those in the MFVS solution */
+        final CsrGraph graph = dependencyGraph.build();
+
         /* Find all nodes that are not entailed */
+        final List<Future<Object>> necessary_futures = new ArrayList<>();
         for (KbRelation relation: kb.getRelations()) {
-            for (Record record: relation.getRecords()) {
-                GraphNode<Predicate> node = new GraphNode<>(new Predicate(relation.getNumeration(), record.args));
-                if (!dependencyGraph.containsKey(node)) {
-                    compressedKb.addRecord(relation.getNumeration(), record);
-                }
+            final int rel_num = relation.getNumeration();
+            if (null == workerPool) {
+                compressedKb.addNecessaryRecords(rel_num, dependencyGraph.nonEntailedRecords(rel_num));
+            } else {
+                necessary_futures.add(workerPool.submit(() -> {
+                    compressedKb.addNecessaryRecords(rel_num, dependencyGraph.nonEntailedRecords(rel_num));
+                    return null;
+                }));
             }
         }
 
         /* Find all SCCs */
-        final Tarjan<GraphNode<Predicate>> tarjan = new Tarjan<>(dependencyGraph, false);
-        final List<Set<GraphNode<Predicate>>> sccs = tarjan.run();
-        for (Set<GraphNode<Predicate>> scc: sccs) {
-            /* 找出FVS的一个解，并把之放入start_set */
-            /* Find a solution of MFVS and add to "necessaries" */
-            final FeedbackVertexSetSolver<GraphNode<Predicate>> fvs_solver =
-                    new FeedbackVertexSetSolver<>(dependencyGraph, scc);
-            final Set<GraphNode<Predicate>> fvs = fvs_solver.run();
-            for (GraphNode<Predicate> node: fvs) {
-                compressedKb.addRecord(node.content.functor, node.content.args);
+        final long time_tarjan_start = System.nanoTime();
+        final CsrTarjan tarjan = new CsrTarjan(graph);
+        final List<int[]> sccs = tarjan.run();
+        final long time_fvs_start = System.nanoTime();
+        performanceMonitor.tarjanTimeNano = time_fvs_start - time_tarjan_start;
+        performanceMonitor.sccNumber = sccs.size();
+        final List<int[]> fvs_list = solveFeedbackVertexSets(graph, sccs);
+
+        /* The MFVS solutions are added after all non-entailed records are added */
+        joinAll(necessary_futures);
+        for (int i = 0; i < sccs.size(); i++) {
+            /* Add the solutions of MFVS to "necessaries" */
+            final int[] fvs = fvs_list.get(i);
+            for (int node: fvs) {
+                compressedKb.addRecord(dependencyGraph.relationOf(node), dependencyGraph.recordOf(node));
             }
+            performanceMonitor.sccVertices += sccs.get(i).length;
+            performanceMonitor.fvsVertices += fvs.length;
+        }
+        performanceMonitor.fvsTimeNano = System.nanoTime() - time_fvs_start;
+    }
+
+    /**
+     * Find the MFVS solutions of the SCCs. The SCCs are disjoint, thus the solutions are independent and are found in
+     * parallel on the worker pool if more than one thread is configured.
+     *
+     * @return The solutions, in the order of the SCCs
+     * @throws KbException When the worker pool is interrupted
+     */
+    protected List<int[]> solveFeedbackVertexSets(CsrGraph graph, List<int[]> sccs) throws KbException {
+        if (null == workerPool) {
+            final List<int[]> results = new ArrayList<>(sccs.size());
+            for (int[] scc: sccs) {
+                results.add(new CsrFeedbackVertexSetSolver(graph, scc).run());
+            }
+            return results;
+        }
+
+        final List<Future<int[]>> futures = new ArrayList<>(sccs.size());
+        for (int[] scc: sccs) {
+            futures.add(workerPool.submit(() -> new CsrFeedbackVertexSetSolver(graph, scc).run()));
+        }
+        return joinAll(futures);
+    }
+
+    /**
+     * Wait for the tasks on the worker pool and collect the results. If any of the tasks fails, the others are cancelled
+     * and waited for before the failure is thrown.
+     *
+     * @return The results, in the order of the futures
+     * @throws KbException When KB operation fails in any of the tasks or the worker pool is interrupted
+     */
+    protected <T> List<T> joinAll(List<Future<T>> futures) throws KbException {
+        final List<T> results = new ArrayList<>(futures.size());
+        boolean joined = false;
+        try {
+            for (Future<T> future: futures) {
+                results.add(future.get());
+            }
+            joined = true;
+        } catch (ExecutionException e) {
+            throw unwrapTaskFailure(e);
+        } catch (InterruptedException e) {
+            throw new KbException(e);
+        } finally {
+            if (!joined) {
+                cancelAll(futures);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Cancel the tasks that have not started and wait until the worker pool is quiescent, so that no task is left
+     * running on the shared data after a failure.
+     */
+    protected void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future: futures) {
+            future.cancel(false);
+        }
+        workerPool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the failure of a task on the worker pool that should be thrown. The checked exceptions of the callables are
+     * wrapped in runtime exceptions by "ForkJoinPool", which may be wrapped again when the exceptions are rethrown in
+     * another thread. Thus, a "KbException" is searched in the chain of the wrappers.
+     *
+     * @throws RuntimeException When the task fails with a runtime exception
+     * @throws Error When the task fails with an error
+     */
+    protected static KbException unwrapTaskFailure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        Throwable wrapped = cause;
+        while (wrapped instanceof RuntimeException && null != wrapped.getCause()) {
+            wrapped = wrapped.getCause();
+        }
+        if (wrapped instanceof KbException) {
+            cause = wrapped;
+        }
+        if (cause instanceof KbException) {
+            return (KbException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
         }
+        return new KbException(cause);
     }
 
     /**
@@ -154,8 +263,24 @@ public abstract class SInC {
         compressedKb.dump(config.dumpPath);
     }
 
+    /**
+     * Show the monitored info in the log and dump it to the performance info file.
+     */
     protected void showMonitor() {
+        performanceMonitor.show(logger);
         logger.flush();
+        try (PrintWriter writer = new PrintWriter(
+                Paths.get(config.dumpPath, config.dumpName, PERFORMANCE_FILE_NAME).toFile()
+        )) {
+            performanceMonitor.dump(writer);
+        } catch (IOException e) {
+            e.printStackTrace(logger);
+            logger.println("[ERROR] Performance info dump failed.");
+        }
+    }
+
+    public PerformanceMonitor getPerformanceMonitor() {
+        return performanceMonitor;
     }
 
     public CompressedKb getCompressedKb() {
@@ -164,11 +289,74 @@ public abstract class SInC {
 
     protected abstract RelationMiner createRelationMiner(int targetRelationNum);
 
+    /**
+     * Run relation miners on the target relations. If more than one thread is configured, the miners are scheduled on the
+     * worker pool. Relation miners of different target relations are independent, as each miner only marks entailments
+     * in its own target relation and the shared dependency graph is thread-safe. The pool is also used by the miners to
+     * evaluate candidate rules in parallel, so idle workers steal candidate evaluations from miners that are still
+     * running. The results of the miners are merged into the compressed KB in the order of the target relations. If
+     * any of the miners fails, the others are interrupted and waited for before the failure is thrown.
+     *
+     * @param targetRelations The numerations of the target relations
+     * @throws KbException When KB operation fails in any of the relation miners
+     */
+    protected void runRelationMiners(List<Integer> targetRelations) throws KbException {
+        if (null == workerPool) {
+            for (Integer relation_num: targetRelations) {
+                RelationMiner relation_miner = createRelationMiner(relation_num);
+                relation_miner.run();
+                mergeRelationMinerResults(relation_miner);
+            }
+            return;
+        }
+
+        final List<Future<RelationMiner>> futures = new ArrayList<>(targetRelations.size());
+        for (Integer relation_num: targetRelations) {
+            futures.add(workerPool.submit(() -> {
+                RelationMiner relation_miner = createRelationMiner(relation_num);
+                relation_miner.run();
+                return relation_miner;
+            }));
+        }
+        boolean joined = false;
+        try {
+            for (Future<RelationMiner> future: futures) {
+                mergeRelationMinerResults(future.get());
+            }
+            joined = true;
+        } catch (ExecutionException e) {
+            throw unwrapTaskFailure(e);
+        } catch (InterruptedException e) {
+            throw new KbException(e);
+        } finally {
+            if (!joined) {
+                /* The running miners are interrupted so that they stop early */
+                interrupted = true;
+                cancelAll(futures);
+            }
+        }
+    }
+
+    /**
+     * Add the hypothesis and the counterexamples found by a relation miner to the compressed KB.
+     *
+     * @throws KbException When the counterexamples do not match the relation
+     */
+    protected void mergeRelationMinerResults(RelationMiner relationMiner) throws KbException {
+        KbRelation ce_relation = compressedKb.getCounterexampleRelation(relationMiner.getTargetRelation());
+        ce_relation.addRecords(relationMiner.getCounterexamples());
+        for (Rule r: relationMiner.getHypothesis()) {
+            compressedKb.addHypothesisRule(r);
+        }
+        performanceMonitor.relationMinerMonitors.add(relationMiner.getMonitor());
+    }
+
     /**
      * The compress procedure.
      */
     private void compress() {
         /* Load KB */
+        final long time_start = System.nanoTime();
         try {
             kb = loadKb();
         } catch (KbException | IOException e) {
@@ -177,24 +365,23 @@ public abstract class SInC {
             return;
         }
         compressedKb = new CompressedKb(config.dumpName, kb);
+        dependencyGraph = new DependencyGraph(kb, config.offHeapDependencyGraph);
+        final long time_kb_loaded = System.nanoTime();
+        performanceMonitor.kbLoadTimeNano = time_kb_loaded - time_start;
+        performanceMonitor.kbRelations = kb.totalRelations();
+        performanceMonitor.kbConstants = kb.totalMappings();
+        performanceMonitor.kbSize = kb.totalRecords();
 
         /* Run relation miners on each relation */
         try {
-            final List<Integer> target_relations = getTargetRelations();
-            for (Integer relation_num: target_relations) {
-                RelationMiner relation_miner = createRelationMiner(relation_num);
-                relation_miner.run();
-                KbRelation ce_relation = compressedKb.getCounterexampleRelation(relation_num);
-                ce_relation.addRecords(relation_miner.getCounterexamples());
-                for (Rule r: relation_miner.getHypothesis()) {
-                    compressedKb.addHypothesisRule(r);
-                }
-            }
+            runRelationMiners(getTargetRelations());
         } catch (KbException e) {
             e.printStackTrace(logger);
             logger.println("[ERROR] Relation Miner failed. Interrupt");
             interrupted = true;
         }
+        final long time_hypothesis_found = System.nanoTime();
+        performanceMonitor.hypothesisMiningTimeNano = time_hypothesis_found - time_kb_loaded;
 
         /* Dependency analysis */
         try {
@@ -211,6 +398,12 @@ public abstract class SInC {
             logger.println();
             return;
         }
+        final long time_dependency_resolved = System.nanoTime();
+        performanceMonitor.dependencyAnalysisTimeNano = time_dependency_resolved - time_hypothesis_found;
+        performanceMonitor.hypothesisRuleNumber = compressedKb.getHypothesis().size();
+        performanceMonitor.hypothesisSize = compressedKb.totalHypothesisSize();
+        performanceMonitor.necessaries = compressedKb.totalNecessaryRecords();
+        performanceMonitor.counterexamples = compressedKb.totalCounterexamples();
 
         /* Log the hypothesis */
         logger.println("\n### Hypothesis Found ###");
@@ -227,6 +420,10 @@ public abstract class SInC {
             logger.println("[ERROR] Compressed KB dump failed. Abort.");
             return;
         }
+        final long time_dumped = System.nanoTime();
+        performanceMonitor.dumpTimeNano = time_dumped - time_dependency_resolved;
+        performanceMonitor.supplementaryConstants = compressedKb.totalSupplementaryConstants();
+        performanceMonitor.totalTimeNano = time_dumped - time_start;
 
         /* 检查结果 */
         if (config.validation) {
@@ -271,6 +468,9 @@ public abstract class SInC {
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
+            if (null != workerPool) {
+                workerPool.shutdown();
+            }
         }
     }
 }
@@ -20,7 +20,7 @@ public class SincConfig {
     public final String dumpName;
 
     /* Runtime Config */
-    /** The number of threads used to run SInC Todo: Implement multi-thread strategy */
+    /** The number of threads used to run SInC. Relation miners of different target relations run in parallel if it is larger than 1 */
     public int threads;
     /** Whether the compressed KB is recovered to check the correctness */
     public boolean validation;
@@ -37,6 +37,20 @@ public class SincConfig {
     public double minConstantCoverage;
     /** The threshold for maximum compression ratio of a single rule */
     public double stopCompressionRatio;
+    /**
+     * The relative error tolerance of the approximate evaluation that screens the candidate rules. Candidates are
+     * evaluated exactly only if the estimated scores can enter the beam. The estimations are optimistic with the
+     * confidence of "KmvSketch.CONFIDENCE_Z" standard errors, thus a small fraction of the candidates may be falsely
+     * screened out. The screening is turned off if it is 0.
+     */
+    public double approxEvalTolerance = 0;
+    /**
+     * The maximum number of records of a target relation the rules are searched on. Larger relations are sampled and
+     * the found rules are verified on the entire KB. The sampling is turned off if it is 0.
+     */
+    public int relationSampleSize = 0;
+    /** Whether the edges of the dependency graph are stored out of the Java heap */
+    public boolean offHeapDependencyGraph = false;
 
     public SincConfig(
             String basePath, String kbName, String dumpPath, String dumpName, int threads, boolean validation,
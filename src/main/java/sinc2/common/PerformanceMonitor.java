@@ -0,0 +1,158 @@
+package sinc2.common;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The monitor of the compression procedure. Time costs are recorded in nanoseconds and shown in milliseconds.
+ *
+ * @since 2.0
+ */
+public class PerformanceMonitor {
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    /**
+     * The monitored info of a single relation miner. A relation miner runs in a single thread, thus the fields are not
+     * synchronized.
+     */
+    public static class RelationMinerMonitor {
+        public final String relationName;
+        public final int relationRecords;
+        /** The time cost of each iteration of "RelationMiner.findRule" */
+        public final List<Long> findRuleTimeNano = new ArrayList<>();
+        public long updateKbAndDependencyGraphTimeNano = 0;
+        public long counterexampleTimeNano = 0;
+        public long totalTimeNano = 0;
+        public int rules = 0;
+        public int counterexamples = 0;
+
+        public RelationMinerMonitor(String relationName, int relationRecords) {
+            this.relationName = relationName;
+            this.relationRecords = relationRecords;
+        }
+
+        public long totalFindRuleTimeNano() {
+            long total = 0;
+            for (long time: findRuleTimeNano) {
+                total += time;
+            }
+            return total;
+        }
+    }
+
+    /* Time Monitor */
+    public long kbLoadTimeNano = 0;
+    public long hypothesisMiningTimeNano = 0;
+    public long dependencyAnalysisTimeNano = 0;
+    public long tarjanTimeNano = 0;
+    public long fvsTimeNano = 0;
+    public long dumpTimeNano = 0;
+    public long totalTimeNano = 0;
+
+    /* Mining Statistics Monitor */
+    public int kbRelations = 0;
+    public int kbConstants = 0;
+    public int kbSize = 0;
+    public int hypothesisRuleNumber = 0;
+    public int hypothesisSize = 0;
+    public int necessaries = 0;
+    public int counterexamples = 0;
+    public int supplementaryConstants = 0;
+    public int sccNumber = 0;
+    public int sccVertices = 0;
+    public int fvsVertices = 0;
+
+    /** The monitored info of the relation miners, in the order of completion */
+    public final List<RelationMinerMonitor> relationMinerMonitors = new ArrayList<>();
+    /** The monitor of the operations on rules */
+    public final RuleMonitor ruleMonitor = new RuleMonitor();
+
+    public void show(PrintWriter writer) {
+        writer.println("### Monitored Performance Info ###\n");
+        writer.println("--- Time Cost ---");
+        writer.printf(
+                "(ms) %10s %10s %10s %10s %10s %10s %10s\n",
+                "Load", "Hypo", "Dep", "Tarjan", "FVS", "Dump", "Total"
+        );
+        writer.printf(
+                "     %10d %10d %10d %10d %10d %10d %10d\n\n",
+                kbLoadTimeNano / NANOS_PER_MILLI, hypothesisMiningTimeNano / NANOS_PER_MILLI,
+                dependencyAnalysisTimeNano / NANOS_PER_MILLI, tarjanTimeNano / NANOS_PER_MILLI,
+                fvsTimeNano / NANOS_PER_MILLI, dumpTimeNano / NANOS_PER_MILLI, totalTimeNano / NANOS_PER_MILLI
+        );
+
+        writer.println("--- Statistics ---");
+        writer.printf(
+                "# %10s %10s %10s %10s %10s %10s %10s %10s %10s %10s %10s %10s\n",
+                "#R", "|C|", "|B|", "#H", "|H|", "|N|", "|A|", "|ΔC|", "#SCC", "|SCC|", "|FVS|", "Comp(%)"
+        );
+        writer.printf(
+                "  %10d %10d %10d %10d %10d %10d %10d %10d %10d %10d %10d %10.2f\n\n",
+                kbRelations, kbConstants, kbSize, hypothesisRuleNumber, hypothesisSize, necessaries, counterexamples,
+                supplementaryConstants, sccNumber, sccVertices, fvsVertices,
+                (necessaries + counterexamples + hypothesisSize) * 100.0 / Math.max(1, kbSize)
+        );
+
+        writer.println("--- Relation Miners ---");
+        writer.printf(
+                "# %20s %10s %10s %10s %10s %10s %10s %10s\n",
+                "Relation", "|R|", "#H", "|A|", "#Iter", "FindRule", "UpdKb", "CE"
+        );
+        for (RelationMinerMonitor monitor: relationMinerMonitors) {
+            writer.printf(
+                    "  %20s %10d %10d %10d %10d %10d %10d %10d\n",
+                    monitor.relationName, monitor.relationRecords, monitor.rules, monitor.counterexamples,
+                    monitor.findRuleTimeNano.size(), monitor.totalFindRuleTimeNano() / NANOS_PER_MILLI,
+                    monitor.updateKbAndDependencyGraphTimeNano / NANOS_PER_MILLI,
+                    monitor.counterexampleTimeNano / NANOS_PER_MILLI
+            );
+        }
+        writer.println();
+
+        ruleMonitor.show(writer);
+    }
+
+    /**
+     * Dump the monitored values in a machine-readable format, i.e., one "key\tvalue" pair per line. The time costs of
+     * the "findRule" iterations of a relation are listed as comma separated values.
+     */
+    public void dump(PrintWriter writer) {
+        writer.printf("time.kb_load_ns\t%d\n", kbLoadTimeNano);
+        writer.printf("time.hypothesis_mining_ns\t%d\n", hypothesisMiningTimeNano);
+        writer.printf("time.dependency_analysis_ns\t%d\n", dependencyAnalysisTimeNano);
+        writer.printf("time.tarjan_ns\t%d\n", tarjanTimeNano);
+        writer.printf("time.fvs_ns\t%d\n", fvsTimeNano);
+        writer.printf("time.dump_ns\t%d\n", dumpTimeNano);
+        writer.printf("time.total_ns\t%d\n", totalTimeNano);
+        writer.printf("kb.relations\t%d\n", kbRelations);
+        writer.printf("kb.constants\t%d\n", kbConstants);
+        writer.printf("kb.records\t%d\n", kbSize);
+        writer.printf("compressed.rules\t%d\n", hypothesisRuleNumber);
+        writer.printf("compressed.hypothesis_size\t%d\n", hypothesisSize);
+        writer.printf("compressed.necessaries\t%d\n", necessaries);
+        writer.printf("compressed.counterexamples\t%d\n", counterexamples);
+        writer.printf("compressed.supplementary_constants\t%d\n", supplementaryConstants);
+        writer.printf("dependency.sccs\t%d\n", sccNumber);
+        writer.printf("dependency.scc_vertices\t%d\n", sccVertices);
+        writer.printf("dependency.fvs_vertices\t%d\n", fvsVertices);
+        for (RelationMinerMonitor monitor: relationMinerMonitors) {
+            final String prefix = "relation." + monitor.relationName;
+            writer.printf("%s.records\t%d\n", prefix, monitor.relationRecords);
+            writer.printf("%s.rules\t%d\n", prefix, monitor.rules);
+            writer.printf("%s.counterexamples\t%d\n", prefix, monitor.counterexamples);
+            writer.printf("%s.total_ns\t%d\n", prefix, monitor.totalTimeNano);
+            writer.printf("%s.update_kb_ns\t%d\n", prefix, monitor.updateKbAndDependencyGraphTimeNano);
+            writer.printf("%s.counterexamples_ns\t%d\n", prefix, monitor.counterexampleTimeNano);
+            StringBuilder builder = new StringBuilder();
+            for (long time: monitor.findRuleTimeNano) {
+                if (0 < builder.length()) {
+                    builder.append(',');
+                }
+                builder.append(time);
+            }
+            writer.printf("%s.find_rule_ns\t%s\n", prefix, builder);
+        }
+        ruleMonitor.dump(writer);
+    }
+}
@@ -0,0 +1,178 @@
+package sinc2.common;
+
+import sinc2.rule.SpecOprCase;
+import sinc2.rule.UpdateStatus;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The monitor of the operations on rules. Candidate rules may be evaluated in parallel, thus all counters are
+ * thread-safe.
+ *
+ * @since 2.0
+ */
+public class RuleMonitor {
+    private static final int NANOS_PER_MILLI = 1000000;
+
+    /* Specialization Cost (indexed by the ordinals of "SpecOprCase") */
+    public final LongAdder[] specializationTimeNano = newAdders(SpecOprCase.values().length);
+    public final LongAdder[] specializations = newAdders(SpecOprCase.values().length);
+    public final LongAdder generalizationTimeNano = new LongAdder();
+    public final LongAdder generalizations = new LongAdder();
+
+    /* Update Status (indexed by the ordinals of "UpdateStatus") */
+    public final LongAdder[] updateStatuses = newAdders(UpdateStatus.values().length);
+
+    /* Evaluation Cost */
+    public final LongAdder evalTimeNano = new LongAdder();
+    public final LongAdder evaluations = new LongAdder();
+    /** The number of evaluations that reuse the count of the body bindings of the parent rule */
+    public final LongAdder reusedBodyBindingsCounts = new LongAdder();
+    /** The approximate evaluations and the candidates screened out by them */
+    public final LongAdder estimationTimeNano = new LongAdder();
+    public final LongAdder estimations = new LongAdder();
+    public final LongAdder screenedOutCandidates = new LongAdder();
+    /** The specializations skipped because the upper bounds of their scores are not high enough */
+    public final LongAdder upperBoundPrunedCandidates = new LongAdder();
+    public final LongAdder counterexampleTimeNano = new LongAdder();
+    public final LongAdder counterexampleQueries = new LongAdder();
+
+    /* Cache Entry Statistics (recorded on each evaluation) */
+    public final LongAdder totalPosCacheEntries = new LongAdder();
+    public final LongAccumulator maxPosCacheEntries = new LongAccumulator(Math::max, 0);
+    public final LongAdder totalAllCacheEntries = new LongAdder();
+    public final LongAccumulator maxAllCacheEntries = new LongAccumulator(Math::max, 0);
+
+    private static LongAdder[] newAdders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    public void recordSpecialization(SpecOprCase specCase, UpdateStatus status, long timeNano) {
+        specializationTimeNano[specCase.ordinal()].add(timeNano);
+        specializations[specCase.ordinal()].increment();
+        updateStatuses[status.ordinal()].increment();
+    }
+
+    public void recordGeneralization(UpdateStatus status, long timeNano) {
+        generalizationTimeNano.add(timeNano);
+        generalizations.increment();
+        updateStatuses[status.ordinal()].increment();
+    }
+
+    public void recordEvaluation(long timeNano) {
+        evalTimeNano.add(timeNano);
+        evaluations.increment();
+    }
+
+    public void recordEstimation(long timeNano) {
+        estimationTimeNano.add(timeNano);
+        estimations.increment();
+    }
+
+    public void recordScreenedOutCandidate() {
+        screenedOutCandidates.increment();
+    }
+
+    public void recordUpperBoundPrunedCandidates(long candidates) {
+        upperBoundPrunedCandidates.add(candidates);
+    }
+
+    public void recordReusedBodyBindingsCount() {
+        reusedBodyBindingsCounts.increment();
+    }
+
+    public void recordCounterexamples(long timeNano) {
+        counterexampleTimeNano.add(timeNano);
+        counterexampleQueries.increment();
+    }
+
+    public void recordCacheEntries(int posCacheEntries, int allCacheEntries) {
+        totalPosCacheEntries.add(posCacheEntries);
+        maxPosCacheEntries.accumulate(posCacheEntries);
+        totalAllCacheEntries.add(allCacheEntries);
+        maxAllCacheEntries.accumulate(allCacheEntries);
+    }
+
+    public void show(PrintWriter writer) {
+        writer.println("### Monitored Rule Info ###\n");
+        writer.println("--- Time Cost ---");
+        writer.printf(
+                "(ms) %10s %10s %10s %10s %10s %10s %10s %10s\n",
+                "Case1", "Case2", "Case3", "Case4", "Case5", "Gen", "Eval", "CE"
+        );
+        writer.print("     ");
+        for (LongAdder time: specializationTimeNano) {
+            writer.printf("%10d ", time.sum() / NANOS_PER_MILLI);
+        }
+        writer.printf(
+                "%10d %10d %10d\n\n", generalizationTimeNano.sum() / NANOS_PER_MILLI,
+                evalTimeNano.sum() / NANOS_PER_MILLI, counterexampleTimeNano.sum() / NANOS_PER_MILLI
+        );
+
+        writer.println("--- Statistics ---");
+        writer.printf(
+                "# %10s %10s %10s %10s %10s %10s %10s %10s\n",
+                "#Case1", "#Case2", "#Case3", "#Case4", "#Case5", "#Gen", "#Eval", "#CE"
+        );
+        writer.print("  ");
+        for (LongAdder cnt: specializations) {
+            writer.printf("%10d ", cnt.sum());
+        }
+        writer.printf("%10d %10d %10d\n\n", generalizations.sum(), evaluations.sum(), counterexampleQueries.sum());
+        writer.print("- Update Status:");
+        for (UpdateStatus status: UpdateStatus.values()) {
+            writer.printf(" %s=%d", status.name(), updateStatuses[status.ordinal()].sum());
+        }
+        writer.println();
+        writer.printf("- Reused Body Binding Counts: %d\n", reusedBodyBindingsCounts.sum());
+        writer.printf(
+                "- Approximate Evaluations: count=%d, time=%d(ms), screened out=%d\n", estimations.sum(),
+                estimationTimeNano.sum() / NANOS_PER_MILLI, screenedOutCandidates.sum()
+        );
+        writer.printf("- Upper Bound Pruned Candidates: %d\n", upperBoundPrunedCandidates.sum());
+        final long evaluations = Math.max(1, this.evaluations.sum());
+        writer.printf(
+                "- E+-cache Entries: max=%d, avg=%.2f\n", maxPosCacheEntries.get(),
+                (double) totalPosCacheEntries.sum() / evaluations
+        );
+        writer.printf(
+                "- E-cache Entries: max=%d, avg=%.2f\n\n", maxAllCacheEntries.get(),
+                (double) totalAllCacheEntries.sum() / evaluations
+        );
+    }
+
+    /**
+     * Dump the monitored values as "key\tvalue" lines.
+     */
+    public void dump(PrintWriter writer) {
+        for (SpecOprCase spec_case: SpecOprCase.values()) {
+            final String name = spec_case.name().toLowerCase();
+            writer.printf("rule.%s.count\t%d\n", name, specializations[spec_case.ordinal()].sum());
+            writer.printf("rule.%s.time_ns\t%d\n", name, specializationTimeNano[spec_case.ordinal()].sum());
+        }
+        writer.printf("rule.generalization.count\t%d\n", generalizations.sum());
+        writer.printf("rule.generalization.time_ns\t%d\n", generalizationTimeNano.sum());
+        for (UpdateStatus status: UpdateStatus.values()) {
+            writer.printf("rule.status.%s\t%d\n", status.name().toLowerCase(), updateStatuses[status.ordinal()].sum());
+        }
+        writer.printf("rule.eval.count\t%d\n", evaluations.sum());
+        writer.printf("rule.eval.time_ns\t%d\n", evalTimeNano.sum());
+        writer.printf("rule.eval.reused_body_bindings\t%d\n", reusedBodyBindingsCounts.sum());
+        writer.printf("rule.estimation.count\t%d\n", estimations.sum());
+        writer.printf("rule.estimation.time_ns\t%d\n", estimationTimeNano.sum());
+        writer.printf("rule.estimation.screened_out\t%d\n", screenedOutCandidates.sum());
+        writer.printf("rule.upper_bound_pruned\t%d\n", upperBoundPrunedCandidates.sum());
+        writer.printf("rule.counterexamples.count\t%d\n", counterexampleQueries.sum());
+        writer.printf("rule.counterexamples.time_ns\t%d\n", counterexampleTimeNano.sum());
+        writer.printf("rule.pos_cache_entries.total\t%d\n", totalPosCacheEntries.sum());
+        writer.printf("rule.pos_cache_entries.max\t%d\n", maxPosCacheEntries.get());
+        writer.printf("rule.all_cache_entries.total\t%d\n", totalAllCacheEntries.sum());
+        writer.printf("rule.all_cache_entries.max\t%d\n", maxAllCacheEntries.get());
+    }
+}
@@ -6,7 +6,6 @@ import sinc2.kb.KbRelation;
 import sinc2.kb.NumeratedKb;
 import sinc2.rule.*;
 import sinc2.util.ArrayOperation;
-import sinc2.util.MultiSet;
 
 import java.io.*;
 import java.nio.file.Path;
@@ -167,7 +166,7 @@ public class Hinter {
             for (int i = 0; i < kbRelationNums.length; i++) {
                 /* Create the initial rule */
                 Set<Fingerprint> fingerprint_cache = new HashSet<>();
-                Map<MultiSet<Integer>, Set<Fingerprint>> tabu_set = new HashMap<>();
+                TabuSet tabu_set = new TabuSet();
                 int head_functor = kbRelationNums[i];
                 int head_arity = kbRelationArities[i];
                 CachedRule rule = new CachedRule(head_functor, head_arity, fingerprint_cache, tabu_set, kb);
@@ -0,0 +1,302 @@
+package sinc2.exp;
+
+import sinc2.SincConfig;
+import sinc2.common.PerformanceMonitor;
+import sinc2.impl.base.SincBasic;
+import sinc2.kb.CompressedKb;
+import sinc2.kb.KbException;
+import sinc2.kb.NumeratedKb;
+import sinc2.rule.EvalMetric;
+import sinc2.util.datagen.FamilyRelationGenerator;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * The end-to-end benchmark of 'SincBasic' on synthetic KBs generated by 'FamilyRelationGenerator'.
+ *
+ * Each benchmark case is determined by the generator mode (tiny/simple/medium), the approximate number of facts and
+ * the error rate. The generated KBs are kept in the working directory and reused by later runs of the same case, so
+ * the results of different SInC versions are compared on the same data. For each case, SInC is run end to end and
+ * the following are appended as a row to "benchmark.tsv" in the working directory:
+ *   - The KB settings and the actual number of facts;
+ *   - The wall time (ms) of each phase: KB load, relation mining, dependency analysis, and compressed KB dump. The
+ *     mining time of each relation is also listed;
+ *   - The peak heap usage (MB) during the run;
+ *   - The size of the compressed KB and the compression ratio, i.e., (#necessary facts + #counterexamples +
+ *     hypothesis size) / #facts.
+ *
+ * Usage: <work dir> [modes] [facts] [error rates] [threads] [approx eval tolerance] [sample size]
+ *   - modes: A comma separated list of "t", "s", and "m" (Default "t,s,m")
+ *   - facts: A comma separated list of the approximate numbers of facts (Default "10000,100000,1000000,10000000")
+ *   - error rates: A comma separated list of the error rates (Default "0,0.05")
+ *   - threads: The number of threads used by SInC (Default 1)
+ *   - approx eval tolerance: The error tolerance of the approximate evaluation, 0 for exact evaluation (Default 0)
+ *   - sample size: The maximum number of records of a relation the rules are searched on, 0 for no sampling (Default 0)
+ *
+ * @since 2.0
+ */
+public class SincBenchmark {
+
+    /** The name of the result file in the working directory */
+    public static final String RESULT_FILE_NAME = "benchmark.tsv";
+    public static final String DEFAULT_MODES = "t,s,m";
+    public static final String DEFAULT_FACTS = "10000,100000,1000000,10000000";
+    public static final String DEFAULT_ERROR_RATES = "0,0.05";
+    public static final int DEFAULT_BEAMWIDTH = 5;
+    public static final EvalMetric DEFAULT_EVAL_METRIC = EvalMetric.CompressionCapacity;
+    public static final double DEFAULT_FACT_COVERAGE = 0.05;
+    public static final double DEFAULT_CONSTANT_COVERAGE = 0.25;
+    public static final double DEFAULT_STOP_COMPRESSION_RATIO = 1.0;
+    protected static final String[] RESULT_COLUMNS = new String[]{
+            "mode", "facts", "families", "error rate", "threads", "approx tolerance", "sample size", "load(ms)", "mining(ms)",
+            "dependency(ms)", "dump(ms)", "total(ms)", "peak heap(MB)", "necessary", "counterexamples", "hypothesis size", "compression ratio",
+            "relation mining(ms)"
+    };
+
+    /**
+     * 'SincBasic' with timers on each phase of the compression.
+     */
+    protected static class TimedSincBasic extends SincBasic {
+        protected long loadTime = 0;
+        protected long miningTime = 0;
+        protected long dependencyAnalysisTime = 0;
+        protected long dumpTime = 0;
+        protected int totalFacts = 0;
+
+        public TimedSincBasic(SincConfig config) {
+            super(config);
+        }
+
+        @Override
+        protected NumeratedKb loadKb() throws KbException, IOException {
+            long time_start = System.currentTimeMillis();
+            NumeratedKb kb = super.loadKb();
+            loadTime = System.currentTimeMillis() - time_start;
+            totalFacts = kb.totalRecords();
+            return kb;
+        }
+
+        @Override
+        protected void runRelationMiners(List<Integer> targetRelations) throws KbException {
+            long time_start = System.currentTimeMillis();
+            try {
+                super.runRelationMiners(targetRelations);
+            } finally {
+                miningTime = System.currentTimeMillis() - time_start;
+            }
+        }
+
+        @Override
+        protected void dependencyAnalysis() throws KbException {
+            long time_start = System.currentTimeMillis();
+            super.dependencyAnalysis();
+            dependencyAnalysisTime = System.currentTimeMillis() - time_start;
+        }
+
+        @Override
+        protected void dumpCompressedKb() throws IOException {
+            long time_start = System.currentTimeMillis();
+            super.dumpCompressedKb();
+            dumpTime = System.currentTimeMillis() - time_start;
+        }
+    }
+
+    protected final String workDir;
+    protected final int threads;
+    protected final double approxEvalTolerance;
+    protected final int sampleSize;
+    /** The number of facts generated for each family in each mode */
+    protected final Map<String, Integer> factsPerFamily = new HashMap<>();
+
+    public SincBenchmark(String workDir, int threads, double approxEvalTolerance, int sampleSize) {
+        this.workDir = workDir;
+        this.threads = threads;
+        this.approxEvalTolerance = approxEvalTolerance;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Generate a KB with the family relation generator.
+     */
+    protected static void generateKb(String mode, String basePath, String kbName, int families, double errorRate)
+            throws IOException, KbException {
+        switch (mode) {
+            case "t":
+                FamilyRelationGenerator.generateTiny(basePath, kbName, families, errorRate);
+                break;
+            case "s":
+                FamilyRelationGenerator.generateSimple(basePath, kbName, families, errorRate);
+                break;
+            case "m":
+                FamilyRelationGenerator.generateMedium(basePath, kbName, families, errorRate);
+                break;
+            default:
+                throw new KbException("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * Find the number of facts generated for each family by generating a single error-free family.
+     */
+    protected int getFactsPerFamily(String mode) throws IOException, KbException {
+        Integer facts = factsPerFamily.get(mode);
+        if (null == facts) {
+            Path tmp_dir = Files.createTempDirectory("sinc2-bench");
+            generateKb(mode, tmp_dir.toString(), "sample", 1, 0);
+            facts = Math.max(1, new NumeratedKb("sample", tmp_dir.toString()).totalRecords());
+            removeDir(tmp_dir.toFile());
+            factsPerFamily.put(mode, facts);
+        }
+        return facts;
+    }
+
+    protected static void removeDir(File dir) {
+        File[] files = dir.listFiles();
+        if (null != files) {
+            for (File f: files) {
+                removeDir(f);
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * Sum up the peak usage of all heap memory pools since the last reset.
+     */
+    protected static long peakHeapUsage() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            if (MemoryType.HEAP == pool.getType()) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    protected static void resetPeakHeapUsage() {
+        System.gc();
+        for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            if (MemoryType.HEAP == pool.getType()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Run a benchmark case and return the result row.
+     *
+     * @param mode The generator mode
+     * @param facts The approximate number of facts in the KB
+     * @param errorRate The error rate of the generated KB
+     */
+    public String[] runCase(String mode, int facts, double errorRate) throws IOException, KbException {
+        /* Generate the KB if it does not exist */
+        final int families = Math.max(1, facts / getFactsPerFamily(mode));
+        final String kb_name = String.format("family.%s.%d.%s", mode, facts, errorRate);
+        if (!NumeratedKb.getKbPath(kb_name, workDir).toFile().exists()) {
+            generateKb(mode, workDir, kb_name, families, errorRate);
+        }
+        final String dump_name = kb_name + ".comp";
+        File dump_dir = NumeratedKb.getKbPath(dump_name, workDir).toFile();
+        if (!dump_dir.exists() && !dump_dir.mkdirs()) {
+            throw new IOException("Dump directory creation failed: " + dump_dir.getAbsolutePath());
+        }
+
+        /* Run SInC. The standard outputs are redirected by SInC, thus they are restored after the run */
+        final PrintStream std_out = System.out;
+        final PrintStream std_err = System.err;
+        final SincConfig config = new SincConfig(
+                workDir, kb_name, workDir, dump_name, threads, false, DEFAULT_BEAMWIDTH, DEFAULT_EVAL_METRIC,
+                DEFAULT_FACT_COVERAGE, DEFAULT_CONSTANT_COVERAGE, DEFAULT_STOP_COMPRESSION_RATIO
+        );
+        config.approxEvalTolerance = approxEvalTolerance;
+        config.relationSampleSize = sampleSize;
+        final TimedSincBasic sinc = new TimedSincBasic(config);
+        resetPeakHeapUsage();
+        long time_start = System.currentTimeMillis();
+        try {
+            sinc.run();
+        } finally {
+            System.setOut(std_out);
+            System.setErr(std_err);
+        }
+        long total_time = System.currentTimeMillis() - time_start;
+        long peak_heap = peakHeapUsage();
+
+        /* Summarize */
+        CompressedKb compressed_kb = sinc.getCompressedKb();
+        int total_facts = sinc.totalFacts;
+        int necessary = (null == compressed_kb) ? 0 : compressed_kb.totalNecessaryRecords();
+        int counterexamples = (null == compressed_kb) ? 0 : compressed_kb.totalCounterexamples();
+        int hypothesis_size = (null == compressed_kb) ? 0 : compressed_kb.totalHypothesisSize();
+        StringBuilder relation_times = new StringBuilder();
+        for (PerformanceMonitor.RelationMinerMonitor monitor: sinc.getPerformanceMonitor().relationMinerMonitors) {
+            if (0 < relation_times.length()) {
+                relation_times.append(',');
+            }
+            relation_times.append(monitor.relationName).append(':').append(monitor.totalTimeNano / 1000000);
+        }
+        return new String[]{
+                mode, String.valueOf(total_facts), String.valueOf(families), String.valueOf(errorRate),
+                String.valueOf(threads), String.valueOf(approxEvalTolerance), String.valueOf(sampleSize),
+                String.valueOf(sinc.loadTime), String.valueOf(sinc.miningTime),
+                String.valueOf(sinc.dependencyAnalysisTime), String.valueOf(sinc.dumpTime), String.valueOf(total_time),
+                String.format("%.2f", peak_heap / 1024.0 / 1024.0), String.valueOf(necessary),
+                String.valueOf(counterexamples), String.valueOf(hypothesis_size),
+                String.format("%.4f", (0 == total_facts) ? 0.0 :
+                        ((double) necessary + counterexamples + hypothesis_size) / total_facts),
+                relation_times.toString()
+        };
+    }
+
+    /**
+     * Run all combinations of the settings and append the results to the result file.
+     */
+    public void runAll(String[] modes, int[] factsList, double[] errorRates) throws IOException, KbException {
+        File result_file = Paths.get(workDir, RESULT_FILE_NAME).toFile();
+        boolean new_file = !result_file.exists();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(result_file, true))) {
+            if (new_file) {
+                writer.println(String.join("\t", RESULT_COLUMNS));
+            }
+            for (String mode: modes) {
+                for (int facts: factsList) {
+                    for (double error_rate: errorRates) {
+                        String[] row = runCase(mode, facts, error_rate);
+                        writer.println(String.join("\t", row));
+                        writer.flush();
+                        System.out.println(String.join("\t", row));
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, KbException {
+        if (1 > args.length) {
+            System.out.println("Usage: <work dir> [modes(t,s,m)] [facts] [error rates] [threads] [approx eval tolerance] [sample size]");
+            return;
+        }
+        final String work_dir = args[0];
+        final String[] modes = ((1 < args.length) ? args[1] : DEFAULT_MODES).split(",");
+        final int[] facts_list = Arrays.stream(((2 < args.length) ? args[2] : DEFAULT_FACTS).split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        final double[] error_rates = Arrays.stream(((3 < args.length) ? args[3] : DEFAULT_ERROR_RATES).split(","))
+                .mapToDouble(Double::parseDouble).toArray();
+        final int threads = (4 < args.length) ? Integer.parseInt(args[4]) : 1;
+        final double approx_eval_tolerance = (5 < args.length) ? Double.parseDouble(args[5]) : 0;
+        final int sample_size = (6 < args.length) ? Integer.parseInt(args[6]) : 0;
+        File work_dir_file = new File(work_dir);
+        if (!work_dir_file.exists() && !work_dir_file.mkdirs()) {
+            throw new IOException("Working directory creation failed: " + work_dir_file.getAbsolutePath());
+        }
+        new SincBenchmark(work_dir, threads, approx_eval_tolerance, sample_size).runAll(modes, facts_list, error_rates);
+    }
+}
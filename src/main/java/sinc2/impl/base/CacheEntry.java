@@ -1,6 +1,6 @@
 package sinc2.impl.base;
 
-import sinc2.kb.Record;
+import sinc2.kb.RecordIndex;
 
 import java.util.*;
 
@@ -17,9 +17,9 @@ public class CacheEntry {
     /** The list of CBs. CBs shall only be replaced, but not modified. */
     public final List<CompliedBlock> entry;
     /** The list of argument indices of each CB. Indices shall only be replaced, but not modified. */
-    public final List<Map<Integer, Set<Record>>[]> argIndicesList;
+    public final List<RecordIndex[]> argIndicesList;
 
-    public CacheEntry(List<CompliedBlock> entry, List<Map<Integer, Set<Record>>[]> argIndicesList) {
+    public CacheEntry(List<CompliedBlock> entry, List<RecordIndex[]> argIndicesList) {
         this.entry = entry;
         this.argIndicesList = argIndicesList;
     }
@@ -30,26 +30,16 @@ public class CacheEntry {
     }
 
     /**
-     * Update the indices of the CBs. Every NULL element will be replaced with a batch of new indices. The others will
-     * remain the same.
+     * Update the indices of the CBs. Every NULL element will be replaced with the indices of the CB, which are shared
+     * with other entries containing the same CB. The others will remain the same.
      *
      * Note: The first element of the indices lists in the E-cache should be made non-null to skip the update.
      */
     public void updateIndices() {
         for (int cb_idx = 0; cb_idx < entry.size(); cb_idx++) {
-            Map<Integer, Set<Record>>[] arg_indices = argIndicesList.get(cb_idx);
+            RecordIndex[] arg_indices = argIndicesList.get(cb_idx);
             if (null == arg_indices) {
-                CompliedBlock cb = entry.get(cb_idx);
-                arg_indices = new Map[cb.partAsgnRecord.length];
-                for (int i = 0; i < arg_indices.length; i++) {
-                    arg_indices[i] = new HashMap<>();
-                }
-                for (Record record : cb.complSet) {
-                    for (int arg_idx = 0; arg_idx < arg_indices.length; arg_idx++) {
-                        arg_indices[arg_idx].computeIfAbsent(record.args[arg_idx], k -> new HashSet<>()).add(record);
-                    }
-                }
-                argIndicesList.set(cb_idx, arg_indices);
+                argIndicesList.set(cb_idx, entry.get(cb_idx).argIndices());
             }
         }
     }
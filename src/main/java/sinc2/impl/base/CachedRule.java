@@ -3,13 +3,18 @@ package sinc2.impl.base;
 import sinc2.common.ArgLocation;
 import sinc2.common.Argument;
 import sinc2.common.Predicate;
+import sinc2.common.RuleMonitor;
 import sinc2.kb.KbRelation;
 import sinc2.kb.NumeratedKb;
 import sinc2.kb.Record;
+import sinc2.kb.RecordIndex;
+import sinc2.kb.SortedRecordIndex;
 import sinc2.rule.*;
-import sinc2.util.MultiSet;
+import sinc2.util.IntArrayList;
+import sinc2.util.KmvSketch;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * First-order Horn rule with the compact grounding cache (CGC).
@@ -41,14 +46,57 @@ public class CachedRule extends Rule {
         }
     }
 
+    /**
+     * This class is used for memorizing the count of the body bindings in an E-cache. As the caches are copy-on-write,
+     * the count is still valid in a specialized rule if the E-cache object and the signature are the same.
+     *
+     * @since 2.0
+     */
+    static protected class BodyBindingsCount {
+        /** The E-cache where the bindings are counted */
+        final List<CacheEntry> cache;
+        /** The locations of the body GVs and the PLVs */
+        final int[] signature;
+        /** The number of distinct combinations of the GV and PLV bindings */
+        final long count;
+
+        public BodyBindingsCount(List<CacheEntry> cache, int[] signature, long count) {
+            this.cache = cache;
+            this.signature = signature;
+            this.count = count;
+        }
+    }
+
+    /**
+     * The E+-cache is sampled in the estimation of the evaluation if there are more than this number of entries per slot
+     * of the sketches
+     */
+    public static final int ESTIMATION_ENTRIES_PER_SLOT = 4;
+    /** The seed of the samples of the E+-caches in the estimation, so that the estimations are the same in every run */
+    protected static final long ESTIMATION_SAMPLING_SEED = 0x5EED;
+
     /** The original KB */
     protected final NumeratedKb kb;
+    /** The relation where the head records come from. This may be a sample of the target relation in the KB */
+    protected final KbRelation headRelation;
+    /**
+     * The ratio of the records in "headRelation" to those in the target relation. The positive entailments are divided
+     * by this ratio in the evaluation.
+     */
+    protected final double headSampleRate;
     /** The cache for the positive entailments (E+-cache) */
     protected List<CacheEntry> posCache;
     /** The cache for all the entailments (E-cache) */
     protected List<CacheEntry> allCache;
     /** The list of a PLV in the body. This list should always be of the same length as "limitedVarCnts" */
     protected final List<PlvLoc> plvList = new ArrayList<>();
+    /** The count of the body bindings in the latest evaluation (shared with the specialized rules) */
+    protected BodyBindingsCount bodyBindingsCount = null;
+    /**
+     * The memo of the CBs split from the caches of the beam that the rule is specialized from (shared with the other
+     * specialized rules of the beam). NULL if the caches are no longer split.
+     */
+    protected CompliedBlockMemo compliedBlockMemo = null;
 
     /**
      * Initialize the most general rule.
@@ -56,31 +104,71 @@ public class CachedRule extends Rule {
      * @param headRelNum The functor of the head predicate, i.e., the target relation.
      * @param arity The arity of the functor
      * @param fingerprintCache The cache of the used fingerprints
-     * @param category2TabuSetMap The tabu set of pruned fingerprints
+     * @param tabuSet The tabu set of pruned fingerprints
      * @param kb The original KB
      */
     public CachedRule(
             int headRelNum, int arity, Set<Fingerprint> fingerprintCache,
-            Map<MultiSet<Integer>, Set<Fingerprint>> category2TabuSetMap, NumeratedKb kb
+            TabuSet tabuSet, NumeratedKb kb
+    ) {
+        this(kb.getRelation(headRelNum), arity, fingerprintCache, tabuSet, kb);
+    }
+
+    /**
+     * Initialize the most general rule where the head records are taken from a sample of the target relation. The
+     * numeration of the sample should be the same as the target relation in the KB.
+     *
+     * @param headSample The sample of the target relation
+     * @param arity The arity of the functor
+     * @param fingerprintCache The cache of the used fingerprints
+     * @param tabuSet The tabu set of pruned fingerprints
+     * @param kb The original KB
+     */
+    public CachedRule(
+            KbRelation headSample, int arity, Set<Fingerprint> fingerprintCache,
+            TabuSet tabuSet, NumeratedKb kb
+    ) {
+        this(headSample, arity, fingerprintCache, tabuSet, kb, null, 0);
+    }
+
+    /**
+     * Initialize the most general rule where the head records are taken from a sample of the target relation, the
+     * operations on the rule and its copies are recorded in a monitor, and the evaluations may be approximated.
+     *
+     * @param headSample The sample of the target relation
+     * @param arity The arity of the functor
+     * @param fingerprintCache The cache of the used fingerprints
+     * @param tabuSet The tabu set of pruned fingerprints
+     * @param kb The original KB
+     * @param monitor The monitor of the rule operations. NULL if the rule is not monitored
+     * @param approxEvalTolerance The relative error tolerance of the approximate evaluation (0 for exact evaluation)
+     */
+    public CachedRule(
+            KbRelation headSample, int arity, Set<Fingerprint> fingerprintCache,
+            TabuSet tabuSet, NumeratedKb kb, RuleMonitor monitor, double approxEvalTolerance
     ) {
-        super(headRelNum, arity, fingerprintCache, category2TabuSetMap);
+        super(headSample.getNumeration(), arity, fingerprintCache, tabuSet, monitor, approxEvalTolerance);
         this.kb = kb;
+        this.headRelation = headSample;
+        final int total_records = kb.getRelation(headSample.getNumeration()).totalRecords();
+        this.headSampleRate = (0 == total_records) ? 1.0 :
+                Math.min(1.0, (double) headSample.totalRecords() / total_records);
 
         /* Initialize the E+-cache */
-        KbRelation head_relation = kb.getRelation(headRelNum);
-        final CompliedBlock cb_head = new CompliedBlock(headRelNum, new int[arity], head_relation.getRecords());
+        final int headRelNum = headSample.getNumeration();
+        final CompliedBlock cb_head = new CompliedBlock(headRelNum, new int[arity], headSample.getRecords());
         final List<CompliedBlock> pos_init_cbs = new ArrayList<>();
         pos_init_cbs.add(cb_head);
-        final List<Map<Integer, Set<Record>>[]> pos_init_idxs = new ArrayList<>();
-        pos_init_idxs.add(head_relation.getArgumentIndices());
+        final List<RecordIndex[]> pos_init_idxs = new ArrayList<>();
+        pos_init_idxs.add(headSample.getArgumentRecordIndices());
         posCache = new ArrayList<>();
         posCache.add(new CacheEntry(pos_init_cbs, pos_init_idxs));
 
         /* Initialize the E-cache */
         final List<CompliedBlock> all_init_cbs = new ArrayList<>();
         all_init_cbs.add(null);  // Keep the same length of the cache entries
-        final List<Map<Integer, Set<Record>>[]> all_init_idxs = new ArrayList<>();
-        all_init_idxs.add(new Map[0]);  // The first element should be made non-NULL
+        final List<RecordIndex[]> all_init_idxs = new ArrayList<>();
+        all_init_idxs.add(new RecordIndex[0]);  // The first element should be made non-NULL
         allCache = new ArrayList<>();
         allCache.add(new CacheEntry(all_init_cbs, all_init_idxs));
 
@@ -91,15 +179,34 @@ public class CachedRule extends Rule {
      * Initialize a cached rule from a list of predicate.
      *
      * @param structure The structure of the rule.
-     * @param category2TabuSetMap The tabu set of pruned fingerprints
+     * @param tabuSet The tabu set of pruned fingerprints
+     * @param kb The original KB
+     */
+    public CachedRule(
+            List<Predicate> structure, Set<Fingerprint> fingerprintCache,
+            TabuSet tabuSet, NumeratedKb kb
+    ) {
+        this(structure, fingerprintCache, tabuSet, kb, null, 0);
+    }
+
+    /**
+     * Initialize a cached rule from a list of predicate, where the operations on the rule and its copies are recorded
+     * in a monitor, and the evaluations may be approximated.
+     *
+     * @param structure The structure of the rule.
+     * @param tabuSet The tabu set of pruned fingerprints
      * @param kb The original KB
+     * @param monitor The monitor of the rule operations. NULL if the rule is not monitored
+     * @param approxEvalTolerance The relative error tolerance of the approximate evaluation (0 for exact evaluation)
      */
     public CachedRule(
             List<Predicate> structure, Set<Fingerprint> fingerprintCache,
-            Map<MultiSet<Integer>, Set<Fingerprint>> category2TabuSetMap, NumeratedKb kb
+            TabuSet tabuSet, NumeratedKb kb, RuleMonitor monitor, double approxEvalTolerance
     ) {
-        super(structure, fingerprintCache, category2TabuSetMap);
+        super(structure, fingerprintCache, tabuSet, monitor, approxEvalTolerance);
         this.kb = kb;
+        this.headRelation = kb.getRelation(structure.get(HEAD_PRED_IDX).functor);
+        this.headSampleRate = 1.0;
         this.posCache = new ArrayList<>();
         this.allCache = new ArrayList<>();
         for (int i = 0; i < usedLimitedVars(); i++) {
@@ -173,7 +280,7 @@ public class CachedRule extends Rule {
         /* Construct the initial cache entry (where only constant restrictions are applied) */
         /* If any of the compliance sets is empty, the cache entry will be NULL */
         List<CompliedBlock> initial_cbs = new ArrayList<>();
-        List<Map<Integer, Set<Record>>[]> inital_indices_list = new ArrayList<>();
+        List<RecordIndex[]> inital_indices_list = new ArrayList<>();
         for (int pred_idx = HEAD_PRED_IDX; pred_idx < const_restriction_lists.length; pred_idx++) {
             Predicate predicate = this.structure.get(pred_idx);
             KbRelation relation = kb.getRelation(predicate.functor);
@@ -185,7 +292,7 @@ public class CachedRule extends Rule {
             }
             if (null == const_restrictions) {
                 initial_cbs.add(new CompliedBlock(predicate.functor, new int[predicate.arity()], records_in_relation));
-                inital_indices_list.add(relation.getArgumentIndices());
+                inital_indices_list.add(relation.getArgumentRecordIndices());
             } else {
                 Set<Record> records_complied_to_constants = new HashSet<>();
                 for (Record record : records_in_relation) {
@@ -222,7 +329,7 @@ public class CachedRule extends Rule {
         CacheEntry complete_init_entry = new CacheEntry(initial_cbs, inital_indices_list);
         CacheEntry init_entry_without_head = new CacheEntry(complete_init_entry);
         init_entry_without_head.entry.set(HEAD_PRED_IDX, null);
-        init_entry_without_head.argIndicesList.set(HEAD_PRED_IDX, new Map[0]);
+        init_entry_without_head.argIndicesList.set(HEAD_PRED_IDX, new RecordIndex[0]);
         allCache.add(init_entry_without_head);
         for (int vid = 0; vid < lv_id_locs_without_head.length; vid++) {
             if (null != lv_id_locs_without_head[vid]) {
@@ -264,7 +371,7 @@ public class CachedRule extends Rule {
         List<CacheEntry> new_cache = new ArrayList<>();
         for (CacheEntry cache_entry: cache) {
             /* Build a value index for each predicate where the variable locates */
-            Map<Integer, Set<Record>>[] lv_indices = new Map[structure.size()]; // Predicate index as the array index
+            RecordIndex[] lv_indices = new RecordIndex[structure.size()]; // Predicate index as the array index
             int min_index_entries = kb.totalRecords() + 1;
             int min_index_idx = -1;
             for (int pred_idx = HEAD_PRED_IDX; pred_idx < structure.size(); pred_idx++) {
@@ -273,21 +380,17 @@ public class CachedRule extends Rule {
                     if (1 == lv_arg_idxs.size()) {
                         /* A single lv is in the predicate */
                         final int arg_idx = lv_arg_idxs.get(0);
-                        Map<Integer, Set<Record>>[] cb_indices_arr = cache_entry.argIndicesList.get(pred_idx);
+                        RecordIndex[] cb_indices_arr = cache_entry.argIndicesList.get(pred_idx);
                         if (null == cb_indices_arr) {
                             CompliedBlock cb = cache_entry.entry.get(pred_idx);
-                            Map<Integer, Set<Record>> cb_index = new HashMap<>();
-                            for (Record record : cb.complSet) {
-                                cb_index.computeIfAbsent(record.args[arg_idx], k -> new HashSet<>()).add(record);
-                            }
-                            lv_indices[pred_idx] = cb_index;
+                            lv_indices[pred_idx] = SortedRecordIndex.build(cb.complSet, arg_idx);
                         } else {
                             lv_indices[pred_idx] = cb_indices_arr[arg_idx];
                         }
                     } else {
                         /* Build index according to multiple arguments assigned by the LV */
                         CompliedBlock cb = cache_entry.entry.get(pred_idx);
-                        Map<Integer, Set<Record>> cb_index = new HashMap<>();
+                        List<Record> matched_records = new ArrayList<>();
                         for (Record record: cb.complSet) {
                             boolean all_matched = true;
                             final int argument = record.args[lv_arg_idxs.get(0)];
@@ -298,10 +401,10 @@ public class CachedRule extends Rule {
                                 }
                             }
                             if (all_matched) {
-                                cb_index.computeIfAbsent(argument, k -> new HashSet<>()).add(record);
+                                matched_records.add(record);
                             }
                         }
-                        lv_indices[pred_idx] = cb_index;
+                        lv_indices[pred_idx] = SortedRecordIndex.build(matched_records, lv_arg_idxs.get(0));
                     }
                     if (lv_indices[pred_idx].size() < min_index_entries) {
                         min_index_entries = lv_indices[pred_idx].size();
@@ -312,9 +415,9 @@ public class CachedRule extends Rule {
 
             /* Select shared values */
             List<Integer> shared_args = new ArrayList<>();
-            for (Integer argument: lv_indices[min_index_idx].keySet()) {
+            for (int argument: lv_indices[min_index_idx].values()) {
                 boolean all_match = true;
-                for (Map<Integer, Set<Record>> cb_index: lv_indices) {
+                for (RecordIndex cb_index: lv_indices) {
                     if (null != cb_index && !cb_index.containsKey(argument)) {
                         all_match = false;
                         break;
@@ -353,11 +456,15 @@ public class CachedRule extends Rule {
     public CachedRule(CachedRule another) {
         super(another);
         this.kb = another.kb;
+        this.headRelation = another.headRelation;
+        this.headSampleRate = another.headSampleRate;
 
         /* The caches can be simply copied, as the list should not be modified, but directly replaced (Copy-on-write) */
         this.posCache = another.posCache;
         this.allCache = another.allCache;
         this.plvList.addAll(another.plvList);
+        this.bodyBindingsCount = another.bodyBindingsCount;
+        this.compliedBlockMemo = another.compliedBlockMemo;
     }
 
     @Override
@@ -371,7 +478,7 @@ public class CachedRule extends Rule {
     @Override
     protected double recordCoverage() {
         final Set<Record> entailed_head = new HashSet<>();
-        final KbRelation target_relation = kb.getRelation(getHead().functor);
+        final KbRelation target_relation = headRelation;
         for (final CacheEntry cache_entry: posCache) {
             for (Record record: cache_entry.entry.get(HEAD_PRED_IDX).complSet) {
                 if (!target_relation.recordIsEntailed(record)) {
@@ -387,11 +494,207 @@ public class CachedRule extends Rule {
      */
     @Override
     protected Eval calculateEval() {
+        if (null != monitor) {
+            monitor.recordCacheEntries(posCache.size(), allCache.size());
+        }
+
+        /* Find the variables in the head and the first location of GVs in the body */
+        final List<ArgLocation> body_gv_locs = new ArrayList<>();   // PLVs are not included
+        final int head_free_args = findBodyGvLocs(body_gv_locs);
+        final int head_uv_cnt = headUvs();
+
+        /* Count the number of all entailments */
+        /* The count of the body bindings is reused if neither the E-cache nor the variables in the body are changed by
+           the specialization, e.g., when the head is specialized */
+        final int[] body_binding_signature = bodyBindingSignature(body_gv_locs);
+        final BodyBindingsCount reusable_count = reusableBodyBindingsCount(body_binding_signature);
+        final long body_gv_plv_bindings_cnt;
+        if (null != reusable_count) {
+            body_gv_plv_bindings_cnt = reusable_count.count;
+        } else {
+            body_gv_plv_bindings_cnt = countBodyGvPlvBindings(body_gv_locs);
+            bodyBindingsCount = new BodyBindingsCount(allCache, body_binding_signature, body_gv_plv_bindings_cnt);
+        }
+        final double all_entails = body_gv_plv_bindings_cnt * Math.pow(kb.getAllConstants().size(), head_free_args);
+        
+        /* Count for the total and new positive entailments */
+        final Set<Record> newly_proved = new HashSet<>();
+        final Set<Record> already_proved = new HashSet<>();
+        final KbRelation target_relation = headRelation;
+        if (0 == head_uv_cnt) {
+            /* No UV in the head, PAR is the record */
+            for (final CacheEntry cache_entry : posCache) {
+                Record record = new Record(cache_entry.entry.get(HEAD_PRED_IDX).partAsgnRecord);
+                if (target_relation.recordIsEntailed(record)) {
+                    already_proved.add(record);
+                } else {
+                    newly_proved.add(record);
+                }
+            }
+        } else {
+            /* UVs in the head, find all records in the CSs */
+            for (final CacheEntry cache_entry: posCache) {
+                for (Record record: cache_entry.entry.get(HEAD_PRED_IDX).complSet) {
+                    if (target_relation.recordIsEntailed(record)) {
+                        already_proved.add(record);
+                    } else {
+                        newly_proved.add(record);
+                    }
+                }
+            }
+        }
+        
+        /* Update evaluation score */
+        /* Those already proved should be excluded from the entire entailment set. Otherwise, they are counted as negative ones */
+        /* The positive entailments in a sample of the target relation are scaled up to the entire relation */
+        return new Eval(
+                eval, newly_proved.size() / headSampleRate, all_entails - already_proved.size() / headSampleRate, length
+        );
+    }
+
+    /**
+     * Estimate an optimistic evaluation of the rule by KMV sketches instead of the sets of records. The positive
+     * entailments are over-estimated and the total entailments are under-estimated by the bounds of the sketches. The
+     * estimations are exact if the numbers of distinct values are smaller than the sizes of the sketches.
+     *
+     * The arguments are hashed into the sketches directly without creating any record. If the E+-cache has more than
+     * "ESTIMATION_ENTRIES_PER_SLOT" entries per slot of the sketches, only a sample of the entries is visited (see
+     * "forEachSampledEntry"), and the positive entailments are scaled up by "sampledUpperBound". The E-cache is not
+     * sampled, as the bindings in a sample only bound the total entailments of the sample, which is too loose to screen
+     * out any rule.
+     *
+     * Note: The combinations of the GV and PLV bindings are still counted exactly if there are PLVs in the rule.
+     *
+     * @param tolerance The relative error tolerance
+     */
+    @Override
+    protected Eval estimateEval(double tolerance) {
+        if (null != monitor) {
+            monitor.recordCacheEntries(posCache.size(), allCache.size());
+        }
+        final int sketch_size = KmvSketch.sizeForError(tolerance);
+
+        /* Find the variables in the head and the first location of GVs in the body */
+        final List<ArgLocation> body_gv_locs = new ArrayList<>();   // PLVs are not included
+        final int head_free_args = findBodyGvLocs(body_gv_locs);
+        final int head_uv_cnt = headUvs();
+
+        /* Estimate the lower bound of all entailments */
+        final int[] body_binding_signature = bodyBindingSignature(body_gv_locs);
+        final BodyBindingsCount reusable_count = reusableBodyBindingsCount(body_binding_signature);
+        final double body_gv_plv_bindings_cnt;
+        if (null != reusable_count) {
+            body_gv_plv_bindings_cnt = reusable_count.count;
+        } else if (noPlvInRule()) {
+            final KmvSketch body_gv_bindings = new KmvSketch(sketch_size);
+            for (final CacheEntry cache_entry: allCache) {
+                long hash = KmvSketch.hashStart();
+                for (final ArgLocation loc: body_gv_locs) {
+                    hash = KmvSketch.hashStep(hash, cache_entry.entry.get(loc.predIdx).partAsgnRecord[loc.argIdx]);
+                }
+                body_gv_bindings.add(KmvSketch.hashFinish(hash));
+            }
+            body_gv_plv_bindings_cnt = body_gv_bindings.lowerBound();
+            if (body_gv_bindings.isExact()) {
+                bodyBindingsCount = new BodyBindingsCount(
+                        allCache, body_binding_signature, (long) body_gv_plv_bindings_cnt
+                );
+            }
+        } else {
+            final long cnt = countBodyGvPlvBindings(body_gv_locs);
+            bodyBindingsCount = new BodyBindingsCount(allCache, body_binding_signature, cnt);
+            body_gv_plv_bindings_cnt = cnt;
+        }
+        final double all_entails = body_gv_plv_bindings_cnt * Math.pow(kb.getAllConstants().size(), head_free_args);
+
+        /* Estimate the total and new positive entailments */
+        final KmvSketch newly_proved = new KmvSketch(sketch_size);
+        final KmvSketch already_proved = new KmvSketch(sketch_size);
+        final KbRelation target_relation = headRelation;
+        final int pos_stride = samplingStride(posCache, sketch_size);
+        if (0 == head_uv_cnt) {
+            /* No UV in the head, PAR is the record */
+            forEachSampledEntry(posCache, pos_stride, cache_entry -> {
+                final int[] args = cache_entry.entry.get(HEAD_PRED_IDX).partAsgnRecord;
+                (target_relation.recordIsEntailed(args) ? already_proved : newly_proved).add(KmvSketch.hash(args));
+            });
+        } else {
+            /* UVs in the head, find all records in the CSs */
+            forEachSampledEntry(posCache, pos_stride, cache_entry -> {
+                for (Record record: cache_entry.entry.get(HEAD_PRED_IDX).complSet) {
+                    (target_relation.recordIsEntailed(record.args) ? already_proved : newly_proved).add(
+                            KmvSketch.hash(record.args)
+                    );
+                }
+            });
+        }
+
+        /* The optimistic evaluation score */
+        final int head_records = target_relation.totalRecords();
+        final double pos_entails = Math.min(head_records, sampledUpperBound(newly_proved, pos_stride)) /
+                headSampleRate;
+        final double already_entails = Math.min(head_records, sampledUpperBound(already_proved, pos_stride)) /
+                headSampleRate;
+        return new Eval(eval, pos_entails, Math.max(pos_entails, all_entails - already_entails), length);
+    }
+
+    /**
+     * The stride of the sample of a cache in the estimation, i.e., each entry is sampled with the probability of
+     * "1/stride". The stride is 1 if the cache is not larger than "ESTIMATION_ENTRIES_PER_SLOT" entries per slot of the
+     * sketches.
+     */
+    protected static int samplingStride(List<CacheEntry> cache, int sketchSize) {
+        return Math.max(1, cache.size() / (ESTIMATION_ENTRIES_PER_SLOT * sketchSize));
+    }
+
+    /**
+     * Apply an action to a Bernoulli sample of the cache entries, where each entry is sampled with the probability of
+     * "1/stride". The sample is drawn by geometric skips, thus only the sampled entries are visited.
+     */
+    protected static void forEachSampledEntry(List<CacheEntry> cache, int stride, Consumer<CacheEntry> action) {
+        if (1 >= stride) {
+            cache.forEach(action);
+            return;
+        }
+        final SplittableRandom random = new SplittableRandom(ESTIMATION_SAMPLING_SEED);
+        final double log_unsampled_prob = Math.log(1 - 1.0 / stride);
+        int idx = -1;
+        while (true) {
+            final double skip = Math.log(1 - random.nextDouble()) / log_unsampled_prob;
+            if (skip >= cache.size() - 1 - idx) {
+                return;
+            }
+            idx += 1 + (int) skip;
+            action.accept(cache.get(idx));
+        }
+    }
+
+    /**
+     * An upper bound of the distinct records in a cache by the sketch of a sample, where each entry is sampled with the
+     * probability of "1/stride". Each record is in at least one entry, thus it is in the sample with a probability of no
+     * less than "1/stride". The number of the records in the sample is raised by "CONFIDENCE_Z" standard errors of the
+     * sampling and then scaled up by the stride.
+     */
+    protected static double sampledUpperBound(KmvSketch sketch, int stride) {
+        final double sampled = sketch.upperBound();
+        if (1 >= stride) {
+            return sampled;
+        }
+        final double z = KmvSketch.CONFIDENCE_Z;
+        return (sampled + z * Math.sqrt(sampled) + z * z) * stride;
+    }
+
+    /**
+     * Find the first locations of the GVs in the body. PLVs are not included.
+     *
+     * @param bodyGvLocs The list where the locations are added
+     * @return The number of the arguments in the head that are not bound by the body, i.e., UVs and head-only LVs
+     */
+    protected int findBodyGvLocs(List<ArgLocation> bodyGvLocs) {
         /* Find all variables in the head */
         final Set<Integer> head_only_lv_args = new HashSet<>();  // For the head only LVs
         int head_uv_cnt = 0;
-        final Predicate head_pred = getHead();
-        for (int argument: head_pred.args) {
+        for (int argument: getHead().args) {
             if (Argument.isEmpty(argument)) {
                 head_uv_cnt++;
             } else if (Argument.isVariable(argument)) {
@@ -400,26 +703,45 @@ public class CachedRule extends Rule {
         }
 
         /* Find the first location of GVs in the body */
-        final List<ArgLocation> body_gv_locs = new ArrayList<>();   // PLVs are not included
         for (int pred_idx = FIRST_BODY_PRED_IDX; pred_idx < structure.size(); pred_idx++) {
             final Predicate body_pred = structure.get(pred_idx);
             for (int arg_idx = 0; arg_idx < body_pred.arity(); arg_idx++) {
                 final int argument = body_pred.args[arg_idx];
                 if (head_only_lv_args.remove(argument) && null == plvList.get(Argument.decode(argument))) {
-                    body_gv_locs.add(new ArgLocation(pred_idx, arg_idx));
+                    bodyGvLocs.add(new ArgLocation(pred_idx, arg_idx));
                 }
             }
         }
+        return head_uv_cnt + head_only_lv_args.size();
+    }
 
-        /* Count the number of all entailments */
-        int body_gv_plv_bindings_cnt = 0;
+    /**
+     * Count the UVs in the head.
+     */
+    protected int headUvs() {
+        int head_uv_cnt = 0;
+        for (int argument: getHead().args) {
+            if (Argument.isEmpty(argument)) {
+                head_uv_cnt++;
+            }
+        }
+        return head_uv_cnt;
+    }
+
+    /**
+     * Count the number of distinct combinations of the GV and PLV bindings in the body (E-cache).
+     *
+     * @param bodyGvLocs The first locations of the GVs (excluding PLVs) in the body
+     */
+    protected long countBodyGvPlvBindings(List<ArgLocation> bodyGvLocs) {
+        long body_gv_plv_bindings_cnt = 0;
         if (noPlvInRule()) {
             /* Count all combinations of body GVs */
             final Set<Record> body_gv_bindings = new HashSet<>();
             for (final CacheEntry cache_entry: allCache) {
-                final int[] binding = new int[body_gv_locs.size()];
-                for (int i = 0; i < body_gv_locs.size(); i++) {
-                    final ArgLocation loc = body_gv_locs.get(i);
+                final int[] binding = new int[bodyGvLocs.size()];
+                for (int i = 0; i < bodyGvLocs.size(); i++) {
+                    final ArgLocation loc = bodyGvLocs.get(i);
                     binding[i] = cache_entry.entry.get(loc.predIdx).partAsgnRecord[loc.argIdx];
                 }
                 body_gv_bindings.add(new Record(binding));
@@ -439,84 +761,131 @@ public class CachedRule extends Rule {
                 }
             }
 
-            /* Count the number of the combinations of GVs and PLVs */
-            final Map<Record, Set<Record>> body_gv_binding_2_plv_bindings = new HashMap<>();
+            /* Group the cache entries by the GV bindings */
+            final Map<Record, List<CacheEntry>> body_gv_binding_2_entries = new HashMap<>();
             for (final CacheEntry cache_entry: allCache) {
-                /* Find the GV combination */
-                final int[] gv_binding = new int[body_gv_locs.size()];
-                for (int i = 0; i < body_gv_locs.size(); i++) {
-                    final ArgLocation loc = body_gv_locs.get(i);
+                final int[] gv_binding = new int[bodyGvLocs.size()];
+                for (int i = 0; i < bodyGvLocs.size(); i++) {
+                    final ArgLocation loc = bodyGvLocs.get(i);
                     gv_binding[i] = cache_entry.entry.get(loc.predIdx).partAsgnRecord[loc.argIdx];
                 }
+                body_gv_binding_2_entries.computeIfAbsent(new Record(gv_binding), k -> new ArrayList<>())
+                        .add(cache_entry);
+            }
 
-                /* Find the combinations of PLV bindings */
-                /* Note: the PLVs in the same predicate should be bind at the same time according to the records in the
-                   compliance set, and find the cartesian products of the groups of PLVs bindings. */
-                int total_binding_length = 0;
-                final Set<Record>[] plv_bindings_within_pred_sets = new Set[preds_containing_plvs];
-                {
-                    int i = 0;
+            /* Count the number of the combinations of PLVs in each group */
+            /* Note: the PLVs in the same predicate should be bind at the same time according to the records in the
+               compliance set, and the combinations are the cartesian products of the groups of PLVs bindings. The
+               products are only materialized if more than one entry shares the same GV binding, where they may
+               overlap. */
+            for (List<CacheEntry> entries: body_gv_binding_2_entries.values()) {
+                if (1 == entries.size()) {
+                    /* The combinations in a single entry are distinct, count by the product */
+                    long product = 1;
                     for (int body_pred_idx = FIRST_BODY_PRED_IDX; body_pred_idx < structure.size(); body_pred_idx++) {
                         final List<Integer> plv_arg_idxs = plv_arg_index_lists[body_pred_idx];
                         if (null != plv_arg_idxs) {
-                            final Set<Record> plv_bindings = new HashSet<>();
-                            for (Record cs_record : cache_entry.entry.get(body_pred_idx).complSet) {
-                                final int[] plv_binding_within_pred = new int[plv_arg_idxs.size()];
-                                for (int j = 0; j < plv_binding_within_pred.length; j++) {
-                                    plv_binding_within_pred[j] = cs_record.args[plv_arg_idxs.get(j)];
-                                }
-                                plv_bindings.add(new Record(plv_binding_within_pred));
+                            product *= plvBindingsWithinPred(entries.get(0), body_pred_idx, plv_arg_idxs).size();
+                        }
+                    }
+                    body_gv_plv_bindings_cnt += product;
+                } else if (1 == preds_containing_plvs) {
+                    /* All PLVs are in the same predicate, count the union of the bindings */
+                    final Set<Record> plv_bindings = new HashSet<>();
+                    for (int body_pred_idx = FIRST_BODY_PRED_IDX; body_pred_idx < structure.size(); body_pred_idx++) {
+                        final List<Integer> plv_arg_idxs = plv_arg_index_lists[body_pred_idx];
+                        if (null != plv_arg_idxs) {
+                            for (CacheEntry cache_entry: entries) {
+                                plv_bindings.addAll(plvBindingsWithinPred(cache_entry, body_pred_idx, plv_arg_idxs));
                             }
-                            plv_bindings_within_pred_sets[i] = plv_bindings;
-                            i++;
-                            total_binding_length += plv_arg_idxs.size();
+                            break;
                         }
                     }
+                    body_gv_plv_bindings_cnt += plv_bindings.size();
+                } else {
+                    /* The products may overlap, find the distinct combinations */
+                    final Set<Record> complete_plv_bindings = new HashSet<>();
+                    for (CacheEntry cache_entry: entries) {
+                        int total_binding_length = 0;
+                        final Set<Record>[] plv_bindings_within_pred_sets = new Set[preds_containing_plvs];
+                        int i = 0;
+                        for (int body_pred_idx = FIRST_BODY_PRED_IDX; body_pred_idx < structure.size(); body_pred_idx++) {
+                            final List<Integer> plv_arg_idxs = plv_arg_index_lists[body_pred_idx];
+                            if (null != plv_arg_idxs) {
+                                plv_bindings_within_pred_sets[i] = plvBindingsWithinPred(
+                                        cache_entry, body_pred_idx, plv_arg_idxs
+                                );
+                                i++;
+                                total_binding_length += plv_arg_idxs.size();
+                            }
+                        }
+                        addCompleteBodyPlvBindings(
+                                complete_plv_bindings, plv_bindings_within_pred_sets, new int[total_binding_length], 0, 0
+                        );
+                    }
+                    body_gv_plv_bindings_cnt += complete_plv_bindings.size();
                 }
-                final Set<Record> complete_plv_bindings =
-                        body_gv_binding_2_plv_bindings.computeIfAbsent(new Record(gv_binding), k -> new HashSet<>());
-                addCompleteBodyPlvBindings(
-                        complete_plv_bindings, plv_bindings_within_pred_sets, new int[total_binding_length], 0, 0
-                );
-            }
-            for (Set<Record> plv_bindings: body_gv_binding_2_plv_bindings.values()) {
-                body_gv_plv_bindings_cnt += plv_bindings.size();
             }
         }
-        final double all_entails = body_gv_plv_bindings_cnt * Math.pow(
-                kb.getAllConstants().size(), head_uv_cnt + head_only_lv_args.size()
-        );
-        
-        /* Count for the total and new positive entailments */
-        final Set<Record> newly_proved = new HashSet<>();
-        final Set<Record> already_proved = new HashSet<>();
-        final KbRelation target_relation = kb.getRelation(getHead().functor);
-        if (0 == head_uv_cnt) {
-            /* No UV in the head, PAR is the record */
-            for (final CacheEntry cache_entry : posCache) {
-                Record record = new Record(cache_entry.entry.get(HEAD_PRED_IDX).partAsgnRecord);
-                if (target_relation.recordIsEntailed(record)) {
-                    already_proved.add(record);
-                } else {
-                    newly_proved.add(record);
-                }
+        return body_gv_plv_bindings_cnt;
+    }
+
+    /**
+     * Find the distinct bindings of the PLVs in a body predicate of a cache entry.
+     *
+     * @param cacheEntry The cache entry
+     * @param predIdx The index of the body predicate
+     * @param plvArgIdxs The argument indices of the PLVs in the predicate
+     */
+    protected Set<Record> plvBindingsWithinPred(CacheEntry cacheEntry, int predIdx, List<Integer> plvArgIdxs) {
+        final Set<Record> plv_bindings = new HashSet<>();
+        for (Record cs_record : cacheEntry.entry.get(predIdx).complSet) {
+            final int[] plv_binding_within_pred = new int[plvArgIdxs.size()];
+            for (int j = 0; j < plv_binding_within_pred.length; j++) {
+                plv_binding_within_pred[j] = cs_record.args[plvArgIdxs.get(j)];
             }
-        } else {
-            /* UVs in the head, find all records in the CSs */
-            for (final CacheEntry cache_entry: posCache) {
-                for (Record record: cache_entry.entry.get(HEAD_PRED_IDX).complSet) {
-                    if (target_relation.recordIsEntailed(record)) {
-                        already_proved.add(record);
-                    } else {
-                        newly_proved.add(record);
-                    }
-                }
+            plv_bindings.add(new Record(plv_binding_within_pred));
+        }
+        return plv_bindings;
+    }
+
+    /**
+     * Encode the locations of the body GVs and the PLVs, which determine the count of the body bindings in the E-cache.
+     *
+     * @param bodyGvLocs The first locations of the GVs (excluding PLVs) in the body
+     */
+    protected int[] bodyBindingSignature(List<ArgLocation> bodyGvLocs) {
+        final IntArrayList signature = new IntArrayList();
+        for (ArgLocation loc: bodyGvLocs) {
+            signature.add(loc.predIdx);
+            signature.add(loc.argIdx);
+        }
+        signature.add(-1);  // Separator of GVs and PLVs
+        for (PlvLoc plv_loc: plvList) {
+            if (null != plv_loc) {
+                signature.add(plv_loc.bodyPredIdx);
+                signature.add(plv_loc.bodyArgIdx);
             }
         }
-        
-        /* Update evaluation score */
-        /* Those already proved should be excluded from the entire entailment set. Otherwise, they are counted as negative ones */
-        return new Eval(eval, newly_proved.size(), all_entails - already_proved.size(), length);
+        return signature.toArray();
+    }
+
+    /**
+     * Get the count of the body bindings that can be reused by the evaluation, i.e., the count was calculated on the
+     * same E-cache with the same signature. The reuse is recorded in the monitor.
+     *
+     * @param signature The signature of the body bindings in the current rule
+     * @return The reusable count, NULL if the count should be recalculated
+     */
+    protected BodyBindingsCount reusableBodyBindingsCount(int[] signature) {
+        if (null == bodyBindingsCount || bodyBindingsCount.cache != allCache ||
+                !Arrays.equals(bodyBindingsCount.signature, signature)) {
+            return null;
+        }
+        if (null != monitor) {
+            monitor.recordReusedBodyBindingsCount();
+        }
+        return bodyBindingsCount;
     }
 
     /**
@@ -579,6 +948,48 @@ public class CachedRule extends Rule {
         for (CacheEntry entry: allCache) {
             entry.updateIndices();
         }
+        compliedBlockMemo = new CompliedBlockMemo();
+    }
+
+    /**
+     * The caches are no longer split once the evaluation is updated, thus the memo of the beam is released so that it is
+     * not kept alive by the specialized rules.
+     */
+    @Override
+    protected void updateEval() {
+        releaseCompliedBlockMemo();
+        super.updateEval();
+    }
+
+    /**
+     * Release the memo of the split CBs, e.g., when the rule is no longer specialized.
+     */
+    public void releaseCompliedBlockMemo() {
+        compliedBlockMemo = null;
+    }
+
+    /**
+     * Get the CB where an argument of a CB is assigned by a value. The CB is shared via the memo if available.
+     */
+    protected CompliedBlock assignBlock(CompliedBlock cb, int argIdx, int argument, Set<Record> complSet) {
+        return (null == compliedBlockMemo) ? CompliedBlockMemo.assigned(cb, argIdx, argument, complSet) :
+                compliedBlockMemo.assign(cb, argIdx, argument, complSet);
+    }
+
+    /**
+     * Get the CB where two arguments of a CB are assigned by the same value. The CB is shared via the memo if available.
+     *
+     * @param complSet The records in the CS of the CB where the first argument is the value
+     * @return The CB, NULL if no record in the CS matches both arguments
+     */
+    protected CompliedBlock assignBlock(
+            CompliedBlock cb, int argIdx1, int argIdx2, int argument, Set<Record> complSet
+    ) {
+        if (null == compliedBlockMemo) {
+            final CompliedBlock new_cb = CompliedBlockMemo.assigned(cb, argIdx1, argIdx2, argument, complSet);
+            return (CompliedBlockMemo.EMPTY_BLOCK == new_cb) ? null : new_cb;
+        }
+        return compliedBlockMemo.assign(cb, argIdx1, argIdx2, argument, complSet);
     }
 
     /**
@@ -750,19 +1161,20 @@ public class CachedRule extends Rule {
      */
     @Override
     protected UpdateStatus cvt2Uvs2NewLvHandlerPostCvg(int predIdx1, int argIdx1, int predIdx2, int argIdx2) {
-        if (HEAD_PRED_IDX != predIdx1 || HEAD_PRED_IDX != predIdx2) {   // At least one modified predicate is in the body. Otherwise, nothing should be done.
-            if (HEAD_PRED_IDX == predIdx1 || HEAD_PRED_IDX == predIdx2) {   // One is the head and the other is not
-                /* The new variable is a PLV */
-                if (HEAD_PRED_IDX == predIdx1) {
-                    plvList.add(new PlvLoc(predIdx2, argIdx2, argIdx1));
-                } else {
-                    plvList.add(new PlvLoc(predIdx1, argIdx1, argIdx2));
-                }
-            } else {    // Both are in the body
-                /* The new variable is not a PLV, split */
-                plvList.add(null);
-                allCache = splitCacheEntries(allCache, predIdx1, argIdx1, predIdx2, argIdx2);
+        if (HEAD_PRED_IDX == predIdx1 && HEAD_PRED_IDX == predIdx2) {   // Both are in the head
+            /* The new variable is not a PLV, the cache remains the same */
+            plvList.add(null);
+        } else if (HEAD_PRED_IDX == predIdx1 || HEAD_PRED_IDX == predIdx2) {   // One is the head and the other is not
+            /* The new variable is a PLV */
+            if (HEAD_PRED_IDX == predIdx1) {
+                plvList.add(new PlvLoc(predIdx2, argIdx2, argIdx1));
+            } else {
+                plvList.add(new PlvLoc(predIdx1, argIdx1, argIdx2));
             }
+        } else {    // Both are in the body
+            /* The new variable is not a PLV, split */
+            plvList.add(null);
+            allCache = splitCacheEntries(allCache, predIdx1, argIdx1, predIdx2, argIdx2);
         }
         return UpdateStatus.NORMAL;
     }
@@ -859,12 +1271,13 @@ public class CachedRule extends Rule {
      */
     protected List<CacheEntry> appendCacheEntries(List<CacheEntry> cache, int relNum) {
         KbRelation relation = kb.getRelation(relNum);
-        CompliedBlock cb = new CompliedBlock(relNum, new int[relation.getArity()], relation.getRecords());
+        CompliedBlock cb = (null == compliedBlockMemo) ? CompliedBlockMemo.rawBlockOf(relation) :
+                compliedBlockMemo.rawBlock(relation);
         List<CacheEntry> new_cache = new ArrayList<>();
         for (CacheEntry entry: cache) {
             CacheEntry new_entry = new CacheEntry(entry);
             new_entry.entry.add(cb);
-            new_entry.argIndicesList.add(relation.getArgumentIndices());
+            new_entry.argIndicesList.add(relation.getArgumentRecordIndices());
             new_cache.add(new_entry);
         }
         return new_cache;
@@ -888,21 +1301,11 @@ public class CachedRule extends Rule {
         List<CacheEntry> new_cache = new ArrayList<>();
         if (predIdx1 == predIdx2) {
             for (CacheEntry cache_entry: cache) {
-                Map<Integer, Set<Record>> arg1_indices = cache_entry.argIndicesList.get(predIdx1)[argIdx1];
-                for (Map.Entry<Integer, Set<Record>> entry: arg1_indices.entrySet()) {
-                    final int argument = entry.getKey();
-                    Set<Record> new_cs = new HashSet<>();
-                    for (Record record: entry.getValue()) {
-                        if (argument == record.args[argIdx2]) {
-                            new_cs.add(record);
-                        }
-                    }
-                    if (!new_cs.isEmpty()) {
-                        CompliedBlock cb = cache_entry.entry.get(predIdx1);
-                        CompliedBlock new_cb = new CompliedBlock(cb.relNum, cb.partAsgnRecord.clone(), new_cs);
-                        new_cb.partAsgnRecord[argIdx1] = argument;
-                        new_cb.partAsgnRecord[argIdx2] = argument;
-
+                CompliedBlock cb = cache_entry.entry.get(predIdx1);
+                RecordIndex arg1_indices = cache_entry.argIndicesList.get(predIdx1)[argIdx1];
+                for (int argument: arg1_indices.values()) {
+                    CompliedBlock new_cb = assignBlock(cb, argIdx1, argIdx2, argument, arg1_indices.get(argument));
+                    if (null != new_cb) {
                         CacheEntry new_entry = new CacheEntry(cache_entry);
                         new_entry.entry.set(predIdx1, new_cb);
                         new_entry.argIndicesList.set(predIdx1, null);
@@ -915,17 +1318,15 @@ public class CachedRule extends Rule {
             for (CacheEntry cache_entry : cache) {
                 CompliedBlock cb1 = cache_entry.entry.get(predIdx1);
                 CompliedBlock cb2 = cache_entry.entry.get(predIdx2);
-                Map<Integer, Set<Record>> indices1 = cache_entry.argIndicesList.get(predIdx1)[argIdx1];
-                Map<Integer, Set<Record>> indices2 = cache_entry.argIndicesList.get(predIdx2)[argIdx2];
-                Set<Integer> arg_set = (indices1.size() < indices2.size()) ? indices1.keySet() : indices2.keySet(); // This assures that "arg_set" is the smaller one
+                RecordIndex indices1 = cache_entry.argIndicesList.get(predIdx1)[argIdx1];
+                RecordIndex indices2 = cache_entry.argIndicesList.get(predIdx2)[argIdx2];
+                int[] arg_set = (indices1.size() < indices2.size()) ? indices1.values() : indices2.values(); // This assures that "arg_set" is the smaller one
                 for (int argument : arg_set) {
                     Set<Record> new_cs1 = indices1.get(argument);
                     Set<Record> new_cs2 = indices2.get(argument);
                     if (null != new_cs1 && null != new_cs2) {
-                        CompliedBlock new_cb1 = new CompliedBlock(cb1.relNum, cb1.partAsgnRecord.clone(), new_cs1);
-                        CompliedBlock new_cb2 = new CompliedBlock(cb2.relNum, cb2.partAsgnRecord.clone(), new_cs2);
-                        new_cb1.partAsgnRecord[argIdx1] = argument;
-                        new_cb2.partAsgnRecord[argIdx2] = argument;
+                        CompliedBlock new_cb1 = assignBlock(cb1, argIdx1, argument, new_cs1);
+                        CompliedBlock new_cb2 = assignBlock(cb2, argIdx2, argument, new_cs2);
 
                         CacheEntry new_entry = new CacheEntry(cache_entry);
                         new_entry.entry.set(predIdx1, new_cb1);
@@ -960,10 +1361,8 @@ public class CachedRule extends Rule {
         for (CacheEntry cache_entry: cache) {
             Set<Record> new_cs = cache_entry.argIndicesList.get(predIdx)[argIdx].get(argument);
             if (null != new_cs) {
-                CompliedBlock cb = cache_entry.entry.get(predIdx);
                 CacheEntry new_entry = new CacheEntry(cache_entry);
-                CompliedBlock new_cb = new CompliedBlock(cb.relNum, cb.partAsgnRecord.clone(), new_cs);
-                new_cb.partAsgnRecord[argIdx] = argument;
+                CompliedBlock new_cb = assignBlock(cache_entry.entry.get(predIdx), argIdx, argument, new_cs);
                 new_entry.entry.set(predIdx, new_cb);
                 new_entry.argIndicesList.set(predIdx, null);
                 new_cache.add(new_entry);
@@ -1007,12 +1406,16 @@ public class CachedRule extends Rule {
     }
 
     /**
-     * Find the counterexamples generated by the rule.
+     * Enumerate the counterexamples generated by the rule. The head templates are bound by the E-cache first, then the
+     * head-only variables in each template are expanded and the counterexamples are passed to the consumer one by one,
+     * so the memory cost is bounded by the number of templates instead of the number of counterexamples.
+     *
+     * Note: The record passed to the consumer is reused, thus it should be copied if it is kept by the consumer.
      *
-     * @return The set of counterexamples
+     * @param consumer The consumer of the counterexamples
      */
     @Override
-    public Set<Record> getCounterexamples() {
+    public void forEachCounterexample(Consumer<Record> consumer) {
         /* Find head-only variables and the locations in the head */
         final Map<Integer, List<Integer>> head_only_var_arg_2_loc_map = new HashMap<>();  // GVs will be removed later
         int uv_id = usedLimitedVars();
@@ -1109,13 +1512,12 @@ public class CachedRule extends Rule {
         }
 
         /* Extend head templates */
-        final Set<Record> counter_example_set = new HashSet<>();
         KbRelation target_relation = kb.getRelation(head_pred.functor);
         if (head_only_var_arg_2_loc_map.isEmpty()) {
             /* No need to extend UVs */
             for (Record head_template : head_templates) {
                 if (!target_relation.hasRecord(head_template)) {
-                    counter_example_set.add(head_template);
+                    consumer.accept(head_template);
                 }
             }
         } else {
@@ -1126,13 +1528,12 @@ public class CachedRule extends Rule {
                 head_only_var_loc_lists[i] = head_only_var_loc_list;
                 i++;
             }
+            final Record buffer = new Record(new int[head_pred.arity()]);
             for (Record head_template: head_templates) {
-                expandHeadUvs4CounterExamples(
-                        target_relation, counter_example_set, head_template, head_only_var_loc_lists, 0
-                );
+                System.arraycopy(head_template.args, 0, buffer.args, 0, buffer.args.length);
+                expandHeadUvs4CounterExamples(target_relation, consumer, buffer, head_only_var_loc_lists, 0);
             }
         }
-        return counter_example_set;
     }
 
     /**
@@ -1175,16 +1576,17 @@ public class CachedRule extends Rule {
     }
 
     /**
-     * Recursively expand UVs in the template and add to counterexample set
+     * Recursively expand UVs in the template and pass the counterexamples to the consumer. The template is modified in
+     * place and passed to the consumer as is.
      *
      * @param targetRelation The target relation
-     * @param counterexamples The counterexample set
+     * @param consumer The consumer of the counterexamples
      * @param template The template record
      * @param idx The index of UVs
      * @param varLocs The locations of UVs
      */
     protected void expandHeadUvs4CounterExamples(
-            final KbRelation targetRelation, final Set<Record> counterexamples, final Record template,
+            final KbRelation targetRelation, final Consumer<Record> consumer, final Record template,
             final List<Integer>[] varLocs, final int idx
     ) {
         final List<Integer> locations = varLocs[idx];
@@ -1195,17 +1597,17 @@ public class CachedRule extends Rule {
                 for (int loc: locations) {
                     template.args[loc] = argument;
                 }
-                expandHeadUvs4CounterExamples(targetRelation, counterexamples, template, varLocs, idx + 1);
+                expandHeadUvs4CounterExamples(targetRelation, consumer, template, varLocs, idx + 1);
             }
         } else {
-            /* Expand the last UV and add to counterexample set if it is */
+            /* Expand the last UV and pass to the consumer if it is a counterexample */
             for (int constant_symbol: kb.getAllConstants()) {
                 final int argument = Argument.constant(constant_symbol);
                 for (int loc: locations) {
                     template.args[loc] = argument;
                 }
                 if (!targetRelation.hasRecord(template)) {
-                    counterexamples.add(new Record(template.args.clone()));
+                    consumer.accept(template);
                 }
             }
         }
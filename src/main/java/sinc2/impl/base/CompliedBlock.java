@@ -1,12 +1,17 @@
 package sinc2.impl.base;
 
 import sinc2.kb.Record;
+import sinc2.kb.RecordIndex;
+import sinc2.kb.SortedRecordIndex;
 
 import java.util.Set;
 
 /**
  * The Complied Block (CB) structure. Every member is read only, as operations on the cache should follow "copy-on-write"
- * strategy.
+ * strategy. The argument indices of the CS are built when they are used for the first time and never changed
+ * afterwards, thus a CB shared by multiple cache entries is indexed only once. The indices are published via a volatile
+ * field, so that a CB shared by the rules evaluated in parallel is safe to index. Concurrent first invocations may build
+ * the indices more than once, but all of them are equivalent.
  *
  * @since 2.0
  */
@@ -17,10 +22,25 @@ public class CompliedBlock {
     public final int[] partAsgnRecord;
     /** Compliance Set (CS) */
     public final Set<Record> complSet;
+    /** The argument indices of the CS. NULL before they are built */
+    protected volatile RecordIndex[] argIndices = null;
 
     public CompliedBlock(int relNum, int[] partAsgnRecord, Set<Record> complSet) {
         this.relNum = relNum;
         this.partAsgnRecord = partAsgnRecord;
         this.complSet = complSet;
     }
+
+    /**
+     * Get the argument indices of the CS. The indices are built in the first invocation, in sorted arrays of the
+     * argument values.
+     */
+    public RecordIndex[] argIndices() {
+        RecordIndex[] indices = argIndices;
+        if (null == indices) {
+            indices = SortedRecordIndex.buildAll(complSet, partAsgnRecord.length);
+            argIndices = indices;
+        }
+        return indices;
+    }
 }
@@ -0,0 +1,159 @@
+package sinc2.impl.base;
+
+import sinc2.kb.KbRelation;
+import sinc2.kb.Record;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The memo of the CBs split from the caches of a beam. The specializations of the same beam often split the same CB by
+ * the same argument, e.g., the specializations that link the same argument to different relations. The CBs of the
+ * splits are shared by the specialized rules, as well as the argument indices of the CBs. The raw CBs of the appended
+ * relations are shared in the same way, so that their splits are shared as well.
+ *
+ * The memo lives as long as the beam, while most splits are requested by only one specialization. Thus, only the keys
+ * are kept for the first request of a split, and the CB is stored from the second request on. The CB created for the
+ * first request is not shared, but the memo does not keep the CBs of all the candidates alive.
+ *
+ * The memo is thread-safe as the specializations of a beam may be evaluated in parallel.
+ *
+ * @since 2.0
+ */
+public class CompliedBlockMemo {
+
+    /**
+     * The key of a split CB, i.e., the original CB, the assigned arguments, and the assigned value. The original CBs are
+     * compared by identity, as they are never modified.
+     */
+    protected static class Key {
+        final CompliedBlock cb;
+        final int argIdx1;
+        final int argIdx2;
+        final int argument;
+
+        Key(CompliedBlock cb, int argIdx1, int argIdx2, int argument) {
+            this.cb = cb;
+            this.argIdx1 = argIdx1;
+            this.argIdx2 = argIdx2;
+            this.argument = argument;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return cb == key.cb && argIdx1 == key.argIdx1 && argIdx2 == key.argIdx2 && argument == key.argument;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(cb);
+            result = 31 * result + argIdx1;
+            result = 31 * result + argIdx2;
+            result = 31 * result + argument;
+            return result;
+        }
+    }
+
+    /** The placeholder of the splits resulting in empty CSs */
+    protected static final CompliedBlock EMPTY_BLOCK = new CompliedBlock(0, new int[0], Collections.emptySet());
+
+    /** The splits that have been requested once */
+    protected final Set<Key> requested = ConcurrentHashMap.newKeySet();
+    /** The split CBs that have been requested more than once */
+    protected final Map<Key, CompliedBlock> blocks = new ConcurrentHashMap<>();
+    /** The raw CBs of the relations, i.e., no argument is assigned. Relation numerations are the keys */
+    protected final Map<Integer, CompliedBlock> rawBlocks = new ConcurrentHashMap<>();
+
+    /**
+     * Get the raw CB of a relation, where no argument is assigned.
+     */
+    public CompliedBlock rawBlock(KbRelation relation) {
+        return rawBlocks.computeIfAbsent(relation.getNumeration(), k -> rawBlockOf(relation));
+    }
+
+    /**
+     * Get the CB where an argument of the original CB is assigned by a value.
+     *
+     * @param cb The original CB
+     * @param argIdx The index of the argument
+     * @param argument The value
+     * @param complSet The records in the CS of the original CB where the argument is the value
+     * @return The split CB
+     */
+    public CompliedBlock assign(CompliedBlock cb, int argIdx, int argument, Set<Record> complSet) {
+        final Key key = new Key(cb, argIdx, argIdx, argument);
+        if (requested.add(key)) {
+            return assigned(cb, argIdx, argument, complSet);
+        }
+        return blocks.computeIfAbsent(key, k -> assigned(cb, argIdx, argument, complSet));
+    }
+
+    /**
+     * Get the CB where two arguments of the original CB are assigned by the same value.
+     *
+     * @param cb The original CB
+     * @param argIdx1 The index of the first argument
+     * @param argIdx2 The index of the second argument
+     * @param argument The value
+     * @param complSet The records in the CS of the original CB where the first argument is the value
+     * @return The split CB, NULL if no record in the CS matches both arguments
+     */
+    public CompliedBlock assign(CompliedBlock cb, int argIdx1, int argIdx2, int argument, Set<Record> complSet) {
+        final Key key = new Key(cb, argIdx1, argIdx2, argument);
+        final CompliedBlock new_cb = requested.add(key) ? assigned(cb, argIdx1, argIdx2, argument, complSet) :
+                blocks.computeIfAbsent(key, k -> assigned(cb, argIdx1, argIdx2, argument, complSet));
+        return (EMPTY_BLOCK == new_cb) ? null : new_cb;
+    }
+
+    /**
+     * The number of the split CBs stored in the memo, i.e., those requested more than once.
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Create the raw CB of a relation.
+     */
+    protected static CompliedBlock rawBlockOf(KbRelation relation) {
+        return new CompliedBlock(relation.getNumeration(), new int[relation.getArity()], relation.getRecords());
+    }
+
+    /**
+     * Create the CB where an argument of the original CB is assigned by a value.
+     */
+    protected static CompliedBlock assigned(CompliedBlock cb, int argIdx, int argument, Set<Record> complSet) {
+        final CompliedBlock new_cb = new CompliedBlock(cb.relNum, cb.partAsgnRecord.clone(), complSet);
+        new_cb.partAsgnRecord[argIdx] = argument;
+        return new_cb;
+    }
+
+    /**
+     * Create the CB where two arguments of the original CB are assigned by the same value.
+     *
+     * @return The split CB, "EMPTY_BLOCK" if no record in the CS matches both arguments
+     */
+    protected static CompliedBlock assigned(
+            CompliedBlock cb, int argIdx1, int argIdx2, int argument, Set<Record> complSet
+    ) {
+        final Set<Record> new_cs = new HashSet<>();
+        for (Record record: complSet) {
+            if (argument == record.args[argIdx2]) {
+                new_cs.add(record);
+            }
+        }
+        if (new_cs.isEmpty()) {
+            return EMPTY_BLOCK;
+        }
+        final CompliedBlock new_cb = new CompliedBlock(cb.relNum, cb.partAsgnRecord.clone(), new_cs);
+        new_cb.partAsgnRecord[argIdx1] = argument;
+        new_cb.partAsgnRecord[argIdx2] = argument;
+        return new_cb;
+    }
+}
@@ -1,16 +1,21 @@
 package sinc2.impl.base;
 
+import sinc2.DependencyGraph;
 import sinc2.RelationMiner;
+import sinc2.SInC;
 import sinc2.common.Predicate;
+import sinc2.common.RuleMonitor;
+import sinc2.kb.KbRelation;
 import sinc2.kb.NumeratedKb;
+import sinc2.kb.Record;
 import sinc2.rule.EvalMetric;
+import sinc2.rule.Fingerprint;
 import sinc2.rule.Rule;
-import sinc2.util.graph.GraphNode;
 
 import java.io.PrintWriter;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The basic relation miner class. Each relation miner mines rules from a single relation.
@@ -18,6 +23,21 @@ import java.util.Set;
  * @since 2.0
  */
 public class RelationMinerBasic extends RelationMiner {
+    /**
+     * The maximum number of target records the rules are searched on. If the target relation is larger, the rules are
+     * searched on a reservoir sample of the relation and verified on the entire KB. No sampling if it is not positive.
+     */
+    protected final int sampleSize;
+    /** The relative error tolerance of the approximate evaluation of the rules. No approximation if it is 0 */
+    protected final double approxEvalTolerance;
+    /** The random generator for sampling */
+    protected final Random random;
+    /**
+     * The fingerprints of the rules found on the samples but not useful on the entire relation. Unlike the tabu set, a
+     * rejected fingerprint excludes only the rule itself, as the specializations of the rule may still be useful.
+     */
+    protected final Set<Fingerprint> rejectedFingerprints = new HashSet<>();
+
     /**
      * Construct by passing parameters from the compressor that loads the data.
      *
@@ -26,24 +46,136 @@ public class RelationMinerBasic extends RelationMiner {
      * @param evalMetric           The rule evaluation metric
      * @param beamwidth            The beamwidth used in the rule mining procedure
      * @param stopCompressionRatio The stopping compression ratio for inducing a single rule
-     * @param predicate2NodeMap    The mapping from predicates to the nodes in the dependency graph
      * @param dependencyGraph      The dependency graph
+     * @param workerPool           The worker pool for parallel candidate evaluation (NULL for sequential evaluation)
      * @param logger               A logger
      */
     public RelationMinerBasic(
             NumeratedKb kb, int targetRelation, EvalMetric evalMetric, int beamwidth, double stopCompressionRatio,
-            Map<Predicate, GraphNode<Predicate>> predicate2NodeMap,
-            Map<GraphNode<Predicate>, Set<GraphNode<Predicate>>> dependencyGraph, PrintWriter logger
+            DependencyGraph dependencyGraph, ForkJoinPool workerPool, PrintWriter logger
     ) {
-        super(kb, targetRelation, evalMetric, beamwidth, stopCompressionRatio, predicate2NodeMap, dependencyGraph, logger);
+        this(
+                kb, targetRelation, evalMetric, beamwidth, stopCompressionRatio, dependencyGraph, workerPool,
+                new RuleMonitor(), logger, 0, 0
+        );
     }
 
     /**
-     * Create a rule with compact caching and tabu set.
+     * Construct by passing parameters from the compressor that loads the data.
+     *
+     * @param kb                   The input KB
+     * @param targetRelation       The target relation in the KB
+     * @param evalMetric           The rule evaluation metric
+     * @param beamwidth            The beamwidth used in the rule mining procedure
+     * @param stopCompressionRatio The stopping compression ratio for inducing a single rule
+     * @param dependencyGraph      The dependency graph
+     * @param workerPool           The worker pool for parallel candidate evaluation (NULL for sequential evaluation)
+     * @param ruleMonitor          The monitor of the operations on the rules
+     * @param logger               A logger
+     * @param sampleSize           The maximum number of target records the rules are searched on (0 for no sampling)
+     * @param approxEvalTolerance  The relative error tolerance of the approximate evaluation (0 for exact evaluation)
+     */
+    public RelationMinerBasic(
+            NumeratedKb kb, int targetRelation, EvalMetric evalMetric, int beamwidth, double stopCompressionRatio,
+            DependencyGraph dependencyGraph, ForkJoinPool workerPool, RuleMonitor ruleMonitor, PrintWriter logger,
+            int sampleSize, double approxEvalTolerance
+    ) {
+        super(
+                kb, targetRelation, evalMetric, beamwidth, stopCompressionRatio, dependencyGraph, workerPool,
+                ruleMonitor, logger
+        );
+        this.sampleSize = sampleSize;
+        this.approxEvalTolerance = approxEvalTolerance;
+        this.random = new Random(targetRelation);
+    }
+
+    /**
+     * Create a rule with compact caching and tabu set. The fingerprint cache is thread-safe as candidate rules may be
+     * evaluated in parallel. The rejected fingerprints are put in the cache, so that the rejected rules are treated as
+     * duplications, but their specializations can still be found.
      */
     @Override
     protected Rule getStartRule() {
-        return new CachedRule(targetRelation, kb.getRelationArity(targetRelation), new HashSet<>(), tabuSet, kb);
+        final Set<Fingerprint> fingerprint_cache = ConcurrentHashMap.newKeySet();
+        fingerprint_cache.addAll(rejectedFingerprints);
+        final KbRelation target_relation = kb.getRelation(targetRelation);
+        if (0 >= sampleSize || sampleSize >= target_relation.totalRecords()) {
+            return new CachedRule(
+                    target_relation, target_relation.getArity(), fingerprint_cache, tabuSet, kb, ruleMonitor,
+                    approxEvalTolerance
+            );
+        }
+        return new CachedRule(
+                sampleTargetRelation(target_relation), target_relation.getArity(), fingerprint_cache, tabuSet, kb,
+                ruleMonitor, approxEvalTolerance
+        );
+    }
+
+    /**
+     * Draw a reservoir sample of "sampleSize" records from the target relation. The entailment status of the records
+     * are also copied to the sample.
+     */
+    protected KbRelation sampleTargetRelation(KbRelation targetRelation) {
+        final Record[] reservoir = new Record[sampleSize];
+        int seen = 0;
+        for (Record record: targetRelation) {
+            if (seen < sampleSize) {
+                reservoir[seen] = record;
+            } else {
+                final int idx = random.nextInt(seen + 1);
+                if (idx < sampleSize) {
+                    reservoir[idx] = record;
+                }
+            }
+            seen++;
+        }
+        final KbRelation sample = new KbRelation(
+                targetRelation.getName(), targetRelation.getNumeration(), targetRelation.getArity()
+        );
+        for (Record record: reservoir) {
+            sample.addRecordUnchecked(record);
+            if (targetRelation.recordIsEntailed(record)) {
+                sample.entailRecord(record);
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Find a rule on the sample of the target relation if the relation is sampled, and then verify the rule on the
+     * entire KB. The verified rule, instead of the one on the sample, is returned as it is used for updating the KB.
+     * If the rule is not useful on the entire KB, its fingerprint is rejected and the rule is searched again on a fresh
+     * sample. The memo of the split CBs is released as the rule is kept in the hypothesis.
+     *
+     * @return The verified rule. NULL if no proper rule can be found.
+     */
+    @Override
+    protected Rule findRule() {
+        while (true) {
+            final Rule rule = super.findRule();
+            if (null == rule) {
+                return null;
+            }
+            ((CachedRule) rule).releaseCompliedBlockMemo();
+            if (1.0 <= ((CachedRule) rule).headSampleRate) {
+                return rule;
+            }
+            final List<Predicate> structure = new ArrayList<>(rule.predicates());
+            for (int pred_idx = Rule.HEAD_PRED_IDX; pred_idx < rule.predicates(); pred_idx++) {
+                structure.add(rule.getPredicate(pred_idx));
+            }
+            final CachedRule verified_rule = new CachedRule(
+                    structure, ConcurrentHashMap.newKeySet(), tabuSet, kb, ruleMonitor, approxEvalTolerance
+            );
+            if (verified_rule.getEval().useful()) {
+                return verified_rule;
+            }
+            logger.printf("Rejected on the entire relation: %s\n", verified_rule.toString(kb.getNumerationMap()));
+            rejectedFingerprints.add(rule.getFingerprint());
+            if (SInC.interrupted) {
+                return null;
+            }
+        }
     }
 
     /**
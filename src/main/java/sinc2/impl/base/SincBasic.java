@@ -23,7 +23,8 @@ public class SincBasic extends SInC {
     protected RelationMiner createRelationMiner(int targetRelationNum) {
         return new RelationMinerBasic(
                 kb, targetRelationNum, config.evalMetric, config.beamwidth, config.stopCompressionRatio,
-                predicate2NodeMap, dependencyGraph, logger
+                dependencyGraph, workerPool, performanceMonitor.ruleMonitor, logger, config.relationSampleSize,
+                config.approxEvalTolerance
         );
     }
 }
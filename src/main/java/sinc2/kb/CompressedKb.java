@@ -7,7 +7,10 @@ import sinc2.common.Predicate;
 import sinc2.rule.BareRule;
 import sinc2.rule.Rule;
 import sinc2.rule.RuleParseException;
+import sinc2.rule.TabuSet;
 import sinc2.util.LittleEndianIntIO;
+import sinc2.util.LittleEndianIntWriter;
+import sinc2.util.MultiSet;
 
 import java.io.*;
 import java.nio.file.Paths;
@@ -197,7 +200,7 @@ public class CompressedKb extends NumeratedKb {
                         }
                         rule_structure.add(predicate);
                     }
-                    hypothesis.add(new BareRule(rule_structure, new HashSet<>(), new HashMap<>()));
+                    hypothesis.add(new BareRule(rule_structure, new HashSet<>(), new TabuSet()));
                 }
             } else {
                 while (null != (line = reader.readLine())) {
@@ -234,7 +237,7 @@ public class CompressedKb extends NumeratedKb {
                         }
                         rule_structure.add(predicate);
                     }
-                    hypothesis.add(new BareRule(rule_structure, new HashSet<>(), new HashMap<>()));
+                    hypothesis.add(new BareRule(rule_structure, new HashSet<>(), new TabuSet()));
                 }
             }
             reader.close();
@@ -304,6 +307,33 @@ public class CompressedKb extends NumeratedKb {
         }
     }
 
+    /**
+     * Add necessary records of a relation. The records are taken from the original KB, thus they are not checked.
+     *
+     * This method can be invoked concurrently for different relations: each invocation only modifies the necessary
+     * relation of its own, and the constants are counted locally and then merged into 'constants' with synchronization.
+     * It should not run concurrently with other methods that add records.
+     *
+     * @throws KbException Relation does not exist
+     */
+    public void addNecessaryRecords(int relNum, List<Record> records) throws KbException {
+        KbRelation relation = getRelation(relNum);
+        if (null == relation) {
+            throw new KbException(String.format("Relation is not in the KB: %d", relNum));
+        }
+
+        MultiSet<Integer> relation_constants = new MultiSet<>();
+        for (Record record: records) {
+            relation.addRecordUnchecked(record);
+            for (int argument: record.args) {
+                relation_constants.add(Argument.decode(argument));
+            }
+        }
+        synchronized (this) {
+            constants.addAll(relation_constants);
+        }
+    }
+
     /**
      * Add a record where arguments are numbers to the counterexample set.
      *
@@ -445,11 +475,13 @@ public class CompressedKb extends NumeratedKb {
         /* Dump supplementary constants */
         updateSupplementaryConstants();
         if (0 < supplementaryConstants.size()) {
-            FileOutputStream fos = new FileOutputStream(Paths.get(kb_dir_path, SUPPLEMENTARY_CONSTANTS_FILE_NAME).toFile());
-            for (int i: supplementaryConstants) {
-                fos.write(LittleEndianIntIO.leInt2ByteArray(i));
+            try (LittleEndianIntWriter writer = new LittleEndianIntWriter(
+                    Paths.get(kb_dir_path, SUPPLEMENTARY_CONSTANTS_FILE_NAME).toFile()
+            )) {
+                for (int i: supplementaryConstants) {
+                    writer.write(i);
+                }
             }
-            fos.close();
         }
     }
 
@@ -2,14 +2,18 @@ package sinc2.kb;
 
 import sinc2.common.Argument;
 import sinc2.util.ArrayOperation;
-import sinc2.util.LittleEndianIntIO;
+import sinc2.util.IntArrayList;
+import sinc2.util.IntKeyMap;
+import sinc2.util.LittleEndianIntWriter;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,6 +30,11 @@ import java.util.regex.Pattern;
  *
  * Todo: The <#record> should be canceled as it is not necessary for loading records
  *
+ * In memory, the records are packed row by row in a flat integer array and indexed by primitive hash tables, so no
+ * object is kept per record. 'Record' objects are only created when the records are accessed via the views, and they
+ * are copies of the rows, thus modifying them does not change the relation. Callers that need a stable identity of the
+ * records should use the row IDs (see "rowOf" and "recordAt").
+ *
  * @since 2.0
  */
 public class KbRelation implements Iterable<Record> {
@@ -42,12 +51,32 @@ public class KbRelation implements Iterable<Record> {
     protected final int numeration;
     /** The arity of the relation */
     protected final int arity;
-    /** The set of the records */
-    protected final Set<Record> records = new HashSet<>();
-    /** The set of entailed records */
-    protected final Set<Record> entailedRecords = new HashSet<>();
-    /** The index of each argument value */
-    protected final Map<Integer, Set<Record>>[] argumentIndices;
+    /** The initial number of rows allocated for an empty relation */
+    protected static final int DEFAULT_ROW_CAPACITY = 16;
+    /** The number of rows copied from a mapped relation file at a time */
+    protected static final int LOAD_BUFFER_ROWS = 8192;
+    /** The mark of an empty slot in the row table */
+    protected static final int EMPTY_SLOT = -1;
+
+    /**
+     * The records are stored row by row in a flat array. The i-th record occupies the range [i*arity, (i+1)*arity).
+     * Rows are kept dense: removing a record moves the last row into the vacant position.
+     */
+    protected int[] rows;
+    /** The number of rows (records) in the relation */
+    protected int totalRows = 0;
+    /** An open-addressing hash table (with linear probing) of the row IDs, used for membership checks */
+    protected int[] rowTable;
+    /** The entailment flags of the rows */
+    protected final BitSet entailedRows = new BitSet();
+    /** The index of each argument value: argument value -> IDs of the rows containing the value */
+    protected final IntKeyMap<IntArrayList>[] argumentIndices;
+    /** A read-only set view of the records */
+    protected final Set<Record> recordsView = new RowSetView();
+    /** Read-only map views of the argument indices */
+    protected final Map<Integer, Set<Record>>[] argumentIndicesViews;
+    /** Read-only record index views of the argument indices */
+    protected final RecordIndex[] argumentRecordIndices;
     /** Promising constants for each argument */
     protected int[][] promisingConstants = null;
 
@@ -114,10 +143,10 @@ public class KbRelation implements Iterable<Record> {
         this.name = name;
         this.numeration = numeration;
         this.arity = arity;
-        this.argumentIndices = new Map[arity];
-        for (int i = 0; i < arity; i++) {
-            argumentIndices[i] = new HashMap<>();
-        }
+        this.argumentIndices = new IntKeyMap[arity];
+        this.argumentIndicesViews = new Map[arity];
+        this.argumentRecordIndices = new RecordIndex[arity];
+        initStorage(DEFAULT_ROW_CAPACITY);
     }
 
     /**
@@ -138,10 +167,10 @@ public class KbRelation implements Iterable<Record> {
         this.name = name;
         this.numeration = numeration;
         this.arity = arity;
-        this.argumentIndices = new Map[arity];
-        for (int i = 0; i < arity; i++) {
-            argumentIndices[i] = new HashMap<>();
-        }
+        this.argumentIndices = new IntKeyMap[arity];
+        this.argumentIndicesViews = new Map[arity];
+        this.argumentRecordIndices = new RecordIndex[arity];
+        initStorage(totalRecords);
 
         File rel_file = getRelFilePath(kbPtah, name, arity, totalRecords).toFile();
         loadHandler(rel_file, map);
@@ -165,56 +194,77 @@ public class KbRelation implements Iterable<Record> {
         this.name = name;
         this.numeration = numeration;
         this.arity = arity;
-        this.argumentIndices = new Map[arity];
-        for (int i = 0; i < arity; i++) {
-            argumentIndices[i] = new HashMap<>();
-        }
+        this.argumentIndices = new IntKeyMap[arity];
+        this.argumentIndicesViews = new Map[arity];
+        this.argumentRecordIndices = new RecordIndex[arity];
+        initStorage(DEFAULT_ROW_CAPACITY);
 
         File rel_file = Paths.get(kbPtah, fileName).toFile();
         loadHandler(rel_file, map);
     }
 
+    /**
+     * Allocate the row storage and the argument indices.
+     *
+     * @param rowCapacity The expected number of records
+     */
+    protected void initStorage(int rowCapacity) {
+        rowCapacity = Math.max(DEFAULT_ROW_CAPACITY, rowCapacity);
+        rows = new int[rowCapacity * arity];
+        rowTable = new int[tableCapacityFor(rowCapacity)];
+        Arrays.fill(rowTable, EMPTY_SLOT);
+        for (int i = 0; i < arity; i++) {
+            argumentIndices[i] = new IntKeyMap<>();
+            argumentIndicesViews[i] = new ArgumentIndexView(i);
+            argumentRecordIndices[i] = new ArgumentRecordIndex(i);
+        }
+    }
+
     /**
      * Load a single relation from the local file system. If the 'numMap' is not NULL, every loaded numeration is
      * checked for validness in the map.
      *
+     * The file is memory-mapped and read as little-endian integers in bulk, instead of decoding the integers one by one
+     * from a stream.
+     *
      * @param file The relation file
      * @param map The numeration map for validness check
      * @throws IOException File read fails
      * @throws KbException 'map' is not NULL and a loaded numeration is not mapped
      */
     protected void loadHandler(File file, NumerationMap map) throws IOException, KbException {
-        FileInputStream fis = new FileInputStream(file);
-        byte[] buffer = new byte[Integer.BYTES];
-        int read_args;
-        if (null == map) {
-            while (true) {
-                int[] args = new int[arity];
-                for (read_args = 0; read_args < arity && Integer.BYTES == fis.read(buffer); read_args++) {
-                    args[read_args] = LittleEndianIntIO.byteArray2LeInt(buffer);
-                }
-                if (read_args < arity) {
-                    break;
-                }
-                addRecord(new Record(args));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long row_bytes = (long) Integer.BYTES * arity;
+            if (0 == row_bytes) {
+                return;
             }
-        } else {
-            while (true) {
-                int[] args = new int[arity];
-                for (read_args = 0; read_args < arity && Integer.BYTES == fis.read(buffer); read_args++) {
-                    args[read_args] = LittleEndianIntIO.byteArray2LeInt(buffer);
-                    if (null == map.num2Name(Argument.decode(args[read_args]))) {
-                        fis.close();
-                        throw new KbException(String.format("Loaded numeration is not mapped: %d", args[read_args]));
+            final long total_rows = channel.size() / row_bytes;    // A trailing incomplete row is ignored
+            ensureRowCapacity((int) Math.min(total_rows, Integer.MAX_VALUE / arity));
+
+            /* A mapped region can not exceed 2GB. Map the file region by region, each of which contains whole rows */
+            final long rows_per_region = Integer.MAX_VALUE / row_bytes;
+            final int[] buffer = new int[(int) Math.min(LOAD_BUFFER_ROWS, rows_per_region) * arity];
+            for (long region_start = 0; region_start < total_rows; region_start += rows_per_region) {
+                long region_rows = Math.min(rows_per_region, total_rows - region_start);
+                IntBuffer ints = channel.map(
+                        FileChannel.MapMode.READ_ONLY, region_start * row_bytes, region_rows * row_bytes
+                ).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+                while (ints.hasRemaining()) {
+                    int length = Math.min(buffer.length, ints.remaining());
+                    ints.get(buffer, 0, length);
+                    if (null != map) {
+                        for (int i = 0; i < length; i++) {
+                            if (null == map.num2Name(Argument.decode(buffer[i]))) {
+                                throw new KbException(String.format("Loaded numeration is not mapped: %d", buffer[i]));
+                            }
+                        }
+                    }
+                    for (int offset = 0; offset < length; offset += arity) {
+                        addRow(buffer, offset);
                     }
                 }
-                if (read_args < arity) {
-                    break;
-                }
-                addRecord(new Record(args));
             }
         }
-        fis.close();
     }
 
     /**
@@ -228,19 +278,7 @@ public class KbRelation implements Iterable<Record> {
                     "Record arity (%d) does not match the relation (%d)", record.args.length, arity
             ));
         }
-        records.add(record);
-
-        /* Update the argument index */
-        for (int arg_idx = 0; arg_idx < arity; arg_idx++) {
-            Map<Integer, Set<Record>> index = argumentIndices[arg_idx];
-            index.compute(record.args[arg_idx], (argument, records) -> {
-                if (null == records) {
-                    records = new HashSet<>();
-                }
-                records.add(record);
-                return records;
-            });
-        }
+        addRow(record.args);
     }
 
     /**
@@ -265,19 +303,105 @@ public class KbRelation implements Iterable<Record> {
         }
     }
 
+    /**
+     * Add a record whose arity is known to match the relation. The arguments are copied into the relation, thus the
+     * record can be reused by the caller.
+     */
+    public void addRecordUnchecked(Record record) {
+        addRow(record.args);
+    }
+
+    /**
+     * Append the arguments as a new row if they are not in the relation yet. The length of the argument array should
+     * equal the arity.
+     */
+    protected void addRow(int[] args) {
+        addRow(args, 0);
+    }
+
+    /**
+     * Append the arguments in the range [offset, offset+arity) of an array as a new row if they are not in the relation
+     * yet.
+     */
+    protected void addRow(int[] array, int offset) {
+        int slot = findSlot(array, offset);
+        if (EMPTY_SLOT != rowTable[slot]) {
+            return;
+        }
+
+        /* Append the row */
+        final int row = totalRows;
+        if (rows.length < (row + 1) * arity) {
+            rows = Arrays.copyOf(rows, Math.max(rows.length << 1, arity));
+        }
+        System.arraycopy(array, offset, rows, row * arity, arity);
+        totalRows++;
+        rowTable[slot] = row;
+        if (rowTable.length < tableCapacityFor(totalRows)) {
+            rehashRows(rowTable.length << 1);
+        }
+
+        /* Update the argument index */
+        for (int arg_idx = 0; arg_idx < arity; arg_idx++) {
+            argumentIndices[arg_idx].computeIfAbsent(array[offset + arg_idx], k -> new IntArrayList()).add(row);
+        }
+    }
+
+    /**
+     * Make sure the storage can hold the given number of rows without growing.
+     */
+    protected void ensureRowCapacity(int rowCapacity) {
+        if (rows.length < rowCapacity * arity) {
+            rows = Arrays.copyOf(rows, rowCapacity * arity);
+        }
+        if (rowTable.length < tableCapacityFor(rowCapacity)) {
+            rehashRows(tableCapacityFor(rowCapacity));
+        }
+    }
+
     /**
      * Remove a record from the relation
      */
     public void removeRecord(Record record) {
-        records.remove(record);
+        if (record.args.length != arity) {
+            return;
+        }
+        int slot = findSlot(record.args);
+        final int row = rowTable[slot];
+        if (EMPTY_SLOT == row) {
+            return;
+        }
+        removeSlot(slot);
+        for (int arg_idx = 0; arg_idx < arity; arg_idx++) {
+            int argument = rows[row * arity + arg_idx];
+            IntArrayList row_ids = argumentIndices[arg_idx].get(argument);
+            row_ids.removeValue(row);
+            if (row_ids.isEmpty()) {
+                argumentIndices[arg_idx].remove(argument);
+            }
+        }
+
+        /* Move the last row to the vacant position to keep the rows dense */
+        final int last_row = totalRows - 1;
+        if (row != last_row) {
+            rowTable[findSlot(rows, last_row * arity)] = row;
+            for (int arg_idx = 0; arg_idx < arity; arg_idx++) {
+                argumentIndices[arg_idx].get(rows[last_row * arity + arg_idx]).replaceValue(last_row, row);
+            }
+            System.arraycopy(rows, last_row * arity, rows, row * arity, arity);
+            entailedRows.set(row, entailedRows.get(last_row));
+        }
+        entailedRows.clear(last_row);
+        totalRows--;
     }
 
     /**
      * Mark a record as entailed. The record will not be marked if it is not in the KB.
      */
     public void entailRecord(Record record) {
-        if (hasRecord(record)) {
-            entailedRecords.add(record);
+        int row = findRow(record);
+        if (EMPTY_SLOT != row) {
+            entailedRows.set(row);
         }
     }
 
@@ -285,7 +409,113 @@ public class KbRelation implements Iterable<Record> {
      * Check if a record has been entailed.
      */
     public boolean recordIsEntailed(Record record) {
-        return entailedRecords.contains(record);
+        int row = findRow(record);
+        return EMPTY_SLOT != row && entailedRows.get(row);
+    }
+
+    /**
+     * Check if the record of the arguments has been entailed. No record object is created.
+     */
+    public boolean recordIsEntailed(int[] args) {
+        int row = rowOf(args);
+        return EMPTY_SLOT != row && entailedRows.get(row);
+    }
+
+    /**
+     * Find the row ID of a record. Row IDs are stable as long as no record is removed from the relation.
+     *
+     * @return The ID of the row equal to the arguments, or -1 if the record is not in the relation
+     */
+    public int rowOf(int[] args) {
+        return (args.length == arity) ? rowTable[findSlot(args)] : EMPTY_SLOT;
+    }
+
+    /**
+     * Create a record object for a row ID.
+     */
+    public Record recordAt(int row) {
+        return recordOf(row);
+    }
+
+    /**
+     * The row table is kept at most half full.
+     */
+    protected static int tableCapacityFor(int rows) {
+        return Integer.highestOneBit(Math.max(DEFAULT_ROW_CAPACITY, rows) * 2 - 1) << 1;
+    }
+
+    /**
+     * The hash value of the arguments in the range [offset, offset+arity) of an array.
+     */
+    protected int hashArgs(int[] array, int offset) {
+        int h = 1;
+        for (int i = offset; i < offset + arity; i++) {
+            h = 31 * h + array[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find the slot of the row that equals the arguments in the range [offset, offset+arity) of an array.
+     *
+     * @return The slot of the row if it is in the relation, otherwise the empty slot where the row should be placed
+     */
+    protected int findSlot(int[] array, int offset) {
+        final int mask = rowTable.length - 1;
+        int slot = hashArgs(array, offset) & mask;
+        while (true) {
+            int row = rowTable[slot];
+            if (EMPTY_SLOT == row || Arrays.equals(rows, row * arity, (row + 1) * arity, array, offset, offset + arity)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    protected int findSlot(int[] args) {
+        return findSlot(args, 0);
+    }
+
+    /**
+     * @return The ID of the row equal to the record, or -1 if the record is not in the relation
+     */
+    protected int findRow(Record record) {
+        return (record.args.length == arity) ? rowTable[findSlot(record.args)] : EMPTY_SLOT;
+    }
+
+    /**
+     * Clear a slot in the row table. Following rows in the same probing sequence are shifted backward so that no
+     * tombstone is left in the table.
+     */
+    protected void removeSlot(int slot) {
+        final int mask = rowTable.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (EMPTY_SLOT != rowTable[next]) {
+            int home = hashArgs(rows, rowTable[next] * arity) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                rowTable[gap] = rowTable[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        rowTable[gap] = EMPTY_SLOT;
+    }
+
+    protected void rehashRows(int newCapacity) {
+        rowTable = new int[newCapacity];
+        Arrays.fill(rowTable, EMPTY_SLOT);
+        for (int row = 0; row < totalRows; row++) {
+            rowTable[findSlot(rows, row * arity)] = row;
+        }
+    }
+
+    /**
+     * Create a record object for a row.
+     */
+    protected Record recordOf(int row) {
+        return new Record(Arrays.copyOfRange(rows, row * arity, (row + 1) * arity));
     }
 
     /**
@@ -293,13 +523,13 @@ public class KbRelation implements Iterable<Record> {
      */
     public void updatePromisingConstants() {
         promisingConstants = new int[arity][];
-        int threshold = (int) Math.ceil(records.size() * MIN_CONSTANT_COVERAGE);
+        int threshold = (int) Math.ceil(totalRows * MIN_CONSTANT_COVERAGE);
         for (int i = 0; i < arity; i++) {
-            Map<Integer, Set<Record>> argument_index = argumentIndices[i];
+            IntKeyMap<IntArrayList> argument_index = argumentIndices[i];
             List<Integer> promising_constants = new ArrayList<>();
-            for (Map.Entry<Integer, Set<Record>> entry: argument_index.entrySet()) {
-                if (threshold <= entry.getValue().size()) {
-                    promising_constants.add(Argument.decode(entry.getKey()));
+            for (int argument: argument_index.keys()) {
+                if (threshold <= argument_index.get(argument).size()) {
+                    promising_constants.add(Argument.decode(argument));
                 }
             }
             promisingConstants[i] = ArrayOperation.toArray(promising_constants);
@@ -317,7 +547,7 @@ public class KbRelation implements Iterable<Record> {
      * @throws IOException File I/O operation error
      */
     public void dump(String kbPath) throws IOException {
-        dumpHandler(getRelFilePath(kbPath, name, arity, records.size()).toFile());
+        dumpHandler(getRelFilePath(kbPath, name, arity, totalRows).toFile());
     }
 
     /**
@@ -331,22 +561,21 @@ public class KbRelation implements Iterable<Record> {
         dumpHandler(Paths.get(kbPath, fileName).toFile());
     }
 
+    /**
+     * Write the packed rows to the file in bulk.
+     */
     protected void dumpHandler(File file) throws IOException {
-        FileOutputStream fos = new FileOutputStream(file);
-        for (Record record: records) {
-            for (int i: record.args) {
-                fos.write(LittleEndianIntIO.leInt2ByteArray(i));
-            }
+        try (LittleEndianIntWriter writer = new LittleEndianIntWriter(file)) {
+            writer.write(rows, 0, totalRows * arity);
         }
-        fos.close();
     }
 
     public boolean hasRecord(Record record) {
-        return records.contains(record);
+        return EMPTY_SLOT != findRow(record);
     }
 
     public Iterator<Record> iterator() {
-        return records.iterator();
+        return recordsView.iterator();
     }
 
     public String getName() {
@@ -361,15 +590,211 @@ public class KbRelation implements Iterable<Record> {
         return arity;
     }
 
+    /**
+     * @return A read-only view of the records. Record objects are created on access.
+     */
     public Set<Record> getRecords() {
-        return records;
+        return recordsView;
     }
 
     public int totalRecords() {
-        return records.size();
+        return totalRows;
     }
 
+    /**
+     * @return Read-only views of the argument indices. Record objects are created on access.
+     */
     public Map<Integer, Set<Record>>[] getArgumentIndices() {
-        return argumentIndices;
+        return argumentIndicesViews;
+    }
+
+    /**
+     * @return Read-only record index views of the argument indices, where the argument values are not boxed. Record
+     * objects are created on access.
+     */
+    public RecordIndex[] getArgumentRecordIndices() {
+        return argumentRecordIndices;
+    }
+
+    /**
+     * The set view of all records in the relation.
+     */
+    protected class RowSetView extends AbstractSet<Record> {
+        @Override
+        public Iterator<Record> iterator() {
+            return new Iterator<>() {
+                int row = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return row < totalRows;
+                }
+
+                @Override
+                public Record next() {
+                    if (row >= totalRows) {
+                        throw new NoSuchElementException();
+                    }
+                    return recordOf(row++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return totalRows;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof Record) && hasRecord((Record) o);
+        }
+    }
+
+    /**
+     * The set view of the records that share the same argument value.
+     */
+    protected class IndexedRowSetView extends AbstractSet<Record> {
+        final int argIdx;
+        final int argument;
+        final IntArrayList rowIds;
+
+        IndexedRowSetView(int argIdx, int argument, IntArrayList rowIds) {
+            this.argIdx = argIdx;
+            this.argument = argument;
+            this.rowIds = rowIds;
+        }
+
+        @Override
+        public Iterator<Record> iterator() {
+            return new Iterator<>() {
+                int idx = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return idx < rowIds.size();
+                }
+
+                @Override
+                public Record next() {
+                    if (idx >= rowIds.size()) {
+                        throw new NoSuchElementException();
+                    }
+                    return recordOf(rowIds.get(idx++));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return rowIds.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Record)) {
+                return false;
+            }
+            Record record = (Record) o;
+            return EMPTY_SLOT != findRow(record) && argument == record.args[argIdx];
+        }
+    }
+
+    /**
+     * The map view of the index of an argument.
+     */
+    protected class ArgumentIndexView extends AbstractMap<Integer, Set<Record>> {
+        final int argIdx;
+
+        ArgumentIndexView(int argIdx) {
+            this.argIdx = argIdx;
+        }
+
+        @Override
+        public Set<Record> get(Object key) {
+            if (!(key instanceof Integer)) {
+                return null;
+            }
+            int argument = (Integer) key;
+            IntArrayList row_ids = argumentIndices[argIdx].get(argument);
+            return (null == row_ids) ? null : new IndexedRowSetView(argIdx, argument, row_ids);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof Integer) && argumentIndices[argIdx].containsKey((Integer) key);
+        }
+
+        @Override
+        public int size() {
+            return argumentIndices[argIdx].size();
+        }
+
+        @Override
+        public Set<Entry<Integer, Set<Record>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, Set<Record>>> iterator() {
+                    final IntKeyMap<IntArrayList> index = argumentIndices[argIdx];
+                    final int[] arguments = index.keys();
+                    return new Iterator<>() {
+                        int idx = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return idx < arguments.length;
+                        }
+
+                        @Override
+                        public Entry<Integer, Set<Record>> next() {
+                            if (idx >= arguments.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int argument = arguments[idx++];
+                            return new SimpleImmutableEntry<>(
+                                    argument, new IndexedRowSetView(argIdx, argument, index.get(argument))
+                            );
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return argumentIndices[argIdx].size();
+                }
+            };
+        }
+    }
+
+    /**
+     * The record index view of the index of an argument.
+     */
+    protected class ArgumentRecordIndex implements RecordIndex {
+        final int argIdx;
+
+        ArgumentRecordIndex(int argIdx) {
+            this.argIdx = argIdx;
+        }
+
+        @Override
+        public int size() {
+            return argumentIndices[argIdx].size();
+        }
+
+        @Override
+        public int[] values() {
+            return argumentIndices[argIdx].keys();
+        }
+
+        @Override
+        public Set<Record> get(int value) {
+            IntArrayList row_ids = argumentIndices[argIdx].get(value);
+            return (null == row_ids) ? null : new IndexedRowSetView(argIdx, value, row_ids);
+        }
+
+        @Override
+        public boolean containsKey(int value) {
+            return argumentIndices[argIdx].containsKey(value);
+        }
     }
 }
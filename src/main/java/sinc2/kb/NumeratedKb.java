@@ -2,12 +2,14 @@ package sinc2.kb;
 
 import sinc2.common.Argument;
 import sinc2.util.MultiSet;
+import sinc2.util.Pair;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * The in-memory KB. Name strings are converted to integer numbers to reduce memory cost and improve processing efficiency.
@@ -69,7 +71,7 @@ public class NumeratedKb {
         File kb_dir = getKbPath(name, basePath).toFile();
         String kb_dir_path = kb_dir.getAbsolutePath();
         this.numMap = new NumerationMap(kb_dir_path);
-        loadAllRelationsHandler(kb_dir, false);
+        loadAllRelationsHandler(kb_dir, false, 1);
     }
 
     /**
@@ -87,37 +89,115 @@ public class NumeratedKb {
         File kb_dir = getKbPath(name, basePath).toFile();
         String kb_dir_path = kb_dir.getAbsolutePath();
         this.numMap = new NumerationMap(kb_dir_path);
-        loadAllRelationsHandler(kb_dir, check);
+        loadAllRelationsHandler(kb_dir, check, 1);
     }
 
     /**
-     * Load all relations in the directory of the KB.
+     * Load a KB from files with multiple threads. The other constructors load the relation files in the calling thread.
+     *
+     * @param name The name of the KB
+     * @param basePath The base path to the dir of the KB
+     * @param check Whether the records are checked when loaded
+     * @param threads The number of threads loading the relation files
      *
      * @throws IOException When file I/O errors occur
      * @throws KbException When the record check fails
      */
-    protected void loadAllRelationsHandler(File kbDir, boolean check) throws IOException, KbException {
+    public NumeratedKb(String name, String basePath, boolean check, int threads) throws IOException, KbException {
+        this.name = name;
+        File kb_dir = getKbPath(name, basePath).toFile();
+        String kb_dir_path = kb_dir.getAbsolutePath();
+        this.numMap = new NumerationMap(kb_dir_path);
+        loadAllRelationsHandler(kb_dir, check, threads);
+    }
+
+    /**
+     * Load all relations in the directory of the KB. The relation files are loaded concurrently if 'threads' is larger
+     * than 1. Each loading task counts the constants in its own relation, and the partial counts are merged into
+     * 'constants' after all relations are loaded.
+     *
+     * @param threads The number of threads loading the relation files
+     * @throws IOException When file I/O errors occur
+     * @throws KbException When the record check fails
+     */
+    protected void loadAllRelationsHandler(File kbDir, boolean check, int threads) throws IOException, KbException {
         String kb_dir_path = kbDir.getAbsolutePath();
         File[] files = kbDir.listFiles();
-        if (null != files) {
-            for (File f: files) {
-                KbRelation.RelationInfo rel_info = KbRelation.parseRelFilePath(f.getName());
-                if (null != rel_info) {
+        if (null == files) {
+            return;
+        }
+
+        /* Relation names are numerated in the calling thread, as the numeration map is not thread-safe */
+        List<Callable<Pair<KbRelation, MultiSet<Integer>>>> tasks = new ArrayList<>();
+        final NumerationMap check_map = check ? numMap : null;
+        for (File f: files) {
+            KbRelation.RelationInfo rel_info = KbRelation.parseRelFilePath(f.getName());
+            if (null != rel_info) {
+                final int rel_num = numMap.mapName(rel_info.name);
+                tasks.add(() -> {
                     KbRelation relation = new KbRelation(
-                            rel_info.name, numMap.mapName(rel_info.name), rel_info.arity, rel_info.totalRecords,
-                            kb_dir_path, check ? numMap : null
+                            rel_info.name, rel_num, rel_info.arity, rel_info.totalRecords, kb_dir_path, check_map
                     );
-                    relationMap.put(relation.getNumeration(), relation);
-
-                    /* Load Constants */
-                    for (Record record: relation) {
-                        for (int argument: record.args) {
-                            constants.add(Argument.decode(argument));
-                        }
-                    }
+                    return new Pair<>(relation, countConstants(relation));
+                });
+            }
+        }
+
+        List<Pair<KbRelation, MultiSet<Integer>>> loaded_relations = new ArrayList<>();
+        if (1 >= threads || 1 >= tasks.size()) {
+            for (Callable<Pair<KbRelation, MultiSet<Integer>>> task: tasks) {
+                try {
+                    loaded_relations.add(task.call());
+                } catch (IOException | KbException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new KbException(e);
+                }
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+            try {
+                for (Future<Pair<KbRelation, MultiSet<Integer>>> future: executor.invokeAll(tasks)) {
+                    loaded_relations.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KbException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof KbException) {
+                    throw (KbException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
                 }
+                throw new KbException(cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        /* Merge the relations and the constant counts */
+        for (Pair<KbRelation, MultiSet<Integer>> loaded_relation: loaded_relations) {
+            relationMap.put(loaded_relation.first.getNumeration(), loaded_relation.first);
+            constants.addAll(loaded_relation.second);
+        }
+    }
+
+    /**
+     * Count the constants in a relation via the argument indices, without iterating over the records.
+     */
+    protected static MultiSet<Integer> countConstants(KbRelation relation) {
+        MultiSet<Integer> relation_constants = new MultiSet<>();
+        for (Map<Integer, Set<Record>> argument_index: relation.getArgumentIndices()) {
+            for (Map.Entry<Integer, Set<Record>> entry: argument_index.entrySet()) {
+                relation_constants.add(Argument.decode(entry.getKey()), entry.getValue().size());
             }
         }
+        return relation_constants;
     }
 
     /**
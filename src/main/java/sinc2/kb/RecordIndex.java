@@ -0,0 +1,32 @@
+package sinc2.kb;
+
+import java.util.Set;
+
+/**
+ * The index of a set of records by the values of an argument, i.e., argument value -> records containing the value. The
+ * values are primitive integers, so no boxed key is created in lookups.
+ *
+ * The index is read-only.
+ *
+ * @since 2.0
+ */
+public interface RecordIndex {
+    /**
+     * @return The number of distinct values
+     */
+    int size();
+
+    /**
+     * @return An array of the distinct values. The array should not be modified.
+     */
+    int[] values();
+
+    /**
+     * @return The records containing the value. NULL if no record contains the value.
+     */
+    Set<Record> get(int value);
+
+    default boolean containsKey(int value) {
+        return null != get(value);
+    }
+}
@@ -0,0 +1,165 @@
+package sinc2.kb;
+
+import java.util.*;
+
+/**
+ * A record index stored in sorted arrays. The distinct values are sorted in "values", and the records are grouped by the
+ * values in "records", where the records of values[i] are in the range [offsets[i], offsets[i+1]). Thus, an index costs
+ * only a few arrays regardless of the number of distinct values, and the records of a value are contiguous in memory.
+ *
+ * The record sets returned by "get" are read-only views of the groups.
+ *
+ * @since 2.0
+ */
+public class SortedRecordIndex implements RecordIndex {
+    /** The argument index of the values */
+    protected final int argIdx;
+    /** The sorted distinct values */
+    protected final int[] values;
+    /** The start offsets of the groups in "records", plus the total number of records at the end */
+    protected final int[] offsets;
+    /** The records grouped by the values */
+    protected final Record[] records;
+
+    /**
+     * Build the indices of all arguments of a set of records.
+     *
+     * @param records The records
+     * @param arity The arity of the records
+     */
+    public static SortedRecordIndex[] buildAll(Collection<Record> records, int arity) {
+        final Record[] record_array = records.toArray(new Record[0]);
+        final long[] keys = new long[record_array.length];
+        final SortedRecordIndex[] indices = new SortedRecordIndex[arity];
+        for (int arg_idx = 0; arg_idx < arity; arg_idx++) {
+            indices[arg_idx] = build(record_array, arg_idx, keys);
+        }
+        return indices;
+    }
+
+    /**
+     * Build the index of an argument of a set of records.
+     *
+     * @param records The records
+     * @param argIdx The index of the argument
+     */
+    public static SortedRecordIndex build(Collection<Record> records, int argIdx) {
+        final Record[] record_array = records.toArray(new Record[0]);
+        return build(record_array, argIdx, new long[record_array.length]);
+    }
+
+    /**
+     * Build the index by sorting the pairs of (value, position) encoded in long integers.
+     *
+     * @param recordArray The records
+     * @param argIdx The index of the argument
+     * @param keys A buffer of the same length as "recordArray"
+     */
+    protected static SortedRecordIndex build(Record[] recordArray, int argIdx, long[] keys) {
+        for (int i = 0; i < recordArray.length; i++) {
+            keys[i] = ((long) recordArray[i].args[argIdx] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int distinct_values = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (0 == i || (int) (keys[i] >> 32) != (int) (keys[i - 1] >> 32)) {
+                distinct_values++;
+            }
+        }
+        final int[] values = new int[distinct_values];
+        final int[] offsets = new int[distinct_values + 1];
+        final Record[] records = new Record[keys.length];
+        int group = -1;
+        for (int i = 0; i < keys.length; i++) {
+            final int value = (int) (keys[i] >> 32);
+            if (0 == i || value != values[group]) {
+                group++;
+                values[group] = value;
+                offsets[group] = i;
+            }
+            records[i] = recordArray[(int) keys[i]];
+        }
+        offsets[distinct_values] = keys.length;
+        return new SortedRecordIndex(argIdx, values, offsets, records);
+    }
+
+    protected SortedRecordIndex(int argIdx, int[] values, int[] offsets, Record[] records) {
+        this.argIdx = argIdx;
+        this.values = values;
+        this.offsets = offsets;
+        this.records = records;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public int[] values() {
+        return values;
+    }
+
+    @Override
+    public Set<Record> get(int value) {
+        final int group = Arrays.binarySearch(values, value);
+        return (0 > group) ? null : new GroupView(offsets[group], offsets[group + 1]);
+    }
+
+    @Override
+    public boolean containsKey(int value) {
+        return 0 <= Arrays.binarySearch(values, value);
+    }
+
+    /**
+     * The set view of a group of records.
+     */
+    protected class GroupView extends AbstractSet<Record> {
+        final int start;
+        final int end;
+
+        GroupView(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Iterator<Record> iterator() {
+            return new Iterator<>() {
+                int idx = start;
+
+                @Override
+                public boolean hasNext() {
+                    return idx < end;
+                }
+
+                @Override
+                public Record next() {
+                    if (idx >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return records[idx++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Record) || ((Record) o).args[argIdx] != records[start].args[argIdx]) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (records[i].equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
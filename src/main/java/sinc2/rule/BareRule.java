@@ -2,12 +2,11 @@ package sinc2.rule;
 
 import sinc2.common.Predicate;
 import sinc2.kb.Record;
-import sinc2.util.MultiSet;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * A rule implementation with barely nothing but the structure and fingerprint operations. This class is used for loading
@@ -35,13 +34,13 @@ public class BareRule extends Rule {
     public EvidenceBatch returningEvidence = null;
     public Set<Record> returningCounterexamples = new HashSet<>();
 
-    public BareRule(int headFunctor, int arity, Set<Fingerprint> fingerprintCache, Map<MultiSet<Integer>, Set<Fingerprint>> category2TabuSetMap) {
-        super(headFunctor, arity, fingerprintCache, category2TabuSetMap);
+    public BareRule(int headFunctor, int arity, Set<Fingerprint> fingerprintCache, TabuSet tabuSet) {
+        super(headFunctor, arity, fingerprintCache, tabuSet);
         returningEvidence = new EvidenceBatch(new int[]{headFunctor});
     }
 
-    public BareRule(List<Predicate> structure, Set<Fingerprint> fingerprintCache, Map<MultiSet<Integer>, Set<Fingerprint>> category2TabuSetMap) {
-        super(structure, fingerprintCache, category2TabuSetMap);
+    public BareRule(List<Predicate> structure, Set<Fingerprint> fingerprintCache, TabuSet tabuSet) {
+        super(structure, fingerprintCache, tabuSet);
         final int[] relations_in_rule = new int[structure.size()];
         for (int i = 0; i < relations_in_rule.length; i++) {
             relations_in_rule[i] = structure.get(i).functor;
@@ -138,6 +137,11 @@ public class BareRule extends Rule {
         return returningEvidence;
     }
 
+    @Override
+    public void forEachCounterexample(Consumer<Record> consumer) {
+        returningCounterexamples.forEach(consumer);
+    }
+
     @Override
     public Set<Record> getCounterexamples() {
         return returningCounterexamples;
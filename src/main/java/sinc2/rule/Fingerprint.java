@@ -22,12 +22,20 @@ import java.util.*;
  */
 public class Fingerprint {
 
+    protected static final long CODE_SEED1 = 0x9E3779B97F4A7C15L;
+    protected static final long CODE_SEED2 = 0x632BE59BD9B4E019L;
+    protected static final long LABEL_CODE_BASE = 31;
+
     /**
      * The equivalence class of argument indicators with head labels
      */
     static class LabeledEquivalenceClass {
         MultiSet<ArgIndicator> equivalenceClass = new MultiSet<>();
         List<Integer> headLabels = null;
+        /* The order-independent sums of the codes of the indicators and the ordered code of the labels (two lanes) */
+        long indicatorCode1 = 0;
+        long indicatorCode2 = 0;
+        long labelCode = 0;
 
         public LabeledEquivalenceClass() {}
 
@@ -39,6 +47,7 @@ public class Fingerprint {
                 headLabels = new ArrayList<>();
             }
             headLabels.add(headIdx);
+            labelCode = labelCode * LABEL_CODE_BASE + headIdx + 1;
         }
 
         /**
@@ -46,6 +55,17 @@ public class Fingerprint {
          */
         public void addArgIndicator(ArgIndicator indicator) {
             equivalenceClass.add(indicator);
+            final long indicator_code = ((long) indicator.functor << 32) | (indicator.idx & 0xFFFFFFFFL);
+            indicatorCode1 += mix(indicator_code + CODE_SEED1);
+            indicatorCode2 += mix(indicator_code + CODE_SEED2);
+        }
+
+        long code1() {
+            return mix(indicatorCode1 ^ mix(labelCode + CODE_SEED1));
+        }
+
+        long code2() {
+            return mix(indicatorCode2 ^ mix(labelCode + CODE_SEED2));
         }
 
         @Override
@@ -53,12 +73,14 @@ public class Fingerprint {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             LabeledEquivalenceClass that = (LabeledEquivalenceClass) o;
-            return Objects.equals(equivalenceClass, that.equivalenceClass) && Objects.equals(headLabels, that.headLabels);
+            return indicatorCode1 == that.indicatorCode1 && indicatorCode2 == that.indicatorCode2 &&
+                    labelCode == that.labelCode && Objects.equals(equivalenceClass, that.equivalenceClass) &&
+                    Objects.equals(headLabels, that.headLabels);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(equivalenceClass, headLabels);
+            return Long.hashCode(indicatorCode1 ^ labelCode);
         }
     }
 
@@ -71,6 +93,14 @@ public class Fingerprint {
     /** The rule that generates the fingerprint */
     protected final List<Predicate> rule;
 
+    /**
+     * The canonical 128-bit code of the fingerprint, which is the same for equal fingerprints regardless of the order of
+     * the predicates and arguments. Fingerprints are compared by the code first, and the structures are compared only if
+     * the codes are the same.
+     */
+    protected final long code1;
+    protected final long code2;
+
     /**
      * Construct the fingerprint with the structure of the rule.
      *
@@ -142,6 +172,29 @@ public class Fingerprint {
 
         /* Add the equivalent classes for the LVs to the fingerprint */
         labeledEquivalenceClasses.addAll(lv_equiv_classes);
+
+        /* Calculate the code */
+        long code1 = mix(headFunctor + CODE_SEED1);
+        long code2 = mix(headFunctor + CODE_SEED2);
+        for (LabeledEquivalenceClass lec: labeledEquivalenceClasses.distinctValues()) {
+            final int cnt = labeledEquivalenceClasses.itemCount(lec);
+            code1 += cnt * lec.code1();
+            code2 += cnt * lec.code2();
+        }
+        this.code1 = code1;
+        this.code2 = code2;
+    }
+
+    /**
+     * Mix the bits of a value with the MurmurHash3 finalizer.
+     */
+    protected static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
     }
 
     public int getHeadFunctor() {
@@ -181,11 +234,12 @@ public class Fingerprint {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Fingerprint that = (Fingerprint) o;
-        return headFunctor == that.headFunctor && Objects.equals(labeledEquivalenceClasses, that.labeledEquivalenceClasses);
+        return code1 == that.code1 && code2 == that.code2 && headFunctor == that.headFunctor &&
+                Objects.equals(labeledEquivalenceClasses, that.labeledEquivalenceClasses);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(headFunctor, labeledEquivalenceClasses);
+        return Long.hashCode(code1);
     }
 }
@@ -4,12 +4,13 @@ import sinc2.common.Argument;
 import sinc2.common.ParsedArg;
 import sinc2.common.ParsedPred;
 import sinc2.common.Predicate;
+import sinc2.common.RuleMonitor;
 import sinc2.kb.NumerationMap;
 import sinc2.kb.Record;
 import sinc2.util.DisjointSet;
-import sinc2.util.MultiSet;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * The class of the basic rule structure. The class defines the basic structure of a rule and the basic operations that
@@ -28,10 +29,10 @@ public abstract class Rule {
     public static double MIN_FACT_COVERAGE = 0.0;
 
     /** The cache of all used fingerprints */
-    protected final Set<Fingerprint> fingerprintCache;
+    protected Set<Fingerprint> fingerprintCache;
 
     /** The fingerprint tabu set of all rules that are pruned due to insufficient coverage */
-    protected final Map<MultiSet<Integer>, Set<Fingerprint>> category2TabuSetMap;
+    protected final TabuSet tabuSet;
 
     /** The structure of the rule */
     protected final List<Predicate> structure;
@@ -48,6 +49,21 @@ public abstract class Rule {
     /** The evaluation of the rule */
     protected Eval eval;
 
+    /** The monitor of the rule operations, shared by the copies of the rule. NULL if the rule is not monitored */
+    protected final RuleMonitor monitor;
+
+    /**
+     * The relative error tolerance of the approximate evaluation, shared by the copies of the rule. If positive, the
+     * evaluation of an updated rule is estimated first and only calculated exactly when "getEval" is invoked.
+     */
+    protected final double approxEvalTolerance;
+
+    /**
+     * The evaluation of the rule before the update, which is kept until the exact evaluation is calculated. NULL if
+     * "eval" is not approximated.
+     */
+    protected Eval evalBeforeApprox = null;
+
     /**
      * Parse a plain-text string into a rule structure. The allowed input can be defined by the following context-free
      * grammar (which is similar to Prolog):
@@ -325,14 +341,33 @@ public abstract class Rule {
      * @param headFunctor The functor of the head predicate, i.e., the target relation.
      * @param arity The arity of the functor
      * @param fingerprintCache The cache of the used fingerprints
-     * @param category2TabuSetMap The tabu set of pruned fingerprints
+     * @param tabuSet The tabu set of pruned fingerprints
+     */
+    public Rule(
+            int headFunctor, int arity, Set<Fingerprint> fingerprintCache,
+            TabuSet tabuSet
+    ) {
+        this(headFunctor, arity, fingerprintCache, tabuSet, null, 0);
+    }
+
+    /**
+     * Initialize the most general rule of a certain target head relation.
+     *
+     * @param headFunctor The functor of the head predicate, i.e., the target relation.
+     * @param arity The arity of the functor
+     * @param fingerprintCache The cache of the used fingerprints
+     * @param tabuSet The tabu set of pruned fingerprints
+     * @param monitor The monitor of the rule operations. NULL if the rule is not monitored
+     * @param approxEvalTolerance The relative error tolerance of the approximate evaluation (0 for exact evaluation)
      */
     public Rule(
             int headFunctor, int arity, Set<Fingerprint> fingerprintCache,
-            Map<MultiSet<Integer>, Set<Fingerprint>> category2TabuSetMap
+            TabuSet tabuSet, RuleMonitor monitor, double approxEvalTolerance
     ) {
         this.fingerprintCache = fingerprintCache;
-        this.category2TabuSetMap = category2TabuSetMap;
+        this.tabuSet = tabuSet;
+        this.monitor = monitor;
+        this.approxEvalTolerance = approxEvalTolerance;
         structure = new ArrayList<>();
         limitedVarCnts = new ArrayList<>();
         length = 0;
@@ -351,10 +386,27 @@ public abstract class Rule {
      */
     public Rule(
             List<Predicate> structure, Set<Fingerprint> fingerprintCache,
-            Map<MultiSet<Integer>, Set<Fingerprint>> category2TabuSetMap
+            TabuSet tabuSet
+    ) {
+        this(structure, fingerprintCache, tabuSet, null, 0);
+    }
+
+    /**
+     * Construct a rule with a certain structure.
+     *
+     * @param structure The structure of the rule.
+     * @param fingerprintCache The cache of the fingerprint
+     * @param monitor The monitor of the rule operations. NULL if the rule is not monitored
+     * @param approxEvalTolerance The relative error tolerance of the approximate evaluation (0 for exact evaluation)
+     */
+    public Rule(
+            List<Predicate> structure, Set<Fingerprint> fingerprintCache,
+            TabuSet tabuSet, RuleMonitor monitor, double approxEvalTolerance
     ) {
         this.fingerprintCache = fingerprintCache;
-        this.category2TabuSetMap = category2TabuSetMap;
+        this.tabuSet = tabuSet;
+        this.monitor = monitor;
+        this.approxEvalTolerance = approxEvalTolerance;
         this.structure = new ArrayList<>(structure.size());
         limitedVarCnts = new ArrayList<>();
         eval = null;
@@ -398,7 +450,9 @@ public abstract class Rule {
      */
     public Rule(Rule another) {
         this.fingerprintCache = another.fingerprintCache;
-        this.category2TabuSetMap = another.category2TabuSetMap;
+        this.tabuSet = another.tabuSet;
+        this.monitor = another.monitor;
+        this.approxEvalTolerance = another.approxEvalTolerance;
         this.structure = new ArrayList<>(another.structure.size());
         for (Predicate predicate: another.structure) {
             this.structure.add(new Predicate(predicate));
@@ -406,6 +460,7 @@ public abstract class Rule {
         this.limitedVarCnts = new ArrayList<>(another.limitedVarCnts);
         this.length = another.length;
         this.eval = another.eval;
+        this.evalBeforeApprox = another.evalBeforeApprox;
         this.fingerprint = another.fingerprint;
     }
 
@@ -515,57 +570,59 @@ public abstract class Rule {
      * Check if the rule structure should be pruned by the tabu set.
      */
     protected boolean tabuHit() {
-        for (int subset_size = 0; subset_size < structure.size(); subset_size++) {
-            for (MultiSet<Integer> category_subset : categorySubsets(subset_size)) {
-                final Set<Fingerprint> tabu_set = category2TabuSetMap.get(category_subset);
-                if (null == tabu_set) continue;
-                for (Fingerprint rfp : tabu_set) {
-                    if (rfp.generalizationOf(this.fingerprint)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return tabuSet.hasGeneralizationOf(fingerprint);
     }
 
     /**
-     * Enumerate the subcategories of the rule of a certain size.
+     * Calculate the evaluation of the rule.
+     */
+    protected abstract Eval calculateEval();
+
+    /**
+     * Estimate an optimistic evaluation of the rule, i.e., the actual evaluation is not better than the estimation with
+     * high probability. The estimation may still be pessimistic for a small fraction of the rules, which are then
+     * falsely screened out. The exact evaluation is returned by default.
      *
-     * @param subsetSize The size of the subcategories
-     * @return A set of subcategories
+     * @param tolerance The relative error tolerance
      */
-    protected Set<MultiSet<Integer>> categorySubsets(int subsetSize) {
-        final Set<MultiSet<Integer>> subsets = new HashSet<>();
-        if (0 == subsetSize) {
-            subsets.add(new MultiSet<>());
-        } else {
-            templateSubsetsHandler(subsets, new Integer[subsetSize], subsetSize - 1, FIRST_BODY_PRED_IDX);
-        }
-        return subsets;
+    protected Eval estimateEval(double tolerance) {
+        return calculateEval();
     }
 
     /**
-     * Handler for enumerating the subcategories.
+     * Update the evaluation of the rule and record the time cost in the monitor. The evaluation is estimated if the
+     * approximate evaluation is turned on.
      */
-    protected void templateSubsetsHandler(Set<MultiSet<Integer>> subsets, Integer[] template, int depth, int startIdx) {
-        if (0 < depth) {
-            for (int pred_idx = startIdx; pred_idx < structure.size(); pred_idx++) {
-                template[depth] = structure.get(pred_idx).functor;
-                templateSubsetsHandler(subsets, template, depth-1, pred_idx+1);
+    protected void updateEval() {
+        if (0 < approxEvalTolerance) {
+            final long time_start = System.nanoTime();
+            if (null == evalBeforeApprox) {
+                /* Keep the last exact evaluation if the evaluation before the update is also approximated */
+                this.evalBeforeApprox = this.eval;
             }
-        } else {
-            for (int pred_idx = startIdx; pred_idx < structure.size(); pred_idx++) {
-                template[depth] = structure.get(pred_idx).functor;
-                subsets.add(new MultiSet<>(template));
+            this.eval = estimateEval(approxEvalTolerance);
+            if (null != monitor) {
+                monitor.recordEstimation(System.nanoTime() - time_start);
             }
+        } else {
+            refineEval();
         }
     }
 
     /**
-     * Calculate the evaluation of the rule.
+     * Replace the approximated evaluation with the exact one and record the time cost in the monitor.
      */
-    protected abstract Eval calculateEval();
+    protected void refineEval() {
+        final long time_start = System.nanoTime();
+        if (null != evalBeforeApprox) {
+            this.eval = evalBeforeApprox;
+            this.evalBeforeApprox = null;
+        }
+        this.eval = calculateEval();
+        if (null != monitor) {
+            monitor.recordEvaluation(System.nanoTime() - time_start);
+        }
+    }
 
     /**
      * Check if the coverage of the rule is below the threshold. If so, add the fingerprint to the tabu set.
@@ -587,14 +644,7 @@ public abstract class Rule {
      * Add this rule to the tabu set
      */
     protected void add2TabuSet() {
-        final MultiSet<Integer> functor_mset = new MultiSet<>();
-        for (int pred_idx = Rule.FIRST_BODY_PRED_IDX; pred_idx < structure.size(); pred_idx++) {
-            functor_mset.add(structure.get(pred_idx).functor);
-        }
-        final Set<Fingerprint> tabu_set = category2TabuSetMap.computeIfAbsent(
-                functor_mset, k -> new HashSet<>()
-        );
-        tabu_set.add(fingerprint);
+        tabuSet.add(fingerprint);
     }
 
     /**
@@ -628,7 +678,7 @@ public abstract class Rule {
             }
             status = cvt1Uv2ExtLvHandlerPostCvg(predIdx, argIdx, varId);
             if (UpdateStatus.NORMAL == status) {
-                this.eval = calculateEval();
+                updateEval();
             }
         }
         return status;
@@ -689,7 +739,7 @@ public abstract class Rule {
             }
             status = cvt1Uv2ExtLvHandlerPostCvg(structure.get(structure.size()-1), argIdx, varId);
             if (UpdateStatus.NORMAL == status) {
-                this.eval = calculateEval();
+                updateEval();
             }
         }
         return status;
@@ -761,7 +811,7 @@ public abstract class Rule {
             }
             status = cvt2Uvs2NewLvHandlerPostCvg(predIdx1, argIdx1, predIdx2, argIdx2);
             if (UpdateStatus.NORMAL == status) {
-                this.eval = calculateEval();
+                updateEval();
             }
         }
         return status;
@@ -833,7 +883,7 @@ public abstract class Rule {
             }
             status = cvt2Uvs2NewLvHandlerPostCvg(structure.get(structure.size()-1), argIdx1, predIdx2, argIdx2);
             if (UpdateStatus.NORMAL == status) {
-                this.eval = calculateEval();
+                updateEval();
             }
         }
         return status;
@@ -907,7 +957,7 @@ public abstract class Rule {
             }
             status = cvt1Uv2ConstHandlerPostCvg(predIdx, argIdx, constant);
             if (UpdateStatus.NORMAL == status) {
-                this.eval = calculateEval();
+                updateEval();
             }
         }
         return status;
@@ -965,7 +1015,7 @@ public abstract class Rule {
             }
             status = rmAssignedArgHandlerPostCvg(predIdx, argIdx);
             if (UpdateStatus.NORMAL == status) {
-                this.eval = calculateEval();
+                updateEval();
             }
         }
         return status;
@@ -1062,12 +1112,27 @@ public abstract class Rule {
      */
     public abstract EvidenceBatch getEvidenceAndMarkEntailment();
 
+    /**
+     * Enumerate the counterexamples generated by the rule and pass them to the consumer one by one. Each counterexample
+     * is passed only once.
+     *
+     * Note: The record passed to the consumer may be reused by the rule, thus it should be copied if it is kept by the
+     * consumer.
+     *
+     * @param consumer The consumer of the counterexamples
+     */
+    public abstract void forEachCounterexample(Consumer<Record> consumer);
+
     /**
      * Calculate the counterexamples generated by the rule.
      *
      * @return The set of counterexamples.
      */
-    public abstract Set<Record> getCounterexamples();
+    public Set<Record> getCounterexamples() {
+        final Set<Record> counterexamples = new HashSet<>();
+        forEachCounterexample(record -> counterexamples.add(new Record(record.args.clone())));
+        return counterexamples;
+    }
 
     public Predicate getPredicate(int idx) {
         return structure.get(idx);
@@ -1089,14 +1154,53 @@ public abstract class Rule {
         return structure.size();
     }
 
+    /**
+     * Get the exact evaluation of the rule. The evaluation is calculated here if it was approximated.
+     */
     public Eval getEval() {
+        if (null != evalBeforeApprox) {
+            refineEval();
+        }
+        return eval;
+    }
+
+    /**
+     * An optimistic evaluation of any specialization of the rule. A specialization increases the length of the rule by
+     * one and never entails more positive records. Thus, the best case is that all positive entailments are kept and no
+     * negative entailment remains. The scores of this evaluation are upper bounds in all metrics.
+     */
+    public Eval specializationUpperBound() {
+        final Eval eval = getEval();
+        return new Eval(eval, eval.getPosEtls(), eval.getPosEtls(), length + 1);
+    }
+
+    /**
+     * Get the evaluation of the rule without calculating the exact one, i.e., it may be an optimistic estimation.
+     */
+    public Eval getApproxEval() {
         return eval;
     }
 
+    public boolean evalIsApproximated() {
+        return null != evalBeforeApprox;
+    }
+
     public Fingerprint getFingerprint() {
         return fingerprint;
     }
 
+    public Set<Fingerprint> getFingerprintCache() {
+        return fingerprintCache;
+    }
+
+    /**
+     * Replace the cache of the used fingerprints, e.g., with the cache of a parallel task. The copies of the rule
+     * created afterwards also use the new cache.
+     */
+    public void setFingerprintCache(Set<Fingerprint> fingerprintCache) {
+        this.fingerprintCache = fingerprintCache;
+    }
+
     public String toString(NumerationMap map) {
         StringBuilder builder = new StringBuilder("(");
         builder.append(eval).append(')');
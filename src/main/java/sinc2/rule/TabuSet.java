@@ -0,0 +1,189 @@
+package sinc2.rule;
+
+import sinc2.common.ArgIndicator;
+import sinc2.common.Predicate;
+import sinc2.util.MultiSet;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The tabu set of the fingerprints of pruned rules. The set tells whether any fingerprint in it is a generalization of
+ * a certain rule, in which case the rule should be pruned as well.
+ *
+ * A fingerprint 'F' is a generalization of another 'G' only if:
+ *   1. The body functors of 'F' is a sub-multiset of those of 'G' (i.e., the category of 'F' is a subcategory of 'G');
+ *   2. Every equivalence class of 'F' is a subset of some equivalence class in 'G'.
+ * Thus, if two argument indicators co-occur in an equivalence class of 'F', they must co-occur in an equivalence class
+ * of 'G'. Each fingerprint is indexed by one such pair, i.e., the anchor, and a query only checks the fingerprints
+ * anchored at the pairs in the query. The fingerprints without any pair, i.e., all equivalence classes are singletons,
+ * are anchored at "NO_ANCHOR" and checked by every query.
+ *
+ * The set is thread-safe as candidate rules may be evaluated in parallel.
+ *
+ * @since 2.0
+ */
+public class TabuSet {
+    /** The anchor of the fingerprints that contain no pair of co-occurring indicators */
+    protected static final long NO_ANCHOR = Long.MIN_VALUE;
+
+    /**
+     * A fingerprint in the tabu set, with the category of the rule.
+     */
+    protected static class Entry {
+        final Fingerprint fingerprint;
+        final MultiSet<Integer> category;
+
+        Entry(Fingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+            this.category = categoryOf(fingerprint.rule);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Entry entry = (Entry) o;
+            return Objects.equals(fingerprint, entry.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return fingerprint.hashCode();
+        }
+    }
+
+    /** The entries grouped by the anchors */
+    protected final Map<Long, Set<Entry>> anchor2Entries = new ConcurrentHashMap<>();
+    /** The number of fingerprints in the set */
+    protected final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * The multi-set of the body functors of a rule.
+     */
+    protected static MultiSet<Integer> categoryOf(List<Predicate> rule) {
+        final MultiSet<Integer> category = new MultiSet<>();
+        for (int pred_idx = Rule.FIRST_BODY_PRED_IDX; pred_idx < rule.size(); pred_idx++) {
+            category.add(rule.get(pred_idx).functor);
+        }
+        return category;
+    }
+
+    /**
+     * The key of a pair of argument indicators. Different pairs may share the same key, which only makes the queries
+     * check more fingerprints.
+     */
+    protected static long pairKey(ArgIndicator indicator1, ArgIndicator indicator2) {
+        final int hash1 = indicator1.hashCode();
+        final int hash2 = indicator2.hashCode();
+        return ((long) Math.min(hash1, hash2) << 32) | (Math.max(hash1, hash2) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Determine the anchor of a fingerprint, i.e., the maximum key of the co-occurring pairs, so that equivalent
+     * fingerprints share the same anchor.
+     */
+    protected static long anchorOf(Fingerprint fingerprint) {
+        long anchor = NO_ANCHOR;
+        for (Fingerprint.LabeledEquivalenceClass lec: fingerprint.labeledEquivalenceClasses.distinctValues()) {
+            final MultiSet<ArgIndicator> eqv_class = lec.equivalenceClass;
+            for (ArgIndicator indicator1: eqv_class.distinctValues()) {
+                if (1 < eqv_class.itemCount(indicator1)) {
+                    anchor = Math.max(anchor, pairKey(indicator1, indicator1));
+                }
+                for (ArgIndicator indicator2: eqv_class.distinctValues()) {
+                    if (indicator1.hashCode() < indicator2.hashCode()) {
+                        anchor = Math.max(anchor, pairKey(indicator1, indicator2));
+                    }
+                }
+            }
+        }
+        return anchor;
+    }
+
+    /**
+     * Add a fingerprint to the tabu set.
+     *
+     * @return True if the fingerprint is not in the set before
+     */
+    public boolean add(Fingerprint fingerprint) {
+        final Set<Entry> entries = anchor2Entries.computeIfAbsent(
+                anchorOf(fingerprint), k -> ConcurrentHashMap.newKeySet()
+        );
+        if (entries.add(new Entry(fingerprint))) {
+            size.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean contains(Fingerprint fingerprint) {
+        final Set<Entry> entries = anchor2Entries.get(anchorOf(fingerprint));
+        return null != entries && entries.contains(new Entry(fingerprint));
+    }
+
+    /**
+     * Check whether any fingerprint in the set is a generalization of a rule.
+     *
+     * @param fingerprint The fingerprint of the rule
+     */
+    public boolean hasGeneralizationOf(Fingerprint fingerprint) {
+        if (anchor2Entries.isEmpty()) {
+            return false;
+        }
+        final MultiSet<Integer> category = categoryOf(fingerprint.rule);
+        if (hitEntries(anchor2Entries.get(NO_ANCHOR), fingerprint, category)) {
+            return true;
+        }
+        for (Fingerprint.LabeledEquivalenceClass lec: fingerprint.labeledEquivalenceClasses.distinctValues()) {
+            final MultiSet<ArgIndicator> eqv_class = lec.equivalenceClass;
+            for (ArgIndicator indicator1: eqv_class.distinctValues()) {
+                if (1 < eqv_class.itemCount(indicator1) && hitEntries(
+                        anchor2Entries.get(pairKey(indicator1, indicator1)), fingerprint, category
+                )) {
+                    return true;
+                }
+                for (ArgIndicator indicator2: eqv_class.distinctValues()) {
+                    if (indicator1.hashCode() < indicator2.hashCode() && hitEntries(
+                            anchor2Entries.get(pairKey(indicator1, indicator2)), fingerprint, category
+                    )) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    protected boolean hitEntries(Set<Entry> entries, Fingerprint fingerprint, MultiSet<Integer> category) {
+        if (null == entries) {
+            return false;
+        }
+        for (Entry entry: entries) {
+            if (entry.category.subsetOf(category) && entry.fingerprint.generalizationOf(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of fingerprints in the set
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return 0 == size.get();
+    }
+
+    public void clear() {
+        anchor2Entries.clear();
+        size.set(0);
+    }
+}
@@ -0,0 +1,102 @@
+package sinc2.util;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive integers. This is used in place of "List<Integer>" where boxing costs too much memory.
+ *
+ * @since 2.0
+ */
+public class IntArrayList {
+    protected static final int DEFAULT_CAPACITY = 4;
+
+    /** The elements. Only the first 'size' elements are valid */
+    protected int[] elements;
+    /** The number of elements in the list */
+    protected int size = 0;
+
+    public IntArrayList() {
+        elements = new int[DEFAULT_CAPACITY];
+    }
+
+    public IntArrayList(int initialCapacity) {
+        elements = new int[Math.max(1, initialCapacity)];
+    }
+
+    public void add(int element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length << 1);
+        }
+        elements[size] = element;
+        size++;
+    }
+
+    public int get(int idx) {
+        if (idx >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", idx, size));
+        }
+        return elements[idx];
+    }
+
+    /**
+     * Remove the first occurrence of an element. The order of the remaining elements is not preserved, as the last
+     * element is moved to the removed position.
+     *
+     * @return Whether the element was in the list
+     */
+    public boolean removeValue(int element) {
+        for (int i = 0; i < size; i++) {
+            if (element == elements[i]) {
+                size--;
+                elements[i] = elements[size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replace the first occurrence of an element with another value.
+     *
+     * @return Whether the element was in the list
+     */
+    public boolean replaceValue(int element, int newValue) {
+        for (int i = 0; i < size; i++) {
+            if (element == elements[i]) {
+                elements[i] = newValue;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove the last element.
+     *
+     * @return The removed element
+     */
+    public int removeLast() {
+        if (0 == size) {
+            throw new IndexOutOfBoundsException("Remove from an empty list");
+        }
+        size--;
+        return elements[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,191 @@
+package sinc2.util;
+
+import java.util.function.IntFunction;
+
+/**
+ * A hash map from primitive integers to non-null objects. The map uses open addressing with linear probing, so no
+ * entry object or boxed key is created for each mapping.
+ *
+ * @param <V> The type of the values
+ *
+ * @since 2.0
+ */
+public class IntKeyMap<V> {
+    protected static final int DEFAULT_CAPACITY = 16;
+    protected static final double LOAD_FACTOR = 0.6;
+
+    /** The keys in the slots */
+    protected int[] keys;
+    /** The values in the slots. A slot is empty if the value is NULL */
+    protected Object[] values;
+    /** The number of mappings */
+    protected int size = 0;
+    /** The number of mappings that triggers rehashing */
+    protected int threshold;
+
+    public IntKeyMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntKeyMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Spread the bits of an integer so that sequential keys do not cluster in the table.
+     */
+    protected static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find the slot of a key.
+     *
+     * @return The slot of the key if it is in the map, otherwise the empty slot where the key should be placed
+     */
+    protected int slotOf(int key) {
+        final int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (null != values[slot] && key != keys[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) values[slotOf(key)];
+    }
+
+    public boolean containsKey(int key) {
+        return null != values[slotOf(key)];
+    }
+
+    /**
+     * Map the key to a non-null value.
+     *
+     * @return The previous value, or NULL if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (null == value) {
+            throw new NullPointerException("Null values are not allowed");
+        }
+        int slot = slotOf(key);
+        V old_value = (V) values[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        if (null == old_value && ++size > threshold) {
+            rehash(keys.length << 1);
+        }
+        return old_value;
+    }
+
+    /**
+     * Return the value of the key. If the key is not in the map, a new value is created by the function and mapped to
+     * the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int key, IntFunction<V> mappingFunction) {
+        int slot = slotOf(key);
+        V value = (V) values[slot];
+        if (null == value) {
+            value = mappingFunction.apply(key);
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size > threshold) {
+                rehash(keys.length << 1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Remove the mapping of a key. Following entries in the same probing sequence are shifted backward so that no
+     * tombstone is left in the table.
+     *
+     * @return The removed value, or NULL if there was no mapping for the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        final int mask = keys.length - 1;
+        int slot = slotOf(key);
+        V old_value = (V) values[slot];
+        if (null == old_value) {
+            return null;
+        }
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (null != values[next]) {
+            int home = mix(keys[next]) & mask;
+            /* Move the entry to the gap if the gap lies cyclically in [home, next) */
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+        return old_value;
+    }
+
+    protected void rehash(int newCapacity) {
+        int[] old_keys = keys;
+        Object[] old_values = values;
+        keys = new int[newCapacity];
+        values = new Object[newCapacity];
+        threshold = (int) (newCapacity * LOAD_FACTOR);
+        for (int i = 0; i < old_keys.length; i++) {
+            if (null != old_values[i]) {
+                int slot = slotOf(old_keys[i]);
+                keys[slot] = old_keys[i];
+                values[slot] = old_values[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    /**
+     * @return An array of all keys in the map, in no particular order
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int idx = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (null != values[i]) {
+                result[idx] = keys[i];
+                idx++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        boolean first = true;
+        for (int i = 0; i < keys.length; i++) {
+            if (null != values[i]) {
+                if (!first) {
+                    builder.append(", ");
+                }
+                builder.append(keys[i]).append('=').append(values[i]);
+                first = false;
+            }
+        }
+        return builder.append('}').toString();
+    }
+}
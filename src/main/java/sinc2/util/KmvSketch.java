@@ -0,0 +1,138 @@
+package sinc2.util;
+
+import java.util.Arrays;
+
+/**
+ * A K-Minimum-Values (KMV) sketch that estimates the number of distinct elements in a stream within a memory of 'k'
+ * hash values. The estimation is exact if there are no more than 'k' distinct hash values in the stream. Otherwise, the
+ * relative standard error of the estimation is about 1/sqrt(k-2).
+ *
+ * The bounds of the estimation are "CONFIDENCE_Z" standard errors away from it, thus each bound fails only for about
+ * 0.13% of the saturated sketches (as the estimation is approximately normal).
+ *
+ * The elements are added as 64-bit hash values. Tuples of integers can be hashed by "hashStart", "hashStep", and
+ * "hashFinish".
+ *
+ * @since 2.0
+ */
+public class KmvSketch {
+    /** The minimum number of hash values kept in a sketch */
+    public static final int MIN_SIZE = 16;
+    /** The maximum number of hash values kept in a sketch */
+    public static final int MAX_SIZE = 1 << 16;
+    /** The number of standard errors between the estimation and its bounds */
+    public static final double CONFIDENCE_Z = 3.0;
+
+    protected static final long HASH_SEED = 0x2545F4914F6CDD1DL;
+    protected static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    protected static final double HASH_RANGE = 0x1p63;
+
+    /** The 'k' smallest hash values in ascending order. Only the first 'size' values are valid */
+    protected final long[] minValues;
+    /** The number of hash values in the sketch */
+    protected int size = 0;
+
+    /**
+     * Determine the size of the sketch so that the relative error of the bounds, i.e., "CONFIDENCE_Z" standard errors,
+     * is no larger than the tolerance. The size is limited by "MAX_SIZE", in which case the bounds are wider than the
+     * tolerance but still hold with the same confidence.
+     *
+     * @param tolerance The relative error tolerance (should be positive)
+     */
+    public static int sizeForError(double tolerance) {
+        final double size = Math.ceil(CONFIDENCE_Z * CONFIDENCE_Z / (tolerance * tolerance)) + 2;
+        return (int) Math.max(MIN_SIZE, Math.min(MAX_SIZE, size));
+    }
+
+    public static long hashStart() {
+        return HASH_SEED;
+    }
+
+    public static long hashStep(long hash, int value) {
+        return (hash + value) * HASH_MULTIPLIER;
+    }
+
+    /**
+     * Finalize a hash value with the MurmurHash3 finalizer so that the bits are well distributed.
+     */
+    public static long hashFinish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public static long hash(int[] values) {
+        long hash = hashStart();
+        for (int value: values) {
+            hash = hashStep(hash, value);
+        }
+        return hashFinish(hash);
+    }
+
+    public KmvSketch(int k) {
+        minValues = new long[Math.max(2, k)];
+    }
+
+    /**
+     * Add a hash value into the sketch. The hash value should be finalized by "hashFinish".
+     */
+    public void add(long hash) {
+        final long value = hash >>> 1;  // Keep values non-negative so that they are compared as unsigned numbers
+        if (size == minValues.length && value >= minValues[size - 1]) {
+            return;
+        }
+        int idx = Arrays.binarySearch(minValues, 0, size, value);
+        if (0 <= idx) {
+            /* Duplicated value */
+            return;
+        }
+        idx = -idx - 1;
+        final int moved = (size == minValues.length) ? size - 1 - idx : size - idx;
+        System.arraycopy(minValues, idx, minValues, idx + 1, moved);
+        minValues[idx] = value;
+        if (size < minValues.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Check whether the estimation is the exact number of distinct hash values.
+     */
+    public boolean isExact() {
+        return size < minValues.length;
+    }
+
+    /**
+     * Estimate the number of distinct elements.
+     */
+    public double estimate() {
+        if (isExact()) {
+            return size;
+        }
+        return (size - 1) / ((minValues[size - 1] + 1.0) / HASH_RANGE);
+    }
+
+    /**
+     * The relative error of the bounds, i.e., "CONFIDENCE_Z" relative standard errors of the sketch.
+     */
+    public double boundError() {
+        return CONFIDENCE_Z / Math.sqrt(minValues.length - 2);
+    }
+
+    /**
+     * An estimation that is not smaller than the actual number with the confidence of "CONFIDENCE_Z" standard errors.
+     */
+    public double upperBound() {
+        return isExact() ? size : estimate() * (1 + boundError());
+    }
+
+    /**
+     * An estimation that is not larger than the actual number with the confidence of "CONFIDENCE_Z" standard errors.
+     */
+    public double lowerBound() {
+        return isExact() ? size : Math.max(size, estimate() * (1 - boundError()));
+    }
+}
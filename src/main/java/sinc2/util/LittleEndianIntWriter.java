@@ -0,0 +1,90 @@
+package sinc2.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A writer that writes integers to a file in little endian. The integers are collected in a direct buffer and written
+ * to the file channel in bulk.
+ *
+ * @since 2.0
+ */
+public class LittleEndianIntWriter implements Closeable {
+    /** The default size of the buffer in bytes */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+
+    protected final FileChannel channel;
+    protected final ByteBuffer byteBuffer;
+    /** The integer view of the byte buffer. The position of the byte buffer is not updated when ints are put here. */
+    protected final IntBuffer intBuffer;
+
+    /**
+     * Create a writer to a file. The file is created if it does not exist, otherwise it is truncated.
+     */
+    public LittleEndianIntWriter(File file) throws IOException {
+        this(file, DEFAULT_BUFFER_BYTES);
+    }
+
+    public LittleEndianIntWriter(File file, int bufferBytes) throws IOException {
+        channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        );
+        byteBuffer = ByteBuffer.allocateDirect(Math.max(Integer.BYTES, bufferBytes - bufferBytes % Integer.BYTES))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        intBuffer = byteBuffer.asIntBuffer();
+    }
+
+    public void write(int value) throws IOException {
+        if (!intBuffer.hasRemaining()) {
+            flush();
+        }
+        intBuffer.put(value);
+    }
+
+    /**
+     * Write the integers in the range [offset, offset+length) of an array.
+     */
+    public void write(int[] values, int offset, int length) throws IOException {
+        while (0 < length) {
+            if (!intBuffer.hasRemaining()) {
+                flush();
+            }
+            int batch = Math.min(length, intBuffer.remaining());
+            intBuffer.put(values, offset, batch);
+            offset += batch;
+            length -= batch;
+        }
+    }
+
+    public void write(int[] values) throws IOException {
+        write(values, 0, values.length);
+    }
+
+    /**
+     * Write all buffered integers to the file.
+     */
+    public void flush() throws IOException {
+        byteBuffer.limit(intBuffer.position() * Integer.BYTES);
+        byteBuffer.position(0);
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer);
+        }
+        byteBuffer.clear();
+        intBuffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
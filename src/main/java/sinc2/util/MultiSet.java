@@ -35,6 +35,16 @@ public class MultiSet<T> {
         size++;
     }
 
+    /**
+     * Add multiple copies of an element.
+     */
+    public void add(T element, int times) {
+        if (0 < times) {
+            cntMap.compute(element, (k, v) -> (null == v) ? times : v + times);
+            size += times;
+        }
+    }
+
     public void addAll(T[] elements) {
         for (T element: elements) {
             cntMap.compute(element, (k, v) -> (null == v) ? 1 : v + 1);
@@ -144,6 +154,13 @@ public class MultiSet<T> {
         return result;
     }
 
+    /**
+     * The number of copies of an element in the set.
+     */
+    public int itemCount(T element) {
+        return cntMap.getOrDefault(element, 0);
+    }
+
     public int differentValues() {
         return cntMap.size();
     }
@@ -0,0 +1,236 @@
+package sinc2.util.graph;
+
+import sinc2.util.IntArrayList;
+import sinc2.util.IntKeyMap;
+
+/**
+ * The Minimum Feedback Vertex Set (MFVS) algorithm on a CSR graph. The algorithm returns a set of nodes that all the
+ * cycles in a Strongly Connected Component (SCC) are broken if the set of nodes are removed.
+ *
+ * The SCC is stored as sparse in- and out-adjacency lists. The nodes are kept in a max-heap ordered by the score, i.e.,
+ * in-degree x out-degree, and the degrees are updated incrementally when nodes are removed. Thus, the memory cost is
+ * linear to the number of edges in the SCC, and each removal of an edge costs O(log n) time.
+ *
+ * @since 2.0
+ */
+public class CsrFeedbackVertexSetSolver {
+    /** The nodes in the SCC */
+    protected final int[] nodes;
+    /** The size of the SCC */
+    protected final int size;
+
+    /** The successors of node 'i' are in the range [outOffsets[i], outOffsets[i+1]) of "successors" */
+    protected final int[] outOffsets;
+    protected final int[] successors;
+    /** The predecessors of node 'i' are in the range [inOffsets[i], inOffsets[i+1]) of "predecessors" */
+    protected final int[] inOffsets;
+    protected final int[] predecessors;
+
+    /** The in-degree and out-degree of each node in the remaining graph */
+    protected final int[] inDegrees;
+    protected final int[] outDegrees;
+    /** Whether each node has a self-loop */
+    protected final boolean[] selfLoops;
+    /** Whether each node has been removed */
+    protected final boolean[] removed;
+    /** The number of edges in the remaining graph */
+    protected long edges = 0;
+
+    /** The max-heap of the remaining nodes */
+    protected final int[] heap;
+    /** The position of each node in the heap, -1 if the node is not in the heap */
+    protected final int[] heapPositions;
+    protected int heapSize;
+
+    /**
+     * Initialize the solver by a graph and a SCC in the graph.
+     *
+     * @param graph A complete graph
+     * @param scc An SCC in the graph
+     */
+    public CsrFeedbackVertexSetSolver(CsrGraph graph, int[] scc) {
+        size = scc.length;
+        nodes = scc;
+
+        /* Numeration the nodes */
+        final IntKeyMap<Integer> node_2_idx = new IntKeyMap<>(size);
+        for (int i = 0; i < size; i++) {
+            node_2_idx.put(scc[i], i);
+        }
+
+        /* Build the out-adjacency lists and count the in-degrees */
+        outOffsets = new int[size + 1];
+        inDegrees = new int[size];
+        outDegrees = new int[size];
+        selfLoops = new boolean[size];
+        removed = new boolean[size];
+        final IntArrayList successor_list = new IntArrayList();
+        for (int i = 0; i < size; i++) {
+            final int node = scc[i];
+            outOffsets[i] = successor_list.size();
+            for (int j = 0; j < graph.degree(node); j++) {
+                final Integer successor_idx = node_2_idx.get(graph.neighbour(node, j));
+                if (null != successor_idx) {
+                    successor_list.add(successor_idx);
+                    outDegrees[i]++;
+                    inDegrees[successor_idx]++;
+                    selfLoops[i] |= (i == successor_idx);
+                }
+            }
+        }
+        outOffsets[size] = successor_list.size();
+        successors = successor_list.toArray();
+        edges = successors.length;
+
+        /* Build the in-adjacency lists */
+        inOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            inOffsets[i + 1] = inOffsets[i] + inDegrees[i];
+        }
+        predecessors = new int[successors.length];
+        final int[] cursors = new int[size];
+        System.arraycopy(inOffsets, 0, cursors, 0, size);
+        for (int i = 0; i < size; i++) {
+            for (int j = outOffsets[i]; j < outOffsets[i + 1]; j++) {
+                predecessors[cursors[successors[j]]++] = i;
+            }
+        }
+
+        /* Build the heap */
+        heap = new int[size];
+        heapPositions = new int[size];
+        heapSize = size;
+        for (int i = 0; i < size; i++) {
+            heap[i] = i;
+            heapPositions[i] = i;
+        }
+        for (int pos = size / 2 - 1; pos >= 0; pos--) {
+            siftDown(pos);
+        }
+    }
+
+    /**
+     * Run the MFVS algorithm.
+     *
+     * @return An array of nodes that breaks all the cycles in the SCC
+     */
+    public int[] run() {
+        final IntArrayList result = new IntArrayList();
+        final IntArrayList dangling_nodes = new IntArrayList();
+        while (0 < edges) {
+            /* Take the node with maximum in-degree x out-degree and remove the related cycle, until there is no cycle */
+            final int max_idx = heap[0];
+            result.add(nodes[max_idx]);
+
+            /* Remove the node from the SCC with the nodes that are no longer in any cycle */
+            removeNode(max_idx, dangling_nodes);
+            while (!dangling_nodes.isEmpty()) {
+                final int idx = dangling_nodes.removeLast();
+                if (!removed[idx]) {
+                    removeNode(idx, dangling_nodes);
+                }
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Remove a node and its edges from the graph.
+     *
+     * @param idx The index of the node
+     * @param danglingNodes The nodes that have edges only in one direction after the removal are appended to this list
+     */
+    protected void removeNode(int idx, IntArrayList danglingNodes) {
+        removed[idx] = true;
+        edges -= inDegrees[idx] + outDegrees[idx] - (selfLoops[idx] ? 1 : 0);
+        inDegrees[idx] = 0;
+        outDegrees[idx] = 0;
+        heapRemove(idx);
+        for (int j = outOffsets[idx]; j < outOffsets[idx + 1]; j++) {
+            final int successor = successors[j];
+            if (!removed[successor]) {
+                inDegrees[successor]--;
+                siftDown(heapPositions[successor]);
+                if (0 == inDegrees[successor]) {
+                    danglingNodes.add(successor);
+                }
+            }
+        }
+        for (int j = inOffsets[idx]; j < inOffsets[idx + 1]; j++) {
+            final int predecessor = predecessors[j];
+            if (!removed[predecessor]) {
+                outDegrees[predecessor]--;
+                siftDown(heapPositions[predecessor]);
+                if (0 == outDegrees[predecessor]) {
+                    danglingNodes.add(predecessor);
+                }
+            }
+        }
+    }
+
+    protected long scoreOf(int idx) {
+        return (long) inDegrees[idx] * outDegrees[idx];
+    }
+
+    /**
+     * Whether node 'i' should be closer to the top of the heap than node 'j'. Ties are broken by the indices so that the
+     * first node with the maximum score is selected.
+     */
+    protected boolean prior(int i, int j) {
+        final long score_i = scoreOf(i);
+        final long score_j = scoreOf(j);
+        return score_i > score_j || (score_i == score_j && i < j);
+    }
+
+    protected void heapRemove(int idx) {
+        final int pos = heapPositions[idx];
+        heapPositions[idx] = -1;
+        heapSize--;
+        if (pos == heapSize) {
+            return;
+        }
+        final int last = heap[heapSize];
+        heap[pos] = last;
+        heapPositions[last] = pos;
+        siftDown(pos);
+        siftUp(heapPositions[last]);
+    }
+
+    protected void siftUp(int pos) {
+        final int idx = heap[pos];
+        while (0 < pos) {
+            final int parent_pos = (pos - 1) / 2;
+            final int parent = heap[parent_pos];
+            if (!prior(idx, parent)) {
+                break;
+            }
+            heap[pos] = parent;
+            heapPositions[parent] = pos;
+            pos = parent_pos;
+        }
+        heap[pos] = idx;
+        heapPositions[idx] = pos;
+    }
+
+    protected void siftDown(int pos) {
+        final int idx = heap[pos];
+        while (true) {
+            int child_pos = pos * 2 + 1;
+            if (child_pos >= heapSize) {
+                break;
+            }
+            if (child_pos + 1 < heapSize && prior(heap[child_pos + 1], heap[child_pos])) {
+                child_pos++;
+            }
+            final int child = heap[child_pos];
+            if (!prior(child, idx)) {
+                break;
+            }
+            heap[pos] = child;
+            heapPositions[child] = pos;
+            pos = child_pos;
+        }
+        heap[pos] = idx;
+        heapPositions[idx] = pos;
+    }
+}
@@ -0,0 +1,143 @@
+package sinc2.util.graph;
+
+import sinc2.util.IntArrayList;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A directed graph in the Compressed Sparse Row (CSR) format. The nodes are identified by the integers in [0, n), and
+ * the neighbours of each node are stored in a single integer buffer in the ascending order without duplication. The
+ * buffer may be allocated out of the Java heap so that large graphs do not burden the garbage collector.
+ *
+ * The graph is immutable once created.
+ *
+ * @since 2.0
+ */
+public class CsrGraph {
+    /** The number of nodes in the graph */
+    protected final int totalNodes;
+    /** The neighbours of node 'v' are in the range [offsets[v], offsets[v+1]) of the neighbour buffer */
+    protected final int[] offsets;
+    /** The neighbour buffer */
+    protected final IntBuffer neighbours;
+
+    /**
+     * Create a CSR graph from lists of edges. Each list contains pairs of node IDs, i.e., (source, target) of an edge.
+     * Duplicated edges are merged.
+     *
+     * The neighbours are placed directly into the neighbour buffer and then sorted and merged node by node, so no full
+     * copy of the neighbours is created on the Java heap when the buffer is off-heap. If there are duplicated edges,
+     * the capacity of the buffer is larger than the number of edges in the graph.
+     *
+     * @param totalNodes The number of nodes in the graph
+     * @param edgeLists The lists of edges
+     * @param offHeap Whether the neighbour buffer is allocated out of the Java heap
+     * @throws IllegalArgumentException The edges do not fit in a single off-heap buffer
+     */
+    public static CsrGraph fromEdges(int totalNodes, List<IntArrayList> edgeLists, boolean offHeap) {
+        /* Count the degrees */
+        final int[] offsets = new int[totalNodes + 1];
+        for (IntArrayList edges: edgeLists) {
+            for (int i = 0; i < edges.size(); i += 2) {
+                offsets[edges.get(i) + 1]++;
+            }
+        }
+        int max_degree = 0;
+        for (int node = 0; node < totalNodes; node++) {
+            max_degree = Math.max(max_degree, offsets[node + 1]);
+            offsets[node + 1] += offsets[node];
+        }
+
+        /* Allocate the buffer and place the neighbours */
+        final int total_raw_edges = offsets[totalNodes];
+        final IntBuffer neighbours;
+        if (offHeap) {
+            final long buffer_bytes = (long) total_raw_edges * Integer.BYTES;
+            if (Integer.MAX_VALUE < buffer_bytes) {
+                throw new IllegalArgumentException(String.format(
+                        "Too many edges for an off-heap buffer: %d (%d bytes)", total_raw_edges, buffer_bytes
+                ));
+            }
+            neighbours = ByteBuffer.allocateDirect((int) buffer_bytes).order(ByteOrder.nativeOrder()).asIntBuffer();
+        } else {
+            neighbours = IntBuffer.wrap(new int[total_raw_edges]);
+        }
+        final int[] cursors = Arrays.copyOf(offsets, totalNodes);
+        for (IntArrayList edges: edgeLists) {
+            for (int i = 0; i < edges.size(); i += 2) {
+                neighbours.put(cursors[edges.get(i)]++, edges.get(i + 1));
+            }
+        }
+
+        /* Sort the neighbours and remove duplications */
+        final int[] node_neighbours = new int[max_degree];
+        int total_edges = 0;
+        for (int node = 0; node < totalNodes; node++) {
+            final int degree = offsets[node + 1] - offsets[node];
+            neighbours.position(offsets[node]);
+            neighbours.get(node_neighbours, 0, degree);
+            offsets[node] = total_edges;
+            Arrays.sort(node_neighbours, 0, degree);
+            neighbours.position(total_edges);
+            for (int i = 0; i < degree; i++) {
+                if (0 == i || node_neighbours[i] != node_neighbours[i - 1]) {
+                    neighbours.put(node_neighbours[i]);
+                    total_edges++;
+                }
+            }
+        }
+        offsets[totalNodes] = total_edges;
+        neighbours.position(0);
+        neighbours.limit(total_edges);
+        return new CsrGraph(totalNodes, offsets, neighbours);
+    }
+
+    protected CsrGraph(int totalNodes, int[] offsets, IntBuffer neighbours) {
+        this.totalNodes = totalNodes;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    public int totalNodes() {
+        return totalNodes;
+    }
+
+    public int totalEdges() {
+        return offsets[totalNodes];
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * Get the idx-th neighbour of a node.
+     */
+    public int neighbour(int node, int idx) {
+        return neighbours.get(offsets[node] + idx);
+    }
+
+    /**
+     * Check whether there is an edge from a node to another by binary search.
+     */
+    public boolean hasEdge(int source, int target) {
+        int low = offsets[source];
+        int high = offsets[source + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int neighbour = neighbours.get(mid);
+            if (neighbour < target) {
+                low = mid + 1;
+            } else if (neighbour > target) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package sinc2.util.graph;
+
+import sinc2.util.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Tarjan algorithm on a CSR graph. The algorithm returns Strongly Connected Components (SCCs) that contains at least
+ * an edge. That is, either the SCC contains more than one node or is a single node with self-loops.
+ *
+ * The depth-first search is iterative, thus the JVM stack depth does not grow with the length of paths in the graph.
+ *
+ * @since 2.0
+ */
+public class CsrTarjan {
+    protected static final int NO_TARJAN_INDEX = -1;
+
+    protected final CsrGraph graph;
+    /** Tarjan index of each node */
+    protected final int[] indices;
+    /** Tarjan lowLink of each node */
+    protected final int[] lowLinks;
+    /** Tarjan onStack of each node */
+    protected final boolean[] onStack;
+    /** The index of the next neighbour to visit of each node in the depth-first search */
+    protected final int[] cursors;
+    protected final IntArrayList stack = new IntArrayList();
+    protected final List<int[]> result = new ArrayList<>();
+    protected int index = 0;
+
+    public CsrTarjan(CsrGraph graph) {
+        this.graph = graph;
+        this.indices = new int[graph.totalNodes()];
+        this.lowLinks = new int[graph.totalNodes()];
+        this.onStack = new boolean[graph.totalNodes()];
+        this.cursors = new int[graph.totalNodes()];
+        Arrays.fill(indices, NO_TARJAN_INDEX);
+    }
+
+    /**
+     * Run the Tarjan algorithm.
+     *
+     * @return A list of strongly connected components (SCCs). An SCC is an array of node IDs.
+     */
+    public List<int[]> run() {
+        for (int node = 0; node < graph.totalNodes(); node++) {
+            if (NO_TARJAN_INDEX == indices[node] && 0 < graph.degree(node)) {
+                strongConnect(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The depth-first search from a root node. The recursion is replaced by an explicit call stack so that long paths in
+     * the graph do not overflow the JVM stack. Each node on the call stack keeps a cursor of the next neighbour to visit.
+     */
+    protected void strongConnect(int root) {
+        final IntArrayList call_stack = new IntArrayList();
+        visit(root);
+        call_stack.add(root);
+        while (!call_stack.isEmpty()) {
+            final int node = call_stack.get(call_stack.size() - 1);
+            if (cursors[node] < graph.degree(node)) {
+                final int neighbour = graph.neighbour(node, cursors[node]);
+                cursors[node]++;
+                if (NO_TARJAN_INDEX == indices[neighbour]) {
+                    /* Descend to the neighbour */
+                    visit(neighbour);
+                    call_stack.add(neighbour);
+                } else if (onStack[neighbour]) {
+                    lowLinks[node] = Math.min(lowLinks[node], indices[neighbour]);
+                }
+                continue;
+            }
+
+            /* All neighbours are visited, return to the caller */
+            call_stack.removeLast();
+            if (lowLinks[node] == indices[node]) {
+                popScc(node);
+            }
+            if (!call_stack.isEmpty()) {
+                final int caller = call_stack.get(call_stack.size() - 1);
+                lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[node]);
+            }
+        }
+    }
+
+    protected void visit(int node) {
+        indices[node] = index;
+        lowLinks[node] = index;
+        onStack[node] = true;
+        index++;
+        stack.add(node);
+    }
+
+    protected void popScc(int node) {
+        final IntArrayList scc = new IntArrayList();
+        int top;
+        do {
+            top = stack.removeLast();
+            onStack[top] = false;
+            scc.add(top);
+        } while (node != top);
+
+        /* Only non-trivial SCCs are returned */
+        if (1 < scc.size() || graph.hasEdge(node, node)) {
+            result.add(scc.toArray());
+        }
+    }
+}
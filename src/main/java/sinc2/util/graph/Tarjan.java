@@ -12,7 +12,7 @@ import java.util.*;
  */
 public class Tarjan<T extends GraphNode<?>> {
     private int index = 0;
-    private final Stack<T> stack = new Stack<>();
+    private final Deque<T> stack = new ArrayDeque<>();
     private final List<Set<T>> result = new ArrayList<>();
     private final Map<T, Set<T>> graph;
 
@@ -62,41 +62,75 @@ public class Tarjan<T extends GraphNode<?>> {
         return result;
     }
 
-    private void strongConnect(T node) {
-        node.index = index;
-        node.lowLink = index;
-        node.onStack = true;
-        index++;
-        stack.push(node);
+    /**
+     * A frame of the depth-first search, i.e., a node and the iterator of its remaining neighbours.
+     */
+    private class Frame {
+        final T node;
+        final Set<T> neighbours;
+        final Iterator<T> itr;
 
-        Set<T> neighbours = graph.get(node);
-        if (null != neighbours) {
-            for (T neighbour : neighbours) {
+        Frame(T node) {
+            this.node = node;
+            this.neighbours = graph.get(node);
+            this.itr = (null == neighbours) ? Collections.emptyIterator() : neighbours.iterator();
+        }
+    }
+
+    /**
+     * The depth-first search from a root node. The recursion is replaced by an explicit call stack so that long paths in
+     * the graph do not overflow the JVM stack.
+     */
+    private void strongConnect(T root) {
+        final Deque<Frame> call_stack = new ArrayDeque<>();
+        visit(root);
+        call_stack.push(new Frame(root));
+        while (!call_stack.isEmpty()) {
+            final Frame frame = call_stack.peek();
+            final T node = frame.node;
+            if (frame.itr.hasNext()) {
+                final T neighbour = frame.itr.next();
                 if (-1 == neighbour.index) {
-                    strongConnect(neighbour);
-                    node.lowLink = Math.min(node.lowLink, neighbour.lowLink);
+                    /* Descend to the neighbour */
+                    visit(neighbour);
+                    call_stack.push(new Frame(neighbour));
                 } else if (neighbour.onStack) {
                     node.lowLink = Math.min(node.lowLink, neighbour.index);
                 }
+                continue;
             }
-        }
 
-        if (node.lowLink == node.index) {
-            Set<T> scc = new HashSet<>();
-            T top;
-            do {
-                top = stack.pop();
-                top.onStack = false;
-                scc.add(top);
-            } while (!node.equals(top));
+            /* All neighbours are visited, return to the caller */
+            call_stack.pop();
+            if (node.lowLink == node.index) {
+                Set<T> scc = new HashSet<>();
+                T top;
+                do {
+                    top = stack.pop();
+                    top.onStack = false;
+                    scc.add(top);
+                } while (!node.equals(top));
 
-            /* 只返回非平凡的强连通分量 */
-            if (1 < scc.size()) {
-                result.add(scc);
-            } else if (null != neighbours && neighbours.contains(node)) {
-                /* graph中可能包含自环 */
-                result.add(scc);
+                /* 只返回非平凡的强连通分量 */
+                if (1 < scc.size()) {
+                    result.add(scc);
+                } else if (null != frame.neighbours && frame.neighbours.contains(node)) {
+                    /* graph中可能包含自环 */
+                    result.add(scc);
+                }
+            }
+            if (!call_stack.isEmpty()) {
+                final T caller = call_stack.peek().node;
+                caller.lowLink = Math.min(caller.lowLink, node.lowLink);
             }
         }
     }
+
+    private void visit(T node) {
+        node.index = index;
+        node.lowLink = index;
+        node.onStack = true;
+        index++;
+        stack.push(node);
+    }
 }
@@ -0,0 +1,148 @@
+package sinc2;
+
+import org.junit.jupiter.api.Test;
+import sinc2.rule.BareRule;
+import sinc2.rule.Eval;
+import sinc2.rule.EvalMetric;
+import sinc2.rule.Rule;
+import sinc2.rule.TabuSet;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidateBufferTest {
+
+    static BareRule ruleWithScore(int posEtls) {
+        /* δ = posEtls - 0 - 0 */
+        BareRule rule = new BareRule(0, 1, new HashSet<>(), new TabuSet());
+        rule.returningEval = new Eval(null, posEtls, posEtls, 0);
+        return rule;
+    }
+
+    @Test
+    void testOffer() {
+        CandidateBuffer buffer = new CandidateBuffer(3, EvalMetric.CompressionCapacity);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.best());
+        assertEquals(Double.NEGATIVE_INFINITY, buffer.worstScore());
+
+        BareRule r5 = ruleWithScore(5);
+        BareRule r2 = ruleWithScore(2);
+        BareRule r7 = ruleWithScore(7);
+        assertTrue(buffer.offer(r5));
+        assertTrue(buffer.offer(r2));
+        assertTrue(buffer.offer(r7));
+        assertTrue(buffer.isFull());
+        assertEquals(2, buffer.worstScore());
+        assertSame(r7, buffer.best());
+
+        /* Not better than the worst */
+        assertFalse(buffer.offer(ruleWithScore(2)));
+        assertFalse(buffer.offer(ruleWithScore(1)));
+        assertEquals(3, buffer.size());
+
+        /* Replace the worst */
+        BareRule r9 = ruleWithScore(9);
+        assertTrue(buffer.offer(r9));
+        assertEquals(5, buffer.worstScore());
+        assertSame(r9, buffer.best());
+        Set<Rule> rules = new HashSet<>();
+        for (Rule rule: buffer) {
+            rules.add(rule);
+        }
+        assertEquals(new HashSet<>(List.of(r5, r7, r9)), rules);
+    }
+
+    @Test
+    void testMerge() {
+        CandidateBuffer buffer1 = new CandidateBuffer(2, EvalMetric.CompressionCapacity);
+        CandidateBuffer buffer2 = new CandidateBuffer(2, EvalMetric.CompressionCapacity);
+        BareRule r1 = ruleWithScore(1);
+        BareRule r4 = ruleWithScore(4);
+        BareRule r3 = ruleWithScore(3);
+        BareRule r6 = ruleWithScore(6);
+        buffer1.offer(r1);
+        buffer1.offer(r4);
+        buffer2.offer(r3);
+        buffer2.offer(r6);
+        buffer1.merge(buffer2);
+        assertEquals(2, buffer1.size());
+        assertEquals(4, buffer1.worstScore());
+        assertSame(r6, buffer1.best());
+    }
+
+    @Test
+    void testMergeWithFilter() {
+        CandidateBuffer buffer1 = new CandidateBuffer(2, EvalMetric.CompressionCapacity);
+        CandidateBuffer buffer2 = new CandidateBuffer(2, EvalMetric.CompressionCapacity);
+        BareRule r1 = ruleWithScore(1);
+        BareRule r4 = ruleWithScore(4);
+        BareRule r3 = ruleWithScore(3);
+        BareRule r6 = ruleWithScore(6);
+        buffer1.offer(r1);
+        buffer1.offer(r4);
+        buffer2.offer(r3);
+        buffer2.offer(r6);
+        buffer1.merge(buffer2, r -> r != r6);
+        assertEquals(2, buffer1.size());
+        assertEquals(3, buffer1.worstScore());
+        assertSame(r4, buffer1.best());
+    }
+
+    @Test
+    void testRandomScores() {
+        Random random = new Random(0);
+        CandidateBuffer buffer = new CandidateBuffer(10, EvalMetric.CompressionCapacity);
+        List<Integer> scores = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int score = random.nextInt(100000);
+            scores.add(score);
+            buffer.offer(ruleWithScore(score));
+        }
+        scores.sort(Comparator.reverseOrder());
+        List<Integer> actual_scores = new ArrayList<>();
+        for (Rule rule: buffer) {
+            actual_scores.add((int) rule.getEval().getPosEtls());
+        }
+        actual_scores.sort(Comparator.reverseOrder());
+        assertEquals(scores.subList(0, 10), actual_scores);
+        assertEquals((double) scores.get(9), buffer.worstScore());
+    }
+
+    @Test
+    void testTies() {
+        List<BareRule> rules = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            rules.add(ruleWithScore(3 + i % 2));
+        }
+
+        /* r1, r3, r5, r7 have score 4; r0, r2, r4, r6 have score 3. Smaller keys are kept in ties. */
+        List<Rule> expected = List.of(rules.get(1), rules.get(3), rules.get(5), rules.get(0), rules.get(2));
+        Random random = new Random(0);
+        for (int round = 0; round < 20; round++) {
+            List<Integer> order = new ArrayList<>(List.of(0, 1, 2, 3, 4, 5, 6, 7));
+            Collections.shuffle(order, random);
+            CandidateBuffer buffer1 = new CandidateBuffer(5, EvalMetric.CompressionCapacity);
+            CandidateBuffer buffer2 = new CandidateBuffer(5, EvalMetric.CompressionCapacity);
+            for (int i = 0; i < order.size(); i++) {
+                int key = order.get(i);
+                (i < 4 ? buffer1 : buffer2).offer(rules.get(key), 3 + key % 2, key);
+            }
+            buffer1.merge(buffer2);
+            assertSame(rules.get(1), buffer1.best());
+            List<Rule> actual = new ArrayList<>();
+            for (Rule rule: buffer1) {
+                actual.add(rule);
+            }
+            assertEquals(expected, actual);
+        }
+
+        /* Ties are kept in the insertion order without keys */
+        CandidateBuffer buffer = new CandidateBuffer(2, EvalMetric.CompressionCapacity);
+        assertTrue(buffer.offer(rules.get(0)));
+        assertTrue(buffer.offer(rules.get(2)));
+        assertFalse(buffer.offer(rules.get(4)));
+        assertSame(rules.get(0), buffer.best());
+    }
+}
@@ -8,38 +8,44 @@ import sinc2.kb.KbException;
 import sinc2.kb.KbRelation;
 import sinc2.kb.NumeratedKb;
 import sinc2.rule.*;
-import sinc2.util.graph.GraphNode;
 
 import java.io.PrintWriter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class RelationMinerTest {
 
     static class TestRelationMiner extends RelationMiner {
 
-        static final BareRule bad_rule = new BareRule(0, 0, new HashSet<>(), new HashMap<>());
+        static final BareRule bad_rule = new BareRule(0, 0, new HashSet<>(), new TabuSet());
         static {
             bad_rule.returningEval = Eval.MIN;
         }
 
         public TestRelationMiner(
                 NumeratedKb kb, int targetRelation, EvalMetric evalMetric, int beamwidth, double stopCompressionRatio,
-                Map<Predicate, GraphNode<Predicate>> predicate2NodeMap, Map<GraphNode<Predicate>,
-                Set<GraphNode<Predicate>>> dependencyGraph, PrintWriter logger
+                DependencyGraph dependencyGraph, ForkJoinPool workerPool, PrintWriter logger
         ) {
-            super(kb, targetRelation, evalMetric, beamwidth, stopCompressionRatio, predicate2NodeMap, dependencyGraph, logger);
+            super(kb, targetRelation, evalMetric, beamwidth, stopCompressionRatio, dependencyGraph, workerPool, logger);
         }
 
         @Override
         protected Rule getStartRule() {
-            return new BareRule(targetRelation, kb.getRelationArity(targetRelation), new HashSet<>(), new HashMap<>());
+            return new BareRule(targetRelation, kb.getRelationArity(targetRelation), new HashSet<>(), new TabuSet());
         }
 
         @Override
-        protected int checkThenAddRule(UpdateStatus updateStatus, Rule updatedRule, Rule originalRule, Rule[] candidates) throws InterruptedSignal {
-            return super.checkThenAddRule(updateStatus, updatedRule, bad_rule, candidates);
+        protected int checkThenAddRule(UpdateStatus updateStatus, Rule updatedRule, Rule originalRule, CandidateBuffer candidates, long key) throws InterruptedSignal {
+            return super.checkThenAddRule(updateStatus, updatedRule, bad_rule, candidates, key);
+        }
+
+        @Override
+        protected boolean cannotBeCandidate(double scoreUpperBound, Rule originalRule, CandidateBuffer candidates) {
+            return super.cannotBeCandidate(scoreUpperBound, bad_rule, candidates);
         }
 
         @Override
@@ -66,7 +72,7 @@ class RelationMinerTest {
 
     @Test
     void testFindSpecializations1() throws InterruptedSignal {
-        Rule base_rule = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule base_rule = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         assertEquals("family(?,?,?):-", base_rule.toDumpString(kb.getNumerationMap()));
 
         Set<String> expected_specs = new HashSet<>(List.of(
@@ -103,15 +109,12 @@ class RelationMinerTest {
 
         RelationMiner miner = new TestRelationMiner(
                 kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
-                new HashMap<>(), new HashMap<>(), new PrintWriter(System.out)
+                new DependencyGraph(kb, false), null, new PrintWriter(System.out)
         );
-        Rule[] spec_rules = new Rule[expected_specs.size() * 2];
+        CandidateBuffer spec_rules = new CandidateBuffer(expected_specs.size() * 2, EvalMetric.CompressionCapacity);
         assertEquals(expected_specs.size(), miner.findSpecializations(base_rule, spec_rules));
         Set<String> actual_specs =new HashSet<>();
         for (Rule rule: spec_rules) {
-            if (null == rule) {
-                break;
-            }
             actual_specs.add(rule.toDumpString(kb.getNumerationMap()));
         }
         assertEquals(expected_specs, actual_specs);
@@ -119,7 +122,7 @@ class RelationMinerTest {
 
     @Test
     void testFindSpecializations2() throws InterruptedSignal {
-        Rule base_rule = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule base_rule = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         base_rule.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
         assertEquals("family(?,X0,?):-father(X0,?)", base_rule.toDumpString(kb.getNumerationMap()));
 
@@ -167,23 +170,183 @@ class RelationMinerTest {
 
         RelationMiner miner = new TestRelationMiner(
                 kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
-                new HashMap<>(), new HashMap<>(), new PrintWriter(System.out)
+                new DependencyGraph(kb, false), null, new PrintWriter(System.out)
         );
-        Rule[] spec_rules = new Rule[expected_specs.size() * 2];
+        CandidateBuffer spec_rules = new CandidateBuffer(expected_specs.size() * 2, EvalMetric.CompressionCapacity);
+        assertEquals(expected_specs.size(), miner.findSpecializations(base_rule, spec_rules));
+        Set<String> actual_specs =new HashSet<>();
+        for (Rule rule: spec_rules) {
+            actual_specs.add(rule.toDumpString(kb.getNumerationMap()));
+        }
+        assertEquals(expected_specs, actual_specs);
+    }
+
+    @Test
+    void testFindSpecializationsInParallel() throws InterruptedSignal {
+        Rule base_rule = new BareRule(
+                kb.name2Num("family"), 3, ConcurrentHashMap.newKeySet(), new TabuSet()
+        );
+        base_rule.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
+        assertEquals("family(?,X0,?):-father(X0,?)", base_rule.toDumpString(kb.getNumerationMap()));
+
+        Set<String> expected_specs = new HashSet<>(List.of(
+                "family(X0,X0,?):-father(X0,?)",
+                "family(?,X0,X0):-father(X0,?)",
+                "family(?,X0,?):-father(X0,X0)",
+                "family(?,X0,?):-father(X0,?),family(X0,?,?)",
+//                "family(?,X0,?):-father(X0,?),family(?,X0,?)",
+                "family(?,X0,?):-father(X0,?),family(?,?,X0)",
+                "family(?,X0,?):-father(X0,?),mother(X0,?)",
+                "family(?,X0,?):-father(X0,?),mother(?,X0)",
+                "family(?,X0,?):-father(X0,?),father(X0,?)",
+                "family(?,X0,?):-father(X0,?),father(?,X0)",
+                "family(?,X0,?):-father(X0,?),isMale(X0)",
+                "family(X1,X0,X1):-father(X0,?)",
+                "family(X1,X0,?):-father(X0,X1)",
+                "family(?,X0,X1):-father(X0,X1)",
+//                "family(X1,X0,?):-father(X0,?),family(X1,?,?)",
+                "family(X1,X0,?):-father(X0,?),family(?,X1,?)",
+                "family(X1,X0,?):-father(X0,?),family(?,?,X1)",
+                "family(?,X0,X1):-father(X0,?),family(X1,?,?)",
+                "family(?,X0,X1):-father(X0,?),family(?,X1,?)",
+//                "family(?,X0,X1):-father(X0,?),family(?,?,X1)",
+                "family(?,X0,?):-father(X0,X1),family(X1,?,?)",
+                "family(?,X0,?):-father(X0,X1),family(?,X1,?)",
+                "family(?,X0,?):-father(X0,X1),family(?,?,X1)",
+                "family(X1,X0,?):-father(X0,?),father(X1,?)",
+                "family(X1,X0,?):-father(X0,?),father(?,X1)",
+                "family(?,X0,X1):-father(X0,?),father(X1,?)",
+                "family(?,X0,X1):-father(X0,?),father(?,X1)",
+                "family(?,X0,?):-father(X0,X1),father(X1,?)",
+                "family(?,X0,?):-father(X0,X1),father(?,X1)",
+                "family(X1,X0,?):-father(X0,?),mother(X1,?)",
+                "family(X1,X0,?):-father(X0,?),mother(?,X1)",
+                "family(?,X0,X1):-father(X0,?),mother(X1,?)",
+                "family(?,X0,X1):-father(X0,?),mother(?,X1)",
+                "family(?,X0,?):-father(X0,X1),mother(X1,?)",
+                "family(?,X0,?):-father(X0,X1),mother(?,X1)",
+                "family(X1,X0,?):-father(X0,?),isMale(X1)",
+                "family(?,X0,X1):-father(X0,?),isMale(X1)",
+                "family(?,X0,?):-father(X0,X1),isMale(X1)",
+                "family(mom,X0,?):-father(X0,?)"
+        ));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RelationMiner miner = new TestRelationMiner(
+                kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
+                new DependencyGraph(kb, false), pool, new PrintWriter(System.out)
+        );
+        CandidateBuffer spec_rules = new CandidateBuffer(expected_specs.size() * 2, EvalMetric.CompressionCapacity);
         assertEquals(expected_specs.size(), miner.findSpecializations(base_rule, spec_rules));
         Set<String> actual_specs =new HashSet<>();
         for (Rule rule: spec_rules) {
-            if (null == rule) {
-                break;
-            }
             actual_specs.add(rule.toDumpString(kb.getNumerationMap()));
         }
         assertEquals(expected_specs, actual_specs);
+        pool.shutdown();
+    }
+
+    static Rule baseRuleOfTies() {
+        /* The fingerprint cache is not shared, otherwise the rules evaluated in previous runs are duplicated */
+        Rule base_rule = new BareRule(
+                kb.name2Num("family"), 3, ConcurrentHashMap.newKeySet(), new TabuSet()
+        );
+        base_rule.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
+        return base_rule;
+    }
+
+    @Test
+    void testSequentialAndParallelTies() throws InterruptedSignal {
+        /* All specializations have the same score, so the kept candidates are decided by the ties */
+        RelationMiner sequential_miner = new TestRelationMiner(
+                kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
+                new DependencyGraph(kb, false), null, new PrintWriter(System.out)
+        );
+        CandidateBuffer sequential_specs = new CandidateBuffer(5, EvalMetric.CompressionCapacity);
+        sequential_miner.findSpecializations(baseRuleOfTies(), sequential_specs);
+        List<String> expected_specs = new ArrayList<>();
+        for (Rule rule: sequential_specs) {
+            expected_specs.add(rule.toDumpString(kb.getNumerationMap()));
+        }
+        assertEquals(5, expected_specs.size());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RelationMiner parallel_miner = new TestRelationMiner(
+                kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
+                new DependencyGraph(kb, false), pool, new PrintWriter(System.out)
+        );
+        for (int i = 0; i < 10; i++) {
+            CandidateBuffer parallel_specs = new CandidateBuffer(5, EvalMetric.CompressionCapacity);
+            parallel_miner.findSpecializations(baseRuleOfTies(), parallel_specs);
+            List<String> actual_specs = new ArrayList<>();
+            for (Rule rule: parallel_specs) {
+                actual_specs.add(rule.toDumpString(kb.getNumerationMap()));
+            }
+            assertEquals(expected_specs, actual_specs);
+            assertSame(parallel_specs.iterator().next(), parallel_specs.best());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void testParallelDuplicationsKeepFirstOperation() throws InterruptedSignal {
+        /* Some specializations are duplicated, and the one by the first operation is kept whatever the scheduling */
+        RelationMiner sequential_miner = new TestRelationMiner(
+                kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
+                new DependencyGraph(kb, false), null, new PrintWriter(System.out)
+        );
+        CandidateBuffer sequential_specs = new CandidateBuffer(100, EvalMetric.CompressionCapacity);
+        Rule sequential_base_rule = baseRuleOfTies();
+        int expected_added = sequential_miner.findSpecializations(sequential_base_rule, sequential_specs);
+        List<String> expected_specs = new ArrayList<>();
+        for (Rule rule: sequential_specs) {
+            expected_specs.add(rule.toDumpString(kb.getNumerationMap()));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RelationMiner parallel_miner = new TestRelationMiner(
+                kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
+                new DependencyGraph(kb, false), pool, new PrintWriter(System.out)
+        );
+        for (int i = 0; i < 10; i++) {
+            CandidateBuffer parallel_specs = new CandidateBuffer(100, EvalMetric.CompressionCapacity);
+            Rule parallel_base_rule = baseRuleOfTies();
+            assertEquals(expected_added, parallel_miner.findSpecializations(parallel_base_rule, parallel_specs));
+            List<String> actual_specs = new ArrayList<>();
+            for (Rule rule: parallel_specs) {
+                actual_specs.add(rule.toDumpString(kb.getNumerationMap()));
+            }
+            assertEquals(expected_specs, actual_specs);
+
+            /* The fingerprints used by the tasks are added to the shared cache */
+            assertEquals(sequential_base_rule.getFingerprintCache(), parallel_base_rule.getFingerprintCache());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void testFindSpecializationsPrunedByUpperBound() throws InterruptedSignal {
+        /* The upper bound of the specializations (δ=10-0-1) is lower than the candidate (δ=20-0-1) */
+        BareRule base_rule = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
+        base_rule.returningEval = new Eval(null, 10, 20, 0);
+        BareRule candidate = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
+        candidate.returningEval = new Eval(null, 20, 20, 1);
+        assertEquals(9, base_rule.specializationUpperBound().value(EvalMetric.CompressionCapacity));
+
+        RelationMiner miner = new TestRelationMiner(
+                kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
+                new DependencyGraph(kb, false), null, new PrintWriter(System.out)
+        );
+        CandidateBuffer spec_rules = new CandidateBuffer(1, EvalMetric.CompressionCapacity);
+        spec_rules.offer(candidate);
+        assertEquals(0, miner.findSpecializations(base_rule, spec_rules));
+        assertSame(candidate, spec_rules.best());
+        assertEquals(29, miner.getRuleMonitor().upperBoundPrunedCandidates.sum());
     }
 
     @Test
     void testFindGeneralizations() throws InterruptedSignal {
-        Rule base_rule = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule base_rule = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         base_rule.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
         base_rule.cvt2Uvs2NewLv(kb.name2Num("mother"), 2, 0, 0, 0);
         base_rule.cvt2Uvs2NewLv(0,2, 1, 1);
@@ -200,16 +363,13 @@ class RelationMinerTest {
 
         RelationMiner miner = new TestRelationMiner(
                 kb, kb.name2Num("family"), EvalMetric.CompressionCapacity, 1, 1.0,
-                new HashMap<>(), new HashMap<>(), new PrintWriter(System.out)
+                new DependencyGraph(kb, false), null, new PrintWriter(System.out)
         );
-        Rule[] spec_rules = new Rule[expected_specs.size() * 2];
+        CandidateBuffer spec_rules = new CandidateBuffer(expected_specs.size() * 2, EvalMetric.CompressionCapacity);
         int added_rules = miner.findGeneralizations(base_rule, spec_rules);
         assertEquals(expected_specs.size(), added_rules);
         Set<String> actual_specs =new HashSet<>();
         for (Rule rule: spec_rules) {
-            if (null == rule) {
-                break;
-            }
             actual_specs.add(rule.toDumpString(kb.getNumerationMap()));
         }
         assertEquals(expected_specs, actual_specs);
@@ -1,7 +1,6 @@
 package sinc2.exp;
 
 import org.junit.jupiter.api.Test;
-import sinc2.util.MultiSet;
 import sinc2.common.Argument;
 import sinc2.common.ParsedArg;
 import sinc2.common.ParsedPred;
@@ -13,6 +12,7 @@ import sinc2.rule.BareRule;
 import sinc2.rule.Fingerprint;
 import sinc2.rule.Rule;
 import sinc2.rule.RuleParseException;
+import sinc2.rule.TabuSet;
 
 import java.io.*;
 import java.nio.file.Paths;
@@ -92,7 +92,7 @@ class HinterTest {
 
         /* Check result */
         Set<Fingerprint> cache = new HashSet<>();
-        Map<MultiSet<Integer>, Set<Fingerprint>> tabu = new HashMap<>();
+        TabuSet tabu = new TabuSet();
         Set<Rule> expected_rules = new HashSet<>();
         expected_rules.add(parseBareRule("parent(X,Y):-father(X,Y)", kb.getNumerationMap(), cache, tabu));
         expected_rules.add(parseBareRule("parent(X,Y):-mother(X,Y)", kb.getNumerationMap(), cache, tabu));
@@ -223,7 +223,7 @@ class HinterTest {
 
         /* Check result */
         Set<Fingerprint> cache = new HashSet<>();
-        Map<MultiSet<Integer>, Set<Fingerprint>> tabu = new HashMap<>();
+        TabuSet tabu = new TabuSet();
         Set<Rule> expected_rules = new HashSet<>();
         expected_rules.add(parseBareRule("parent(X,Y):-father(X,Y)", kb.getNumerationMap(), cache, tabu));
         expected_rules.add(parseBareRule("parent(X,Y):-mother(X,Y)", kb.getNumerationMap(), cache, tabu));
@@ -337,7 +337,7 @@ class HinterTest {
 
         /* Check result */
         Set<Fingerprint> cache = new HashSet<>();
-        Map<MultiSet<Integer>, Set<Fingerprint>> tabu = new HashMap<>();
+        TabuSet tabu = new TabuSet();
         Set<Rule> expected_rules = new HashSet<>();
         expected_rules.add(parseBareRule("family(X,Y,Z):-father(X,Z),mother(Y,Z)", kb.getNumerationMap(), cache, tabu));
         expected_rules.add(parseBareRule("couple(X,Y):-father(X,Z),mother(Y,Z)", kb.getNumerationMap(), cache, tabu));
@@ -363,7 +363,7 @@ class HinterTest {
         rules_file.delete();
     }
 
-    BareRule parseBareRule(String str, NumerationMap numMap, Set<Fingerprint> cache, Map<MultiSet<Integer>, Set<Fingerprint>> tabu) throws RuleParseException {
+    BareRule parseBareRule(String str, NumerationMap numMap, Set<Fingerprint> cache, TabuSet tabu) throws RuleParseException {
         List<ParsedPred> parsed_structure = Rule.parseStructure(str);
         List<Predicate> structure = new ArrayList<>();
         for (ParsedPred parsed_pred: parsed_structure) {
@@ -4,11 +4,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import sinc2.common.Argument;
 import sinc2.common.Predicate;
+import sinc2.common.RuleMonitor;
 import sinc2.kb.Record;
 import sinc2.rule.*;
 import sinc2.util.ComparableArray;
-import sinc2.util.MultiSet;
+import sinc2.util.KmvSketch;
 import sinc2.kb.KbException;
+import sinc2.kb.KbRelation;
 import sinc2.kb.NumeratedKb;
 
 import java.util.*;
@@ -137,11 +139,92 @@ class CachedRuleTest {
         Rule.MIN_FACT_COVERAGE = -1.0;
     }
 
+    @Test
+    void testSpecializationKeepsOriginalCache() throws KbException {
+        final NumeratedKb kb = kbFamily();
+        final CachedRule rule = new CachedRule(NUM_PARENT, 2, new HashSet<>(), new TabuSet(), kb);
+        rule.updateCacheIndices();
+        final List<CacheEntry> original_pos_cache = rule.posCache;
+
+        /* parent(X, ?) :- father(X, ?) */
+        final CachedRule spec_rule = rule.clone();
+        assertEquals(UpdateStatus.NORMAL, spec_rule.cvt2Uvs2NewLv(NUM_FATHER, 2, 0, 0, 0));
+        assertEquals(new Eval(null, 4, 4 * 16, 1), spec_rule.getEval());
+        assertSame(original_pos_cache, rule.posCache);
+        for (CacheEntry entry: rule.posCache) {
+            assertEquals(1, entry.entry.size());
+        }
+        for (CacheEntry entry: spec_rule.posCache) {
+            assertEquals(2, entry.entry.size());
+        }
+    }
+
+    @Test
+    void testCompliedBlockMemo() throws KbException {
+        final NumeratedKb kb = kbFamily();
+        final Set<Fingerprint> fingerprint_cache = new HashSet<>();
+        final CachedRule rule = new CachedRule(NUM_PARENT, 2, fingerprint_cache, new TabuSet(), kb);
+        rule.updateCacheIndices();
+        final CompliedBlockMemo memo = rule.compliedBlockMemo;
+        assertNotNull(memo);
+
+        /* parent(X, ?) :- father(X, ?) */
+        final CachedRule spec_rule1 = rule.clone();
+        assertEquals(UpdateStatus.NORMAL, spec_rule1.cvt2Uvs2NewLv(NUM_FATHER, 2, 0, 0, 0));
+        assertEquals(new Eval(null, 4, 4 * 16, 1), spec_rule1.getEval());
+        assertNull(spec_rule1.compliedBlockMemo);
+
+        /* The splits requested only once are not stored */
+        assertEquals(0, memo.size());
+
+        /* parent(?, X) :- father(X, ?) */
+        final CachedRule spec_rule2 = rule.clone();
+        assertEquals(UpdateStatus.NORMAL, spec_rule2.cvt2Uvs2NewLv(NUM_FATHER, 2, 0, 0, 1));
+        assertEquals("parent(?,X0):-father(X0,?)", spec_rule2.toDumpString(kb.getNumerationMap()));
+
+        /* The raw CB of "father" in the E-caches is shared */
+        assertSame(spec_rule1.allCache.get(0).entry.get(1), spec_rule2.allCache.get(0).entry.get(1));
+
+        /* The CBs of "father(f1,?)" and "father(f2,?)" in the E+-caches are stored on the second request */
+        final Map<Integer, CompliedBlock> father_cbs1 = fatherCbsInPosCache(spec_rule1);
+        final Map<Integer, CompliedBlock> father_cbs2 = fatherCbsInPosCache(spec_rule2);
+        assertEquals(2, father_cbs1.size());
+        assertEquals(3, father_cbs2.size());
+        final int stored_blocks = memo.size();
+        assertTrue(2 <= stored_blocks);
+        for (int constant: new int[]{NUM_F1, NUM_F2}) {
+            final CompliedBlock cb = father_cbs1.get(Argument.constant(constant));
+            assertNotNull(cb);
+            assertNotSame(cb, father_cbs2.get(Argument.constant(constant)));
+            assertArrayEquals(cb.partAsgnRecord, father_cbs2.get(Argument.constant(constant)).partAsgnRecord);
+            assertEquals(cb.complSet, father_cbs2.get(Argument.constant(constant)).complSet);
+        }
+
+        /* The stored CBs are shared from then on */
+        fingerprint_cache.clear();
+        final CachedRule spec_rule3 = rule.clone();
+        assertEquals(UpdateStatus.NORMAL, spec_rule3.cvt2Uvs2NewLv(NUM_FATHER, 2, 0, 0, 1));
+        final Map<Integer, CompliedBlock> father_cbs3 = fatherCbsInPosCache(spec_rule3);
+        /* The splits of "spec_rule2" not requested by "spec_rule1" are stored now */
+        assertTrue(stored_blocks < memo.size());
+        for (int constant: new int[]{NUM_F1, NUM_F2}) {
+            assertSame(father_cbs2.get(Argument.constant(constant)), father_cbs3.get(Argument.constant(constant)));
+        }
+    }
+
+    static Map<Integer, CompliedBlock> fatherCbsInPosCache(CachedRule rule) {
+        final Map<Integer, CompliedBlock> father_cbs = new HashMap<>();
+        for (CacheEntry entry: rule.posCache) {
+            father_cbs.put(entry.entry.get(1).partAsgnRecord[0], entry.entry.get(1));
+        }
+        return father_cbs;
+    }
+
     @Test
     void testFamilyRule1() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_PARENT, 2, fp_cache, tabu_map, kb);
@@ -227,7 +310,7 @@ class CachedRuleTest {
     void testFamilyRule2() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_PARENT, 2, fp_cache, tabu_map, kb);
@@ -296,7 +379,7 @@ class CachedRuleTest {
     void testFamilyRule3() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_GRANDPARENT, 2, fp_cache, tabu_map, kb);
@@ -385,7 +468,7 @@ class CachedRuleTest {
     void testFamilyRule4() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_GRANDPARENT, 2, fp_cache, tabu_map, kb);
@@ -462,7 +545,7 @@ class CachedRuleTest {
     void testFamilyRule5() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_GRANDPARENT, 2, fp_cache, tabu_map, kb);
@@ -528,7 +611,7 @@ class CachedRuleTest {
     void testFamilyRule6() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_GRANDPARENT, 2, fp_cache, tabu_map, kb);
@@ -601,7 +684,7 @@ class CachedRuleTest {
     void testFamilyRule7() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_PARENT, 2, fp_cache, tabu_map, kb);
@@ -641,7 +724,7 @@ class CachedRuleTest {
     void testFamilyRule8() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* father(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_FATHER, 2, fp_cache, tabu_map, kb);
@@ -733,7 +816,7 @@ class CachedRuleTest {
     void testFamilyRule9() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* father(?, ?) :- */
         final CachedRule rule1 = new CachedRule(NUM_FATHER, 2, fp_cache, tabu_map, kb);
@@ -763,7 +846,7 @@ class CachedRuleTest {
 
         /* father(?, ?) :- */
         final Set<Fingerprint> fp_cache2 = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map2 = new HashMap<>();
+        final TabuSet tabu_map2 = new TabuSet();
         final CachedRule rule2 = new CachedRule(NUM_FATHER, 2, fp_cache2, tabu_map2, kb);
         assertEquals("father(?,?):-", rule2.toDumpString(kb.getNumerationMap()));
         assertEquals(
@@ -797,7 +880,7 @@ class CachedRuleTest {
     void testFamilyRule10() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_PARENT, 2, fp_cache, tabu_map, kb);
@@ -837,7 +920,7 @@ class CachedRuleTest {
     void testCounterexample1() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* father(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_FATHER, 2, fp_cache, tabu_map, kb);
@@ -864,7 +947,7 @@ class CachedRuleTest {
     void testFamilyWithCopy1() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* grandParent(?, ?) :- */
         final CachedRule rule = new CachedRule(NUM_GRANDPARENT, 2, fp_cache, tabu_map, kb);
@@ -982,7 +1065,7 @@ class CachedRuleTest {
     void testFamilyWithCopy2() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* #1: parent(?, ?) :- */
         final CachedRule rule1 = new CachedRule(NUM_PARENT, 2, fp_cache, tabu_map, kb);
@@ -1073,7 +1156,7 @@ class CachedRuleTest {
     void testValidity1() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* father(?,?):- */
         final CachedRule rule = new CachedRule(NUM_FATHER, 2, fp_cache, tabu_map, kb);
@@ -1100,7 +1183,7 @@ class CachedRuleTest {
     void testValidity2() throws KbException {
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* father(?,?):- */
         final CachedRule rule = new CachedRule(NUM_FATHER, 2, fp_cache, tabu_map, kb);
@@ -1123,7 +1206,7 @@ class CachedRuleTest {
 
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(X, ?) :- father(X, ?) */
         final CachedRule rule = new CachedRule(NUM_PARENT, 2, fp_cache, tabu_map, kb);
@@ -1142,7 +1225,7 @@ class CachedRuleTest {
 
         final NumeratedKb kb = kbFamily();
         final Set<Fingerprint> fp_cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_map = new HashMap<>();
+        final TabuSet tabu_map = new TabuSet();
 
         /* parent(X, ?) :- father(X, ?) */
         final CachedRule rule = new CachedRule(NUM_PARENT, 2, fp_cache, tabu_map, kb);
@@ -1150,7 +1233,7 @@ class CachedRuleTest {
         assertEquals(UpdateStatus.INSUFFICIENT_COVERAGE, rule.cvt2Uvs2NewLv(NUM_FATHER, 2, 0, 0, 0));
         assertEquals(4.0 / 9.0, rule.recordCoverage());
         assertEquals(1, tabu_map.size());
-        assertTrue(tabu_map.get(new MultiSet<>(new Integer[]{NUM_FATHER})).contains(rule.getFingerprint()));
+        assertTrue(tabu_map.contains(rule.getFingerprint()));
     }
 
     @Test
@@ -1175,7 +1258,7 @@ class CachedRuleTest {
         kb.addRecords(h, new Record[]{h1, h2});
 
         /* h(X, X, Y, Y) :- p(X, Y, +) */
-        CachedRule rule = new CachedRule(h, 4, new HashSet<>(), new HashMap<>(), kb);
+        CachedRule rule = new CachedRule(h, 4, new HashSet<>(), new TabuSet(), kb);
         rule.updateCacheIndices();
         assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(p, 3, 0, 0, 0));
         rule.updateCacheIndices();
@@ -1218,7 +1301,7 @@ class CachedRuleTest {
         kb.addRecords(h, new Record[]{h1});
 
         /* h(X) :- p(X, X), q(X) */
-        CachedRule rule = new CachedRule(h, 1, new HashSet<>(), new HashMap<>(), kb);
+        CachedRule rule = new CachedRule(h, 1, new HashSet<>(), new TabuSet(), kb);
         rule.updateCacheIndices();
         assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(p, 2, 0, 0, 0));
         rule.updateCacheIndices();
@@ -1248,7 +1331,7 @@ class CachedRuleTest {
         kb.addRecords(h, new Record[]{h1, h2, h3});
 
         /* h(X, X) :- */
-        CachedRule rule = new CachedRule(h, 2, new HashSet<>(), new HashMap<>(), kb);
+        CachedRule rule = new CachedRule(h, 2, new HashSet<>(), new TabuSet(), kb);
         rule.updateCacheIndices();
         assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(0, 0, 0, 1));
         assertEquals("h(X0,X0):-", rule.toDumpString(kb.getNumerationMap()));
@@ -1278,7 +1361,7 @@ class CachedRuleTest {
         kb.addRecords(h, new Record[]{h1, h2, h3});
 
         /* h(X, X, ?) :- */
-        CachedRule rule = new CachedRule(h, 3, new HashSet<>(), new HashMap<>(), kb);
+        CachedRule rule = new CachedRule(h, 3, new HashSet<>(), new TabuSet(), kb);
         rule.updateCacheIndices();
         assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(0, 0, 0, 1));
         assertEquals("h(X0,X0,?):-", rule.toDumpString(kb.getNumerationMap()));
@@ -1296,6 +1379,314 @@ class CachedRuleTest {
         assertFalse(kb.recordIsEntailed(h, h3.args));
     }
 
+    @Test
+    void testAnyRule5() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 3).getNumeration();
+        int p = kb.createRelation("p", 2).getNumeration();
+        int a = kb.mapName("a");
+        int b = kb.mapName("b");
+        Record h1 = new Record(new int[]{a, a, b});
+        Record h2 = new Record(new int[]{b, b, a});
+        Record h3 = new Record(new int[]{a, b, b});
+        Record p1 = new Record(new int[]{a, b});
+        kb.addRecords(h, new Record[]{h1, h2, h3});
+        kb.addRecords(p, new Record[]{p1});
+
+        /* h(X, X, ?) :- p(X, ?) */
+        CachedRule rule = new CachedRule(h, 3, new HashSet<>(), new TabuSet(), kb);
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(0, 0, 0, 1));
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt1Uv2ExtLv(p, 2, 0, 0));
+        assertEquals("h(X0,X0,?):-p(X0,?)", rule.toDumpString(kb.getNumerationMap()));
+        assertEquals(new Eval(null, 1, 2, 2), rule.getEval());
+        assertEquals(1, rule.usedLimitedVars());
+        assertEquals(2, rule.length());
+        final Set<ComparableArray<Record>> expected_grounding_set = new HashSet<>();
+        expected_grounding_set.add(new ComparableArray<>(new Record[]{h1, p1}));
+        checkEvidence(rule.getEvidenceAndMarkEntailment(), new int[]{h, p}, new Set[]{expected_grounding_set});
+        assertEquals(new HashSet<>(List.of(new Record(new int[]{a, a, a}))), rule.getCounterexamples());
+    }
+
+    @Test
+    void testNewLvLinkingHeadArgs() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 4).getNumeration();
+        int p = kb.createRelation("p", 2).getNumeration();
+        int a = kb.mapName("a");
+        int b = kb.mapName("b");
+        Record h1 = new Record(new int[]{a, a, b, b});
+        Record h2 = new Record(new int[]{b, b, a, a});
+        Record h3 = new Record(new int[]{a, b, a, b});
+        Record p1 = new Record(new int[]{b, a});
+        kb.addRecords(h, new Record[]{h1, h2, h3});
+        kb.addRecords(p, new Record[]{p1});
+
+        /* h(X, X, Y, Y) :- */
+        /* The LVs only in the head are not PLVs, and the E-cache remains the same */
+        CachedRule rule = new CachedRule(h, 4, new HashSet<>(), new TabuSet(), kb);
+        rule.updateCacheIndices();
+        final List<CacheEntry> all_cache = rule.allCache;
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(0, 0, 0, 1));
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(0, 2, 0, 3));
+        assertEquals("h(X0,X0,X1,X1):-", rule.toDumpString(kb.getNumerationMap()));
+        assertEquals(Arrays.asList(null, null), rule.plvList);
+        assertSame(all_cache, rule.allCache);
+
+        /* h(X, X, Y, Y) :- p(Y, ?) */
+        /* The second LV is extended to the body */
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt1Uv2ExtLv(p, 2, 0, 1));
+        assertEquals("h(X0,X0,X1,X1):-p(X1,?)", rule.toDumpString(kb.getNumerationMap()));
+        assertEquals(2, rule.plvList.size());
+        assertEquals(new Eval(null, 1, 2, 3), rule.getEval());
+    }
+
+    @Test
+    void testReuseBodyBindingsCount() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 3).getNumeration();
+        int p = kb.createRelation("p", 2).getNumeration();
+        int a = kb.mapName("a");
+        int b = kb.mapName("b");
+        Record h1 = new Record(new int[]{a, a, b});
+        Record h2 = new Record(new int[]{b, b, a});
+        Record h3 = new Record(new int[]{a, b, b});
+        Record p1 = new Record(new int[]{a, b});
+        Record p2 = new Record(new int[]{b, b});
+        kb.addRecords(h, new Record[]{h1, h2, h3});
+        kb.addRecords(p, new Record[]{p1, p2});
+
+        /* h(X, ?, ?) :- p(X, ?) */
+        RuleMonitor monitor = new RuleMonitor();
+        CachedRule rule = new CachedRule(kb.getRelation(h), 3, new HashSet<>(), new TabuSet(), kb, monitor, 0);
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(p, 2, 0, 0, 0));
+        rule.updateCacheIndices();
+        assertEquals(new Eval(null, 3, 2 * 2 * 2, 1), rule.getEval());
+        assertEquals(0, monitor.reusedBodyBindingsCounts.sum());
+
+        /* h(X, X, ?) :- p(X, ?) */
+        /* The E-cache is not changed by the specialization in the head, thus the count of body bindings is reused */
+        CachedRule rule2 = rule.clone();
+        assertEquals(UpdateStatus.NORMAL, rule2.cvt1Uv2ExtLv(0, 1, 0));
+        assertEquals("h(X0,X0,?):-p(X0,?)", rule2.toDumpString(kb.getNumerationMap()));
+        assertEquals(new Eval(null, 2, 2 * 2, 2), rule2.getEval());
+        assertSame(rule.bodyBindingsCount, rule2.bodyBindingsCount);
+
+        /* h(X, ?, b) :- p(X, ?) */
+        CachedRule rule3 = rule.clone();
+        assertEquals(UpdateStatus.NORMAL, rule3.cvt1Uv2Const(0, 2, b));
+        assertEquals("h(X0,?,b):-p(X0,?)", rule3.toDumpString(kb.getNumerationMap()));
+        assertEquals(new Eval(null, 2, 2 * 2, 2), rule3.getEval());
+        assertSame(rule.bodyBindingsCount, rule3.bodyBindingsCount);
+
+        /* h(X, Y, ?) :- p(X, Y) */
+        /* The E-cache is split, thus the body bindings are counted again */
+        CachedRule rule4 = rule.clone();
+        assertEquals(UpdateStatus.NORMAL, rule4.cvt2Uvs2NewLv(0, 1, 1, 1));
+        assertEquals("h(X0,X1,?):-p(X0,X1)", rule4.toDumpString(kb.getNumerationMap()));
+        assertEquals(new Eval(null, 2, 2 * 2, 2), rule4.getEval());
+        assertNotSame(rule.bodyBindingsCount, rule4.bodyBindingsCount);
+        assertEquals(2, monitor.reusedBodyBindingsCounts.sum());
+    }
+
+    @Test
+    void testCountBodyPlvBindings() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 3).getNumeration();
+        int p = kb.createRelation("p", 2).getNumeration();
+        int q = kb.createRelation("q", 2).getNumeration();
+        int a = kb.mapName("a");
+        int b = kb.mapName("b");
+        int c = kb.mapName("c");
+        Record h1 = new Record(new int[]{a, a, a});
+        Record h2 = new Record(new int[]{b, b, c});
+        Record h3 = new Record(new int[]{c, a, b});
+        Record p1 = new Record(new int[]{a, a});
+        Record p2 = new Record(new int[]{b, a});
+        Record p3 = new Record(new int[]{c, b});
+        Record q1 = new Record(new int[]{a, a});
+        Record q2 = new Record(new int[]{b, a});
+        Record q3 = new Record(new int[]{a, b});
+        kb.addRecords(h, new Record[]{h1, h2, h3});
+        kb.addRecords(p, new Record[]{p1, p2, p3});
+        kb.addRecords(q, new Record[]{q1, q2, q3});
+
+        /* h(X, Y, ?) :- p(X, ?), q(Y, ?) */
+        /* The PLVs in different predicates: {a, b, c} x {a, b} */
+        CachedRule rule = new CachedRule(h, 3, new HashSet<>(), new TabuSet(), kb);
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(p, 2, 0, 0, 0));
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(q, 2, 0, 0, 1));
+        rule.updateCacheIndices();
+        assertEquals("h(X0,X1,?):-p(X0,?),q(X1,?)", rule.toDumpString(kb.getNumerationMap()));
+        assertEquals(new Eval(null, 3, 3 * 2 * 3, 2), rule.getEval());
+
+        /* h(X, Y, ?) :- p(X, Z), q(Y, Z) */
+        /* Z=a: {a, b} x {a, b}; Z=b: {c} x {a} */
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(1, 1, 2, 1));
+        rule.updateCacheIndices();
+        assertEquals("h(X0,X1,?):-p(X0,X2),q(X1,X2)", rule.toDumpString(kb.getNumerationMap()));
+        assertEquals(new Eval(null, 3, (2 * 2 + 1) * 3, 3), rule.getEval());
+    }
+
+    @Test
+    void testApproxEval() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 3).getNumeration();
+        int p = kb.createRelation("p", 2).getNumeration();
+        int a = kb.mapName("a");
+        int b = kb.mapName("b");
+        Record h1 = new Record(new int[]{a, a, b});
+        Record h2 = new Record(new int[]{b, b, a});
+        Record h3 = new Record(new int[]{a, b, b});
+        Record p1 = new Record(new int[]{a, b});
+        Record p2 = new Record(new int[]{b, b});
+        kb.addRecords(h, new Record[]{h1, h2, h3});
+        kb.addRecords(p, new Record[]{p1, p2});
+
+        /* h(X, Y, ?) :- p(X, Y) */
+        /* The estimations are exact in small KBs */
+        CachedRule rule = new CachedRule(kb.getRelation(h), 3, new HashSet<>(), new TabuSet(), kb, null, 0.1);
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(p, 2, 0, 0, 0));
+        assertTrue(rule.evalIsApproximated());
+        assertEquals(new Eval(null, 3, 2 * 2 * 2, 1), rule.getApproxEval());
+        assertEquals(new Eval(null, 3, 2 * 2 * 2, 1), rule.getEval());
+        assertFalse(rule.evalIsApproximated());
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(0, 1, 1, 1));
+        assertEquals("h(X0,X1,?):-p(X0,X1)", rule.toDumpString(kb.getNumerationMap()));
+        assertTrue(rule.evalIsApproximated());
+        assertEquals(new Eval(null, 2, 2 * 2, 2), rule.getApproxEval());
+
+        /* The exact evaluation is calculated on demand */
+        CachedRule rule2 = rule.clone();
+        assertTrue(rule2.evalIsApproximated());
+        assertEquals(new Eval(null, 2, 2 * 2, 2), rule2.getEval());
+        assertFalse(rule2.evalIsApproximated());
+        assertTrue(rule.evalIsApproximated());
+    }
+
+    @Test
+    void testApproxEvalOnSampledCache() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 1).getNumeration();
+        int p = kb.createRelation("p", 1).getNumeration();
+        int q = kb.createRelation("q", 1).getNumeration();
+        for (int i = 0; i < 1000; i++) {
+            kb.addRecords(h, new Record[]{new Record(new int[]{kb.mapName("c" + i)})});
+            Record record = new Record(new int[]{kb.mapName((i < 500 ? "c" : "d") + i)});
+            kb.addRecords(p, new Record[]{record});
+            kb.addRecords(q, new Record[]{record});
+        }
+
+        /* h(X) :- p(X), q(X) */
+        /* The E+-cache is sampled as it is larger than the sketches, and the estimation is still optimistic */
+        final double tolerance = 1.0;
+        CachedRule rule = new CachedRule(kb.getRelation(h), 1, new HashSet<>(), new TabuSet(), kb, null, tolerance);
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(p, 1, 0, 0, 0));
+        assertEquals(new Eval(null, 500, 1000, 1), rule.getEval());
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt1Uv2ExtLv(q, 1, 0, 0));
+        assertEquals("h(X0):-p(X0),q(X0)", rule.toDumpString(kb.getNumerationMap()));
+        assertTrue(1 < CachedRule.samplingStride(rule.posCache, KmvSketch.sizeForError(tolerance)));
+        Eval approx_eval = rule.getApproxEval();
+        assertEquals(new Eval(null, 500, 1000, 2), rule.getEval());
+        assertTrue(500 <= approx_eval.getPosEtls());
+        assertTrue(1000 >= approx_eval.getAllEtls());
+    }
+
+    @Test
+    void testForEachSampledEntry() {
+        List<CacheEntry> cache = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            cache.add(new CacheEntry(new ArrayList<>(), new ArrayList<>()));
+        }
+        List<CacheEntry> sample = new ArrayList<>();
+        CachedRule.forEachSampledEntry(cache, 10, sample::add);
+        assertTrue(800 <= sample.size() && 1200 >= sample.size());
+        assertEquals(new HashSet<>(sample).size(), sample.size());
+
+        /* The sample is the same in every run */
+        List<CacheEntry> sample2 = new ArrayList<>();
+        CachedRule.forEachSampledEntry(cache, 10, sample2::add);
+        assertEquals(sample, sample2);
+
+        /* All entries are visited with stride 1 */
+        sample.clear();
+        CachedRule.forEachSampledEntry(cache, 1, sample::add);
+        assertEquals(cache, sample);
+    }
+
+    @Test
+    void testSampledHead() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        KbRelation h_relation = kb.createRelation("h", 2);
+        int h = h_relation.getNumeration();
+        int p = kb.createRelation("p", 2).getNumeration();
+        int a = kb.mapName("a");
+        int b = kb.mapName("b");
+        int c = kb.mapName("c");
+        Record h1 = new Record(new int[]{a, b});
+        Record h2 = new Record(new int[]{b, c});
+        Record h3 = new Record(new int[]{c, a});
+        Record h4 = new Record(new int[]{a, c});
+        Record p1 = new Record(new int[]{a, b});
+        Record p2 = new Record(new int[]{b, c});
+        Record p3 = new Record(new int[]{c, a});
+        kb.addRecords(h, new Record[]{h1, h2, h3, h4});
+        kb.addRecords(p, new Record[]{p1, p2, p3});
+        KbRelation h_sample = new KbRelation("h", h, 2);
+        h_sample.addRecords(new Record[]{h1, h4});
+
+        /* h(X, Y) :- p(X, Y) */
+        /* The positive entailments in the sample are scaled by the sample rate 1/2 */
+        CachedRule rule = new CachedRule(h_sample, 2, new HashSet<>(), new TabuSet(), kb);
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(p, 2, 0, 0, 0));
+        rule.updateCacheIndices();
+        assertEquals(UpdateStatus.NORMAL, rule.cvt2Uvs2NewLv(0, 1, 1, 1));
+        assertEquals("h(X0,X1):-p(X0,X1)", rule.toDumpString(kb.getNumerationMap()));
+        assertEquals(new Eval(null, 1 * 2, 3, 2), rule.getEval());
+
+        /* Verify on the entire relation */
+        List<Predicate> structure = new ArrayList<>();
+        for (int pred_idx = Rule.HEAD_PRED_IDX; pred_idx < rule.predicates(); pred_idx++) {
+            structure.add(rule.getPredicate(pred_idx));
+        }
+        CachedRule verified_rule = new CachedRule(structure, new HashSet<>(), new TabuSet(), kb);
+        assertEquals(new Eval(null, 3, 3, 2), verified_rule.getEval());
+        assertEquals(4, h_relation.totalRecords());
+    }
+
+    @Test
+    void testCounterexampleStreaming() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 3).getNumeration();
+        int a = kb.mapName("a");
+        int b = kb.mapName("b");
+        Record h1 = new Record(new int[]{a, a, b});
+        Record h2 = new Record(new int[]{b, b, a});
+        Record h3 = new Record(new int[]{a, b, b});
+        kb.addRecords(h, new Record[]{h1, h2, h3});
+
+        /* h(X, ?, ?) :- */
+        CachedRule rule = new CachedRule(h, 3, new HashSet<>(), new TabuSet(), kb);
+        KbRelation ce_relation = new KbRelation("h", h, 3);
+        rule.forEachCounterexample(ce_relation::addRecordUnchecked);
+        assertEquals(2 * 2 * 2 - 3, ce_relation.totalRecords());
+        assertEquals(rule.getCounterexamples(), ce_relation.getRecords());
+        assertFalse(ce_relation.hasRecord(h1));
+        assertFalse(ce_relation.hasRecord(h2));
+        assertFalse(ce_relation.hasRecord(h3));
+    }
+
     @Test
     void testStructureConstructor1() throws KbException {
         /* h(X, Y, X, ?, a, ?) :- p(Y, Z, Z) */
@@ -1330,7 +1721,7 @@ class CachedRuleTest {
                 new Predicate(p, new int[]{
                         Argument.variable(1), Argument.variable(2), Argument.variable(2)
                 }))),
-                new HashSet<>(), new HashMap<>(), kb
+                new HashSet<>(), new TabuSet(), kb
         );
         assertEquals("h(X0,X1,X0,?,a,?):-p(X1,X2,X2)", rule.toDumpString(kb.getNumerationMap()));
         assertEquals(new Eval(null, 1, 4 * 5 * 5 * 5, 4), rule.getEval());
@@ -1407,7 +1798,7 @@ class CachedRuleTest {
                 }),
                 new Predicate(s, new int[]{Argument.constant(a)}),
                 new Predicate(r, new int[]{Argument.variable(0)}))),
-                new HashSet<>(), new HashMap<>(), kb
+                new HashSet<>(), new TabuSet(), kb
         );
         assertEquals("h(?,X0,X0,?):-p(a,X0,?),q(X0,?,X0),s(a),r(X0)", rule.toDumpString(kb.getNumerationMap()));
         assertEquals(new Eval(null, 1, 1 * 5 * 5, 7), rule.getEval());
@@ -0,0 +1,242 @@
+package sinc2.impl.base;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sinc2.DependencyGraph;
+import sinc2.SInC;
+import sinc2.common.Argument;
+import sinc2.common.Predicate;
+import sinc2.common.RuleMonitor;
+import sinc2.kb.KbException;
+import sinc2.kb.KbRelation;
+import sinc2.kb.NumeratedKb;
+import sinc2.kb.Record;
+import sinc2.rule.EvalMetric;
+import sinc2.rule.Fingerprint;
+import sinc2.rule.Rule;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelationMinerBasicTest {
+
+    /**
+     * A miner that searches the rules on the given samples in order.
+     */
+    static class FixedSampleMiner extends RelationMinerBasic {
+        final Deque<Record[]> samples;
+        int sampled = 0;
+
+        FixedSampleMiner(NumeratedKb kb, int targetRelation, int sampleSize, PrintWriter logger, Record[]... samples) {
+            super(
+                    kb, targetRelation, EvalMetric.CompressionCapacity, 1, 1.0, new DependencyGraph(kb, false), null,
+                    new RuleMonitor(), logger, sampleSize, 0
+            );
+            this.samples = new ArrayDeque<>(List.of(samples));
+        }
+
+        @Override
+        protected KbRelation sampleTargetRelation(KbRelation targetRelation) {
+            sampled++;
+            final KbRelation sample = new KbRelation(
+                    targetRelation.getName(), targetRelation.getNumeration(), targetRelation.getArity()
+            );
+            for (Record record: samples.removeFirst()) {
+                sample.addRecordUnchecked(record);
+            }
+            return sample;
+        }
+
+        /**
+         * Check that the rule is rejected and not in the tabu set.
+         */
+        boolean onlyRejected(Fingerprint fingerprint) {
+            return rejectedFingerprints.contains(fingerprint) && !tabuSet.contains(fingerprint);
+        }
+    }
+
+    @BeforeEach
+    void resetInterruption() {
+        /* The flag is left set by the SInC runs in other tests */
+        SInC.interrupted = false;
+    }
+
+    @Test
+    void testSampleTargetRelation() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 2).getNumeration();
+        KbRelation h_relation = kb.getRelation(h);
+        for (int i = 0; i < 100; i++) {
+            int c = kb.mapName("c" + i);
+            kb.addRecords(h, new Record[]{new Record(new int[]{c, c})});
+            if (0 == i % 3) {
+                kb.setAsEntailed(h, new int[]{c, c});
+            }
+        }
+
+        RelationMinerBasic miner = new RelationMinerBasic(
+                kb, h, EvalMetric.CompressionCapacity, 1, 1.0, new DependencyGraph(kb, false), null,
+                new RuleMonitor(), new PrintWriter(new StringWriter()), 10, 0
+        );
+        KbRelation sample = miner.sampleTargetRelation(h_relation);
+        assertEquals(h, sample.getNumeration());
+        assertEquals(10, sample.totalRecords());
+        int entailed = 0;
+        for (Record record: sample) {
+            assertTrue(h_relation.hasRecord(record));
+            assertEquals(h_relation.recordIsEntailed(record), sample.recordIsEntailed(record));
+            entailed += sample.recordIsEntailed(record) ? 1 : 0;
+        }
+        assertTrue(0 < entailed);
+        assertTrue(10 > entailed);
+
+        /* A fresh sample is drawn on each invocation */
+        assertNotEquals(sample.getRecords(), new HashSet<>(miner.sampleTargetRelation(h_relation).getRecords()));
+        assertEquals(100, h_relation.totalRecords());
+    }
+
+    @Test
+    void testSampledStartRule() throws KbException {
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 1).getNumeration();
+        for (int i = 0; i < 10; i++) {
+            kb.addRecords(h, new Record[]{new Record(new int[]{kb.mapName("c" + i)})});
+        }
+
+        /* No sampling if the relation is not larger than the sample size */
+        RelationMinerBasic miner = new RelationMinerBasic(
+                kb, h, EvalMetric.CompressionCapacity, 1, 1.0, new DependencyGraph(kb, false), null,
+                new RuleMonitor(), new PrintWriter(new StringWriter()), 10, 0
+        );
+        CachedRule rule = (CachedRule) miner.getStartRule();
+        assertEquals(1.0, rule.headSampleRate);
+        assertSame(kb.getRelation(h), rule.headRelation);
+
+        miner = new RelationMinerBasic(
+                kb, h, EvalMetric.CompressionCapacity, 1, 1.0, new DependencyGraph(kb, false), null,
+                new RuleMonitor(), new PrintWriter(new StringWriter()), 4, 0
+        );
+        rule = (CachedRule) miner.getStartRule();
+        assertEquals(0.4, rule.headSampleRate, 1e-9);
+        assertEquals(4, rule.headRelation.totalRecords());
+    }
+
+    @Test
+    void testFindRuleRejectedOnEntireRelation() throws KbException {
+        /*
+         * h = {c0, ..., c9}, p = {c0, c1, d0, ..., d3}, q = {c0, ..., c9}
+         * The first sample {c0, c1} favors the rules with p, which are not useful on the entire relation. The rule is
+         * rejected and searched again on the second sample.
+         */
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 1).getNumeration();
+        int p = kb.createRelation("p", 1).getNumeration();
+        int q = kb.createRelation("q", 1).getNumeration();
+        Record[] c = new Record[10];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = new Record(new int[]{kb.mapName("c" + i)});
+        }
+        kb.addRecords(h, c);
+        kb.addRecords(q, c);
+        kb.addRecords(p, new Record[]{c[0], c[1]});
+        for (int i = 0; i < 4; i++) {
+            kb.addRecords(p, new Record[]{new Record(new int[]{kb.mapName("d" + i)})});
+        }
+        kb.updatePromisingConstants();
+
+        StringWriter log = new StringWriter();
+        FixedSampleMiner miner = new FixedSampleMiner(
+                kb, h, 5, new PrintWriter(log), new Record[]{c[0], c[1]}, Arrays.copyOfRange(c, 2, 7)
+        );
+        Rule rule = miner.findRule();
+        assertNotNull(rule);
+        assertEquals("h(X0):-q(X0)", rule.toDumpString(kb.getNumerationMap()));
+        assertTrue(rule.getEval().useful());
+        assertEquals(1.0, ((CachedRule) rule).headSampleRate);
+        assertEquals(2, miner.sampled);
+        assertTrue(miner.onlyRejected(new Fingerprint(List.of(
+                new Predicate(h, new int[]{Argument.variable(0)}), new Predicate(p, new int[]{Argument.variable(0)})
+        ))));
+        assertTrue(log.toString().contains("Rejected on the entire relation"));
+    }
+
+    @Test
+    void testFindRuleStopsWhenNoRuleFound() throws KbException {
+        /*
+         * h = {c0, ..., c9}, p = {c0, c1, d0, ..., d3}, r = {e0, ..., e19}
+         * The rule with p found on the first sample is rejected, and no rule can be found on the second sample.
+         */
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 1).getNumeration();
+        int p = kb.createRelation("p", 1).getNumeration();
+        int r = kb.createRelation("r", 1).getNumeration();
+        Record[] c = new Record[10];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = new Record(new int[]{kb.mapName("c" + i)});
+        }
+        kb.addRecords(h, c);
+        kb.addRecords(p, new Record[]{c[0], c[1]});
+        for (int i = 0; i < 4; i++) {
+            kb.addRecords(p, new Record[]{new Record(new int[]{kb.mapName("d" + i)})});
+        }
+        for (int i = 0; i < 20; i++) {
+            kb.addRecords(r, new Record[]{new Record(new int[]{kb.mapName("e" + i)})});
+        }
+        kb.updatePromisingConstants();
+
+        FixedSampleMiner miner = new FixedSampleMiner(
+                kb, h, 5, new PrintWriter(new StringWriter()), new Record[]{c[0], c[1]}, Arrays.copyOfRange(c, 2, 7)
+        );
+        assertNull(miner.findRule());
+        assertEquals(2, miner.sampled);
+        assertTrue(miner.onlyRejected(new Fingerprint(List.of(
+                new Predicate(h, new int[]{Argument.variable(0)}), new Predicate(p, new int[]{Argument.variable(0)})
+        ))));
+    }
+
+    @Test
+    void testFindSpecializationOfRejectedRule() throws KbException {
+        /*
+         * h = {c0, ..., c9}, p = {c0, ..., c4, d0, ..., d3}, q = {c0, ..., c4, e0, ..., e9}, r = {f0, ..., f19}
+         * "h(X):-p(X)" found on the first sample {c0, c1} is rejected, as it is not useful on the entire relation. Its
+         * specialization "h(X):-q(X),p(X)" is useful and found on the second sample.
+         */
+        NumeratedKb kb = new NumeratedKb("test");
+        int h = kb.createRelation("h", 1).getNumeration();
+        int p = kb.createRelation("p", 1).getNumeration();
+        int q = kb.createRelation("q", 1).getNumeration();
+        int r = kb.createRelation("r", 1).getNumeration();
+        Record[] c = new Record[10];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = new Record(new int[]{kb.mapName("c" + i)});
+        }
+        kb.addRecords(h, c);
+        kb.addRecords(p, Arrays.copyOfRange(c, 0, 5));
+        kb.addRecords(q, Arrays.copyOfRange(c, 0, 5));
+        for (int i = 0; i < 4; i++) {
+            kb.addRecords(p, new Record[]{new Record(new int[]{kb.mapName("d" + i)})});
+        }
+        for (int i = 0; i < 10; i++) {
+            kb.addRecords(q, new Record[]{new Record(new int[]{kb.mapName("e" + i)})});
+        }
+        for (int i = 0; i < 20; i++) {
+            kb.addRecords(r, new Record[]{new Record(new int[]{kb.mapName("f" + i)})});
+        }
+        kb.updatePromisingConstants();
+
+        FixedSampleMiner miner = new FixedSampleMiner(
+                kb, h, 5, new PrintWriter(new StringWriter()), new Record[]{c[0], c[1]}, Arrays.copyOfRange(c, 2, 7)
+        );
+        Rule rule = miner.findRule();
+        assertNotNull(rule);
+        assertEquals("h(X0):-q(X0),p(X0)", rule.toDumpString(kb.getNumerationMap()));
+        assertTrue(rule.getEval().useful());
+        assertEquals(2, miner.sampled);
+        assertTrue(miner.onlyRejected(new Fingerprint(List.of(
+                new Predicate(h, new int[]{Argument.variable(0)}), new Predicate(p, new int[]{Argument.variable(0)})
+        ))));
+    }
+}
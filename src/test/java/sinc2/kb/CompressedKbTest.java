@@ -8,9 +8,10 @@ import sinc2.common.Predicate;
 import sinc2.rule.BareRule;
 import sinc2.rule.Rule;
 import sinc2.rule.RuleParseException;
+import sinc2.rule.TabuSet;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 
@@ -56,7 +57,7 @@ class CompressedKbTest {
                         Argument.EMPTY_VALUE, Argument.variable(0), Argument.variable(1)
                 })
         );
-        Rule rule_father = new BareRule(rule_father_structure, new HashSet<>(), new HashMap<>());
+        Rule rule_father = new BareRule(rule_father_structure, new HashSet<>(), new TabuSet());
         List<Predicate> rule_mother_structure = List.of(
                 new Predicate(ckb.name2Num("mother"), new int[]{
                         Argument.variable(0), Argument.constant(ckb.name2Num("catherine"))
@@ -65,7 +66,7 @@ class CompressedKbTest {
                         Argument.variable(0), Argument.EMPTY_VALUE, Argument.constant(ckb.name2Num("catherine"))
                 })
         );
-        Rule rule_mother = new BareRule(rule_mother_structure, new HashSet<>(), new HashMap<>());
+        Rule rule_mother = new BareRule(rule_mother_structure, new HashSet<>(), new TabuSet());
 
         assertEquals("father(X0,X1):-family(?,X0,X1)", rule_father.toDumpString(ckb.numMap));
         assertEquals("mother(X0,catherine):-family(X0,?,catherine)", rule_mother.toDumpString(ckb.numMap));
@@ -132,7 +133,7 @@ class CompressedKbTest {
                         Argument.variable(0), Argument.EMPTY_VALUE, Argument.constant(ckb.name2Num("catherine"))
                 })
         );
-        Rule rule_mother = new BareRule(rule_mother_structure, new HashSet<>(), new HashMap<>());
+        Rule rule_mother = new BareRule(rule_mother_structure, new HashSet<>(), new TabuSet());
         List<Predicate> rule_mother_structure2 = List.of(
                 new Predicate(ckb.name2Num("mother"), new int[]{
                         Argument.variable(0), Argument.variable(1)
@@ -141,7 +142,7 @@ class CompressedKbTest {
                         Argument.variable(0), Argument.EMPTY_VALUE, Argument.variable(1)
                 })
         );
-        Rule rule_mother2 = new BareRule(rule_mother_structure2, new HashSet<>(), new HashMap<>());
+        Rule rule_mother2 = new BareRule(rule_mother_structure2, new HashSet<>(), new TabuSet());
         assertEquals("mother(X0,catherine):-family(X0,?,catherine)", rule_mother.toDumpString(ckb.numMap));
         assertEquals("mother(X0,X1):-family(X0,?,X1)", rule_mother2.toDumpString(ckb.numMap));
         ckb.removeHypothesisRule(rule_mother);
@@ -163,4 +164,20 @@ class CompressedKbTest {
         assertEquals(0, ckb.totalSupplementaryConstants());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testAddNecessaryRecordsConcurrently() throws IOException, KbException {
+        NumeratedKb kb = new NumeratedKb(testKbManager.getKbName(), TestKbManager.MEM_DIR, true);
+        CompressedKb ckb = new CompressedKb("test", kb);
+        kb.getRelations().parallelStream().forEach(relation -> {
+            try {
+                ckb.addNecessaryRecords(relation.getNumeration(), new ArrayList<>(relation.getRecords()));
+            } catch (KbException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(kb.totalRecords(), ckb.totalNecessaryRecords());
+        assertEquals(0, ckb.totalSupplementaryConstants());
+        assertEquals(kb.getAllConstants(), ckb.getAllConstants());
+    }
+}
@@ -6,8 +6,10 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -336,4 +338,79 @@ class KbRelationTest {
         relation.updatePromisingConstants();
         assertArrayEquals(new int[][]{new int[]{1, 2}, new int[]{3}}, relation.getPromisingConstants());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testArgumentIndices() throws IOException, KbException {
+        KbRelation relation = new KbRelation(
+                "family", 1, 3, 4, testKbManager.getKbPath(), null
+        );
+        relation.addRecord(new Record(new int[]{4, 4, 4}));
+        relation.entailRecord(new Record(new int[]{4, 4, 4}));
+        Map<Integer, Set<Record>>[] indices = relation.getArgumentIndices();
+        assertEquals(3, indices.length);
+        assertEquals(new HashSet<>(List.of(4, 7, 0xa, 0xd)), indices[0].keySet());
+        assertEquals(
+                new HashSet<>(List.of(new Record(new int[]{4, 5, 6}), new Record(new int[]{4, 4, 4}))),
+                indices[0].get(4)
+        );
+        assertEquals(new HashSet<>(List.of(new Record(new int[]{4, 4, 4}))), indices[1].get(4));
+        assertNull(indices[2].get(5));
+        RecordIndex[] record_indices = relation.getArgumentRecordIndices();
+        assertEquals(4, record_indices[0].size());
+        int[] values = record_indices[0].values().clone();
+        Arrays.sort(values);
+        assertArrayEquals(new int[]{4, 7, 0xa, 0xd}, values);
+        assertEquals(indices[0].get(4), record_indices[0].get(4));
+        assertNull(record_indices[2].get(5));
+
+        /* The last row is moved on removal. Indices and entailment should follow the move. */
+        relation.removeRecord(new Record(new int[]{4, 5, 6}));
+        assertEquals(new HashSet<>(List.of(new Record(new int[]{4, 4, 4}))), indices[0].get(4));
+        assertNull(indices[1].get(5));
+        assertFalse(indices[2].containsKey(6));
+        assertFalse(record_indices[2].containsKey(6));
+        assertTrue(relation.recordIsEntailed(new Record(new int[]{4, 4, 4})));
+        assertFalse(relation.recordIsEntailed(new Record(new int[]{7, 8, 9})));
+        checkRecordSet(new HashSet<>(List.of(
+                new Record(new int[]{4, 4, 4}), new Record(new int[]{7, 8, 9}), new Record(new int[]{0xa, 0xb, 0xc}),
+                new Record(new int[]{0xd, 0xe, 0xf})
+        )), relation);
+    }
+
+    @Test
+    void testRecordsAreCopies() throws IOException, KbException {
+        KbRelation relation = new KbRelation(
+                "family", 1, 3, 4, testKbManager.getKbPath(), null
+        );
+
+        /* The records are created on access and equal to the rows */
+        Record record_789 = relation.getArgumentIndices()[0].get(7).iterator().next();
+        assertEquals(new Record(new int[]{7, 8, 9}), record_789);
+        assertEquals(record_789, relation.getArgumentRecordIndices()[1].get(8).iterator().next());
+        int row = relation.rowOf(new int[]{7, 8, 9});
+        assertEquals(record_789, relation.recordAt(row));
+
+        /* Modifying a record does not change the relation */
+        record_789.args[0] = 0xd;
+        assertTrue(relation.hasRecord(new Record(new int[]{7, 8, 9})));
+        assertEquals(new Record(new int[]{7, 8, 9}), relation.recordAt(row));
+        assertEquals(1, relation.getArgumentRecordIndices()[0].get(0xd).size());
+    }
+
+    @Test
+    void testReadLargeFile() throws IOException, KbException {
+        /* The records are read in multiple batches */
+        KbRelation relation = new KbRelation("large", 1, 2);
+        Set<Record> expected_records = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            Record record = new Record(new int[]{i, i % 7});
+            relation.addRecord(record);
+            expected_records.add(record);
+        }
+        String tmp_dir_path = testKbManager.createTmpDir();
+        relation.dump(tmp_dir_path);
+        KbRelation relation2 = new KbRelation("large", 1, 2, 20000, tmp_dir_path, null);
+        checkRecordSet(expected_records, relation2);
+        assertEquals(20000 / 7 + 1, relation2.getArgumentIndices()[1].get(0).size());
+    }
+}
@@ -127,6 +127,21 @@ class NumeratedKbTest {
         assertTrue(kb.hasRecord(3, new Record(new int[]{16, 17})));
     }
 
+    @Test
+    void testReadInParallel() throws KbException, IOException {
+        NumeratedKb kb = new NumeratedKb(testKbManager.getKbName(), TestKbManager.MEM_DIR, true, 1);
+        NumeratedKb kb2 = new NumeratedKb(testKbManager.getKbName(), TestKbManager.MEM_DIR, true, 4);
+
+        assertEquals(kb.totalMappings(), kb2.totalMappings());
+        assertEquals(3, kb2.totalRelations());
+        assertEquals(12, kb2.totalRecords());
+        for (KbRelation relation: kb.getRelations()) {
+            assertEquals(relation.getRecords(), kb2.getRelation(relation.getNumeration()).getRecords());
+        }
+        assertEquals(kb.constants, kb2.constants);
+        assertEquals(28, kb2.constants.size());
+    }
+
     @Test
     void testWrite() throws KbException, IOException {
         NumeratedKb kb = new NumeratedKb(testKbManager.getKbName(), TestKbManager.MEM_DIR, false);
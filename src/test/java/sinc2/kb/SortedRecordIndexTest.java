@@ -0,0 +1,61 @@
+package sinc2.kb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedRecordIndexTest {
+
+    @Test
+    void testBuildAll() {
+        Record r1 = new Record(new int[]{3, 1});
+        Record r2 = new Record(new int[]{1, 1});
+        Record r3 = new Record(new int[]{3, 2});
+        Record r4 = new Record(new int[]{-5, 2});
+        SortedRecordIndex[] indices = SortedRecordIndex.buildAll(List.of(r1, r2, r3, r4), 2);
+        assertEquals(2, indices.length);
+
+        assertEquals(3, indices[0].size());
+        assertArrayEquals(new int[]{-5, 1, 3}, indices[0].values());
+        assertEquals(new HashSet<>(List.of(r1, r3)), indices[0].get(3));
+        assertEquals(new HashSet<>(List.of(r2)), indices[0].get(1));
+        assertEquals(new HashSet<>(List.of(r4)), indices[0].get(-5));
+        assertNull(indices[0].get(2));
+        assertFalse(indices[0].containsKey(2));
+
+        assertArrayEquals(new int[]{1, 2}, indices[1].values());
+        Set<Record> records = indices[1].get(2);
+        assertEquals(2, records.size());
+        assertTrue(records.contains(new Record(new int[]{3, 2})));
+        assertFalse(records.contains(new Record(new int[]{3, 1})));
+        assertFalse(records.contains(new Record(new int[]{4, 2})));
+    }
+
+    @Test
+    void testEmpty() {
+        SortedRecordIndex index = SortedRecordIndex.build(new HashSet<>(), 0);
+        assertEquals(0, index.size());
+        assertEquals(0, index.values().length);
+        assertNull(index.get(0));
+    }
+
+    @Test
+    void testRandomRecords() {
+        Random random = new Random(0);
+        Set<Record> records = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            records.add(new Record(new int[]{random.nextInt(50), random.nextInt(1000)}));
+        }
+        Map<Integer, Set<Record>> expected_index = new HashMap<>();
+        for (Record record: records) {
+            expected_index.computeIfAbsent(record.args[0], k -> new HashSet<>()).add(record);
+        }
+        SortedRecordIndex index = SortedRecordIndex.build(records, 0);
+        assertEquals(expected_index.size(), index.size());
+        for (int value: index.values()) {
+            assertEquals(expected_index.get(value), index.get(value));
+        }
+    }
+}
@@ -9,7 +9,6 @@ import sinc2.kb.NumeratedKb;
 import sinc2.kb.NumerationMap;
 import sinc2.util.MultiSet;
 
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 
@@ -143,6 +142,35 @@ class FingerprintTest {
         assertEquals(finger_print2, finger_print1);
     }
 
+    @Test
+    void testCanonicalCode() {
+        /* R1: h(X, Y) <- h(Y, X), p(Y, ?) */
+        /* R2: h(Y, X) <- p(X, ?), h(X, Y) */
+        /* R3: h(X, Y) <- h(X, Y), p(Y, ?) */
+        final Predicate head1 = new Predicate(NUM_H, new int[]{Argument.variable(0), Argument.variable(1)});
+        final Predicate body11 = new Predicate(NUM_H, new int[]{Argument.variable(1), Argument.variable(0)});
+        final Predicate body12 = new Predicate(NUM_P, new int[]{Argument.variable(1), Argument.EMPTY_VALUE});
+        final Fingerprint finger_print1 = new Fingerprint(List.of(head1, body11, body12));
+
+        final Predicate head2 = new Predicate(NUM_H, new int[]{Argument.variable(1), Argument.variable(0)});
+        final Predicate body21 = new Predicate(NUM_P, new int[]{Argument.variable(0), Argument.EMPTY_VALUE});
+        final Predicate body22 = new Predicate(NUM_H, new int[]{Argument.variable(0), Argument.variable(1)});
+        final Fingerprint finger_print2 = new Fingerprint(List.of(head2, body21, body22));
+
+        final Predicate head3 = new Predicate(NUM_H, new int[]{Argument.variable(0), Argument.variable(1)});
+        final Predicate body31 = new Predicate(NUM_H, new int[]{Argument.variable(0), Argument.variable(1)});
+        final Predicate body32 = new Predicate(NUM_P, new int[]{Argument.variable(1), Argument.EMPTY_VALUE});
+        final Fingerprint finger_print3 = new Fingerprint(List.of(head3, body31, body32));
+
+        assertEquals(finger_print1.code1, finger_print2.code1);
+        assertEquals(finger_print1.code2, finger_print2.code2);
+        assertEquals(finger_print1.hashCode(), finger_print2.hashCode());
+        assertEquals(finger_print1, finger_print2);
+        assertNotEquals(finger_print1.code1, finger_print3.code1);
+        assertNotEquals(finger_print1.code2, finger_print3.code2);
+        assertNotEquals(finger_print1, finger_print3);
+    }
+
     @Test
     void testEquality2() {
         /* R3: h(X) <- h(Y) */
@@ -439,31 +467,31 @@ class FingerprintTest {
         kb.mapName("mother");
         kb.mapName("isMale");
 
-        Rule rule0 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule rule0 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         rule0.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
         rule0.cvt2Uvs2NewLv(kb.name2Num("isMale"), 1, 0, 0, 2);
         rule0.cvt1Uv2ExtLv(1, 1, 1);
         assertEquals(rule_strs[0], rule0.toDumpString(kb.getNumerationMap()));
 
-        Rule rule1 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule rule1 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         rule1.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 1, 0, 2);
         rule1.cvt2Uvs2NewLv(kb.name2Num("mother"), 2, 0, 0, 0);
         rule1.cvt1Uv2ExtLv(kb.name2Num("isMale"), 1, 0, 0);
         assertEquals(rule_strs[1], rule1.toDumpString(kb.getNumerationMap()));
 
-        Rule rule2 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule rule2 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         rule2.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
         rule2.cvt2Uvs2NewLv(kb.name2Num("mother"), 2, 0, 0, 0);
         rule2.cvt2Uvs2NewLv(kb.name2Num("isMale"), 1, 0, 1, 1);
         assertEquals(rule_strs[2], rule2.toDumpString(kb.getNumerationMap()));
 
-        Rule rule3 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule rule3 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         rule3.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
         rule3.cvt2Uvs2NewLv(kb.name2Num("mother"), 2, 0, 0, 0);
         rule3.cvt2Uvs2NewLv(kb.name2Num("isMale"), 1, 0, 0, 2);
         assertEquals(rule_strs[3], rule3.toDumpString(kb.getNumerationMap()));
 
-        Rule rule4 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new HashMap<>());
+        Rule rule4 = new BareRule(kb.name2Num("family"), 3, new HashSet<>(), new TabuSet());
         rule4.cvt2Uvs2NewLv(kb.name2Num("father"), 2, 0, 0, 1);
         rule4.cvt2Uvs2NewLv(kb.name2Num("mother"), 2, 0, 0, 0);
         rule4.cvt2Uvs2NewLv(0, 2, 1, 1);
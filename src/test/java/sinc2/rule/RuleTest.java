@@ -11,7 +11,6 @@ import sinc2.kb.KbException;
 import sinc2.kb.KbRelation;
 import sinc2.kb.NumeratedKb;
 import sinc2.kb.NumerationMap;
-import sinc2.util.MultiSet;
 
 import java.util.*;
 
@@ -55,7 +54,7 @@ class RuleTest {
     void testConstruction() {
         /* h(X, Y, c) <- p(X), q(?, Y), q(c, X) */
         final Set<Fingerprint> cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_set = new HashMap<>();
+        final TabuSet tabu_set = new TabuSet();
         Rule r = new BareRule(NUM_H, 3, cache, tabu_set);
         assertTrue(r.toString(map).contains("h(?,?,?):-"));
         assertEquals("h(?,?,?):-", r.toDumpString(map));
@@ -127,7 +126,7 @@ class RuleTest {
     void testConstructionAndRemoval1() {
         /* h(X, Y, c) <- p(X), q(?, Y), q(c, X) */
         final Set<Fingerprint> cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_set = new HashMap<>();
+        final TabuSet tabu_set = new TabuSet();
         Rule r = new BareRule(NUM_H, 3, cache, tabu_set);
         assertEquals(UpdateStatus.NORMAL, r.cvt2Uvs2NewLv(NUM_P, 1, 0, 0, 0));
         assertEquals(UpdateStatus.NORMAL, r.cvt2Uvs2NewLv(NUM_Q, 2, 1, 0, 1));
@@ -188,7 +187,7 @@ class RuleTest {
     void testConstructionAndRemoval2() {
         /* h(X, Y, Z) <- p(X), q(Z, Y), q(Z, X) */
         final Set<Fingerprint> cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_set = new HashMap<>();
+        final TabuSet tabu_set = new TabuSet();
         Rule r = new BareRule(NUM_H, 3, cache, tabu_set);
         assertEquals(UpdateStatus.NORMAL, r.cvt2Uvs2NewLv(NUM_P, 1, 0, 0, 0));
         assertEquals(UpdateStatus.NORMAL, r.cvt2Uvs2NewLv(NUM_Q, 2, 1, 0, 1));
@@ -233,7 +232,7 @@ class RuleTest {
     @Test
     void testCopyConstructor() {
         final Set<Fingerprint> cache = new HashSet<>();
-        final Map<MultiSet<Integer>, Set<Fingerprint>> tabu_set = new HashMap<>();
+        final TabuSet tabu_set = new TabuSet();
         Rule r1 = new BareRule(NUM_H, 3, cache, tabu_set);
         assertEquals(UpdateStatus.NORMAL, r1.cvt2Uvs2NewLv(NUM_P, 1, 0, 0, 0));
         assertEquals(UpdateStatus.NORMAL, r1.cvt2Uvs2NewLv(NUM_Q, 2, 1, 0, 1));
@@ -266,43 +265,43 @@ class RuleTest {
     @Test
     void testStructureConstructor1() {
         /* h(?,?,?) :- */
-        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new HashMap<>());
+        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new TabuSet());
         assertEquals("h(?,?,?):-", expected_rule.toDumpString(map));
 
-        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new HashMap<>());
+        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new TabuSet());
         structureIdentityCheck(expected_rule, actual_rule);
     }
 
     @Test
     void testStructureConstructor2() {
         /* h(X,X,?) :- p(X,X) */
-        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new HashMap<>());
+        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new TabuSet());
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt2Uvs2NewLv(0, 0, 0, 1));
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt1Uv2ExtLv(NUM_P, 2, 0, 0));
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt1Uv2ExtLv(1, 1, 0));
         assertEquals("h(X0,X0,?):-p(X0,X0)", expected_rule.toDumpString(map));
 
-        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new HashMap<>());
+        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new TabuSet());
         structureIdentityCheck(expected_rule, actual_rule);
     }
 
     @Test
     void testStructureConstructor3() {
         /* h(?,?,X) :- p(X), q(X,Y), q(Y,?) */
-        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new HashMap<>());
+        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new TabuSet());
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt2Uvs2NewLv(NUM_P, 1,0, 0, 2));
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt1Uv2ExtLv(NUM_Q, 2, 0, 0));
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt2Uvs2NewLv(NUM_Q,2, 0, 2, 1));
         assertEquals("h(?,?,X0):-p(X0),q(X0,X1),q(X1,?)", expected_rule.toDumpString(map));
 
-        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new HashMap<>());
+        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new TabuSet());
         structureIdentityCheck(expected_rule, actual_rule);
     }
 
     @Test
     void testStructureConstructor4() {
         /* h(?,d,X) :- p(X), q(X,Y), q(Y,c) */
-        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new HashMap<>());
+        BareRule expected_rule = new BareRule(NUM_H, 3, new HashSet<>(), new TabuSet());
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt2Uvs2NewLv(NUM_P, 1,0, 0, 2));
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt1Uv2ExtLv(NUM_Q, 2, 0, 0));
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt2Uvs2NewLv(NUM_Q,2, 0, 2, 1));
@@ -310,7 +309,7 @@ class RuleTest {
         assertEquals(UpdateStatus.NORMAL, expected_rule.cvt1Uv2Const(3,1,NUM_C));
         assertEquals("h(?,d,X0):-p(X0),q(X0,X1),q(X1,c)", expected_rule.toDumpString(map));
 
-        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new HashMap<>());
+        BareRule actual_rule = new BareRule(expected_rule.structure, new HashSet<>(), new TabuSet());
         structureIdentityCheck(expected_rule, actual_rule);
     }
 
@@ -421,7 +420,7 @@ class RuleTest {
         List<ParsedSpecOpr> operations = Rule.parseConstruction(structure);
         KbRelation head_relation = kb.getRelation(structure.get(0).functor);
         Rule.MIN_FACT_COVERAGE = -1;
-        BareRule rule = new BareRule(head_relation.getNumeration(), head_relation.getArity(), new HashSet<>(), new HashMap<>());
+        BareRule rule = new BareRule(head_relation.getNumeration(), head_relation.getArity(), new HashSet<>(), new TabuSet());
         for (ParsedSpecOpr opr: operations) {
             switch (opr.getSpecCase()) {
                 case CASE1:
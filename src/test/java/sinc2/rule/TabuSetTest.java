@@ -0,0 +1,105 @@
+package sinc2.rule;
+
+import org.junit.jupiter.api.Test;
+import sinc2.common.Argument;
+import sinc2.common.Predicate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TabuSetTest {
+
+    static final int NUM_P = 1;
+    static final int NUM_Q = 2;
+    static final int NUM_C = 3;
+    static final int NUM_E = 4;
+    static final int X = Argument.variable(0);
+    static final int Y = Argument.variable(1);
+    static final int E = Argument.EMPTY_VALUE;
+
+    static Predicate pred(int functor, int... args) {
+        return new Predicate(functor, args);
+    }
+
+    static Fingerprint fingerprint(Predicate... rule) {
+        return new Fingerprint(List.of(rule));
+    }
+
+    @Test
+    void testAdd() {
+        /* p(X,?):-q(?,X) */
+        TabuSet tabu_set = new TabuSet();
+        assertTrue(tabu_set.isEmpty());
+        assertTrue(tabu_set.add(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, E, X))));
+        assertFalse(tabu_set.add(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, E, X))));
+        assertEquals(1, tabu_set.size());
+        assertTrue(tabu_set.contains(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, E, X))));
+        assertFalse(tabu_set.contains(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, X, E))));
+
+        tabu_set.clear();
+        assertEquals(0, tabu_set.size());
+        assertFalse(tabu_set.contains(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, E, X))));
+    }
+
+    @Test
+    void testHasGeneralizationOf1() {
+        /* Tabu: p(X,?):-q(?,X) */
+        TabuSet tabu_set = new TabuSet();
+        tabu_set.add(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, E, X)));
+
+        /* p(X,Y):-q(Y,X) */
+        assertTrue(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, X, Y), pred(NUM_Q, Y, X))));
+        /* p(X,?):-q(Y,X),p(Y,?) */
+        assertTrue(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, Y, X), pred(NUM_P, Y, E))));
+        /* p(X,?):-q(X,?) */
+        assertFalse(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, X, E))));
+        /* p(?,?):- */
+        assertFalse(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, E, E))));
+    }
+
+    @Test
+    void testHasGeneralizationOf2() {
+        /* The body of the tabu rule should be a sub-multiset of the other */
+        /* Tabu: p(X,?):-q(X,?),q(?,?) */
+        TabuSet tabu_set = new TabuSet();
+        tabu_set.add(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, X, E), pred(NUM_Q, E, E)));
+
+        /* p(X,?):-q(X,?) */
+        assertFalse(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, X, E))));
+        /* p(X,?):-q(X,Y),q(Y,?) */
+        assertTrue(tabu_set.hasGeneralizationOf(
+                fingerprint(pred(NUM_P, X, E), pred(NUM_Q, X, Y), pred(NUM_Q, Y, E))
+        ));
+    }
+
+    @Test
+    void testHasGeneralizationOf3() {
+        /* Tabu fingerprints without co-occurring indicators */
+        /* Tabu: p(?,?):-q(?,?) */
+        TabuSet tabu_set = new TabuSet();
+        tabu_set.add(fingerprint(pred(NUM_P, E, E), pred(NUM_Q, E, E)));
+
+        /* p(X,?):-q(X,?) */
+        assertTrue(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, X, E), pred(NUM_Q, X, E))));
+        /* p(X,?):-p(?,X) */
+        assertFalse(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, X, E), pred(NUM_P, E, X))));
+    }
+
+    @Test
+    void testHasGeneralizationOf4() {
+        /* Tabu fingerprints with constants */
+        /* Tabu: p(c,?):- */
+        TabuSet tabu_set = new TabuSet();
+        tabu_set.add(fingerprint(pred(NUM_P, Argument.constant(NUM_C), E)));
+
+        /* p(c,X):-q(X,?) */
+        assertTrue(tabu_set.hasGeneralizationOf(
+                fingerprint(pred(NUM_P, Argument.constant(NUM_C), X), pred(NUM_Q, X, E))
+        ));
+        /* p(e,?):- */
+        assertFalse(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, Argument.constant(NUM_E), E))));
+        /* p(?,c):- */
+        assertFalse(tabu_set.hasGeneralizationOf(fingerprint(pred(NUM_P, E, Argument.constant(NUM_C)))));
+    }
+}
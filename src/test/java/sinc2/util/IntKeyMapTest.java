@@ -0,0 +1,76 @@
+package sinc2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntKeyMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        IntKeyMap<String> map = new IntKeyMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(1, "a"));
+        assertNull(map.put(-7, "b"));
+        assertEquals("a", map.put(1, "c"));
+        assertEquals(2, map.size());
+        assertEquals("c", map.get(1));
+        assertEquals("b", map.get(-7));
+        assertNull(map.get(2));
+        assertTrue(map.containsKey(-7));
+        assertFalse(map.containsKey(0));
+
+        assertEquals("x", map.computeIfAbsent(0, k -> "x"));
+        assertEquals("x", map.computeIfAbsent(0, k -> "y"));
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(new int[]{-7, 0, 1}, keys);
+
+        assertEquals("c", map.remove(1));
+        assertNull(map.remove(1));
+        assertEquals(2, map.size());
+        assertNull(map.get(1));
+        assertEquals("b", map.get(-7));
+        assertEquals("x", map.get(0));
+    }
+
+    @Test
+    void testRandomOperations() {
+        /* Compare with a HashMap under many insertions and removals, which covers rehashing and backward shifting */
+        Random random = new Random(0);
+        IntKeyMap<Integer> map = new IntKeyMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000) * 64;
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 2000 * 64; key += 64) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void testIntArrayList() {
+        IntArrayList list = new IntArrayList(1);
+        for (int i = 0; i < 10; i++) {
+            list.add(i);
+        }
+        assertEquals(10, list.size());
+        assertTrue(list.removeValue(3));
+        assertFalse(list.removeValue(3));
+        assertEquals(9, list.get(3));
+        assertTrue(list.replaceValue(9, 30));
+        assertArrayEquals(new int[]{0, 1, 2, 30, 4, 5, 6, 7, 8}, list.toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(9));
+    }
+}
@@ -0,0 +1,73 @@
+package sinc2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KmvSketchTest {
+
+    @Test
+    void testExact() {
+        KmvSketch sketch = new KmvSketch(KmvSketch.sizeForError(0.1));
+        for (int i = 0; i < 50; i++) {
+            sketch.add(KmvSketch.hash(new int[]{i, i + 1}));
+            sketch.add(KmvSketch.hash(new int[]{i, i + 1}));
+        }
+        assertTrue(sketch.isExact());
+        assertEquals(50, sketch.estimate());
+        assertEquals(50, sketch.upperBound());
+        assertEquals(50, sketch.lowerBound());
+    }
+
+    @Test
+    void testEstimate() {
+        final double tolerance = 0.05;
+        final int distinct = 100000;
+        KmvSketch sketch = new KmvSketch(KmvSketch.sizeForError(tolerance));
+        Random random = new Random(0);
+        for (int i = 0; i < distinct * 3; i++) {
+            final int value = random.nextInt(distinct);
+            sketch.add(KmvSketch.hash(new int[]{value, -value}));
+            sketch.add(KmvSketch.hash(new int[]{i % distinct, -(i % distinct)}));
+        }
+        assertFalse(sketch.isExact());
+        assertEquals(distinct, sketch.estimate(), distinct * tolerance * 3);
+        assertTrue(sketch.lowerBound() < sketch.estimate());
+        assertTrue(sketch.upperBound() > sketch.estimate());
+    }
+
+    @Test
+    void testBoundConfidence() {
+        /* Each bound fails for about 0.13% of the saturated sketches */
+        final double tolerance = 0.2;
+        final int distinct = 2000;
+        final int trials = 300;
+        Random random = new Random(0);
+        int upper_failures = 0;
+        int lower_failures = 0;
+        for (int trial = 0; trial < trials; trial++) {
+            KmvSketch sketch = new KmvSketch(KmvSketch.sizeForError(tolerance));
+            final int salt = random.nextInt();
+            for (int i = 0; i < distinct; i++) {
+                sketch.add(KmvSketch.hash(new int[]{salt, i}));
+            }
+            assertFalse(sketch.isExact());
+            upper_failures += (sketch.upperBound() < distinct) ? 1 : 0;
+            lower_failures += (sketch.lowerBound() > distinct) ? 1 : 0;
+        }
+        assertTrue(3 >= upper_failures);
+        assertTrue(3 >= lower_failures);
+        assertEquals(tolerance, new KmvSketch(KmvSketch.sizeForError(tolerance)).boundError(), 0.001);
+    }
+
+    @Test
+    void testHashSteps() {
+        long hash = KmvSketch.hashStart();
+        hash = KmvSketch.hashStep(hash, 3);
+        hash = KmvSketch.hashStep(hash, 7);
+        assertEquals(KmvSketch.hash(new int[]{3, 7}), KmvSketch.hashFinish(hash));
+        assertNotEquals(KmvSketch.hash(new int[]{3, 7}), KmvSketch.hash(new int[]{7, 3}));
+    }
+}
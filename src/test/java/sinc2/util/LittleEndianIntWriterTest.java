@@ -0,0 +1,42 @@
+package sinc2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LittleEndianIntWriterTest {
+
+    @Test
+    void testWrite() throws IOException {
+        File file = File.createTempFile("sinc2-writer", ".bin");
+        file.deleteOnExit();
+        int[] values = new int[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 0x01010101 - 50;
+        }
+
+        /* A small buffer is flushed multiple times */
+        try (LittleEndianIntWriter writer = new LittleEndianIntWriter(file, 3 * Integer.BYTES)) {
+            writer.write(values[0]);
+            writer.write(values, 1, 49);
+            writer.write(values, 50, 50);
+        }
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        assertEquals(values.length * Integer.BYTES, bytes.length);
+        IntBuffer ints = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        for (int value: values) {
+            assertEquals(value, ints.get());
+        }
+        byte[] first = new byte[Integer.BYTES];
+        System.arraycopy(bytes, 0, first, 0, Integer.BYTES);
+        assertEquals(values[0], LittleEndianIntIO.byteArray2LeInt(first));
+    }
+}
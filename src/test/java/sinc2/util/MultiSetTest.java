@@ -29,6 +29,23 @@ class MultiSetTest {
         assertNotEquals(s1, s2);
     }
 
+    @Test
+    void addMultiple() {
+        MultiSet<String> s1 = new MultiSet<>();
+        s1.add("a", 2);
+        s1.add("b", 1);
+        s1.add("c", 0);
+
+        MultiSet<String> s2 = new MultiSet<>();
+        s2.add("a");
+        s2.add("b");
+        s2.add("a");
+
+        assertEquals(3, s1.size());
+        assertEquals(2, s1.differentValues());
+        assertEquals(s2, s1);
+    }
+
     @Test
     void addAll() {
         MultiSet<String> s1 = new MultiSet<>();
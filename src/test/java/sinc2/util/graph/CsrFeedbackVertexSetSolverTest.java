@@ -0,0 +1,82 @@
+package sinc2.util.graph;
+
+import org.junit.jupiter.api.Test;
+
+import sinc2.util.IntArrayList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrFeedbackVertexSetSolverTest {
+
+    @Test
+    void test1() {
+        /* 2 vertices cycle */
+        CsrGraph graph = CsrGraphTest.graphOf(2, false, 0, 1, 1, 0);
+        int[] cover = new CsrFeedbackVertexSetSolver(graph, new int[]{0, 1}).run();
+        assertEquals(1, cover.length);
+    }
+
+    @Test
+    void test2() {
+        /* 3 vertices cycle(with 2 self loops and redundancy) */
+        CsrGraph graph = CsrGraphTest.graphOf(
+                7, false, 0, 0, 0, 1, 1, 1, 1, 2, 2, 5, 2, 0, 3, 2, 4, 2, 5, 6, 6, 5
+        );
+        int[] cover = new CsrFeedbackVertexSetSolver(graph, new int[]{0, 1, 2}).run();
+        Arrays.sort(cover);
+        assertArrayEquals(new int[]{0, 1}, cover);
+    }
+
+    @Test
+    void test3() {
+        /* 6 vertices, 3 cycles */
+        CsrGraph graph = CsrGraphTest.graphOf(
+                6, true, 0, 1, 1, 2, 2, 0, 2, 3, 3, 1, 3, 4, 4, 5, 5, 3
+        );
+        int[] cover = new CsrFeedbackVertexSetSolver(graph, new int[]{0, 1, 2, 3, 4, 5}).run();
+        assertEquals(2, cover.length);
+        assertTrue(3 == cover[0] || 3 == cover[1]);
+    }
+
+    @Test
+    void test4() {
+        /* 4 vertices complete graph */
+        CsrGraph graph = CsrGraphTest.graphOf(4, false, 0, 1, 0, 2, 0, 3, 1, 0, 1, 2, 1, 3, 2, 0, 2, 1, 2, 3, 3, 0, 3, 1, 3, 2);
+        int[] cover = new CsrFeedbackVertexSetSolver(graph, new int[]{0, 1, 2, 3}).run();
+        assertEquals(3, cover.length);
+    }
+
+    @Test
+    void testRandomGraph() {
+        /* The solution breaks all cycles in a large random graph */
+        final int nodes = 20000;
+        final Random random = new Random(0);
+        IntArrayList edges = new IntArrayList();
+        for (int i = 0; i < nodes * 3; i++) {
+            edges.add(random.nextInt(nodes));
+            edges.add(random.nextInt(nodes));
+        }
+        CsrGraph graph = CsrGraph.fromEdges(nodes, List.of(edges), false);
+        List<int[]> sccs = new CsrTarjan(graph).run();
+        assertFalse(sccs.isEmpty());
+        boolean[] removed = new boolean[nodes];
+        for (int[] scc: sccs) {
+            for (int node: new CsrFeedbackVertexSetSolver(graph, scc).run()) {
+                removed[node] = true;
+            }
+        }
+
+        IntArrayList remaining_edges = new IntArrayList();
+        for (int i = 0; i < edges.size(); i += 2) {
+            if (!removed[edges.get(i)] && !removed[edges.get(i + 1)]) {
+                remaining_edges.add(edges.get(i));
+                remaining_edges.add(edges.get(i + 1));
+            }
+        }
+        assertTrue(new CsrTarjan(CsrGraph.fromEdges(nodes, List.of(remaining_edges), false)).run().isEmpty());
+    }
+}
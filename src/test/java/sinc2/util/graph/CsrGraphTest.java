@@ -0,0 +1,93 @@
+package sinc2.util.graph;
+
+import org.junit.jupiter.api.Test;
+import sinc2.util.IntArrayList;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrGraphTest {
+
+    static CsrGraph graphOf(int totalNodes, boolean offHeap, int... edges) {
+        IntArrayList edge_list = new IntArrayList();
+        for (int edge: edges) {
+            edge_list.add(edge);
+        }
+        return CsrGraph.fromEdges(totalNodes, List.of(edge_list), offHeap);
+    }
+
+    @Test
+    void testFromEdges() {
+        for (boolean off_heap: new boolean[]{false, true}) {
+            CsrGraph graph = graphOf(5, off_heap, 1, 3, 1, 2, 3, 0, 1, 3, 4, 4);
+            assertEquals(5, graph.totalNodes());
+            assertEquals(4, graph.totalEdges());
+            assertEquals(0, graph.degree(0));
+            assertEquals(2, graph.degree(1));
+            assertEquals(0, graph.degree(2));
+            assertEquals(1, graph.degree(3));
+            assertEquals(1, graph.degree(4));
+            assertEquals(2, graph.neighbour(1, 0));
+            assertEquals(3, graph.neighbour(1, 1));
+            assertEquals(0, graph.neighbour(3, 0));
+            assertEquals(4, graph.neighbour(4, 0));
+            assertTrue(graph.hasEdge(1, 2));
+            assertTrue(graph.hasEdge(1, 3));
+            assertTrue(graph.hasEdge(4, 4));
+            assertFalse(graph.hasEdge(1, 0));
+            assertFalse(graph.hasEdge(0, 1));
+            assertFalse(graph.hasEdge(2, 1));
+        }
+    }
+
+    @Test
+    void testMultipleEdgeLists() {
+        IntArrayList list1 = new IntArrayList();
+        list1.add(0);
+        list1.add(1);
+        IntArrayList list2 = new IntArrayList();
+        list2.add(0);
+        list2.add(1);
+        list2.add(1);
+        list2.add(0);
+        CsrGraph graph = CsrGraph.fromEdges(2, Arrays.asList(list1, list2, new IntArrayList()), false);
+        assertEquals(2, graph.totalEdges());
+        assertTrue(graph.hasEdge(0, 1));
+        assertTrue(graph.hasEdge(1, 0));
+    }
+
+    @Test
+    void testRandomEdges() {
+        Random random = new Random(0);
+        final int total_nodes = 50;
+        List<Set<Integer>> expected = new ArrayList<>();
+        for (int node = 0; node < total_nodes; node++) {
+            expected.add(new TreeSet<>());
+        }
+        IntArrayList list1 = new IntArrayList();
+        IntArrayList list2 = new IntArrayList();
+        for (int i = 0; i < 1000; i++) {
+            int source = random.nextInt(total_nodes);
+            int target = random.nextInt(total_nodes);
+            expected.get(source).add(target);
+            IntArrayList list = random.nextBoolean() ? list1 : list2;
+            list.add(source);
+            list.add(target);
+        }
+
+        for (boolean off_heap: new boolean[]{false, true}) {
+            CsrGraph graph = CsrGraph.fromEdges(total_nodes, List.of(list1, list2), off_heap);
+            int total_edges = 0;
+            for (int node = 0; node < total_nodes; node++) {
+                List<Integer> neighbours = new ArrayList<>();
+                for (int i = 0; i < graph.degree(node); i++) {
+                    neighbours.add(graph.neighbour(node, i));
+                }
+                assertEquals(new ArrayList<>(expected.get(node)), neighbours);
+                total_edges += neighbours.size();
+            }
+            assertEquals(total_edges, graph.totalEdges());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package sinc2.util.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrTarjanTest {
+
+    static Set<Set<Integer>> sccSetsOf(List<int[]> sccs) {
+        Set<Set<Integer>> sets = new HashSet<>();
+        for (int[] scc: sccs) {
+            Set<Integer> set = new HashSet<>();
+            for (int node: scc) {
+                set.add(node);
+            }
+            sets.add(set);
+        }
+        return sets;
+    }
+
+    @Test
+    void testRun() {
+        /* 0 -> 1 -> 2 -> 0, 2 -> 3, 3 -> 4 -> 3, 5 -> 5, 6 */
+        CsrGraph graph = CsrGraphTest.graphOf(7, false, 0, 1, 1, 2, 2, 0, 2, 3, 3, 4, 4, 3, 5, 5);
+        List<int[]> sccs = new CsrTarjan(graph).run();
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        new HashSet<>(Arrays.asList(0, 1, 2)),
+                        new HashSet<>(Arrays.asList(3, 4)),
+                        new HashSet<>(Collections.singletonList(5))
+                )), sccSetsOf(sccs)
+        );
+    }
+
+    @Test
+    void testRun2() {
+        /* A DAG has no non-trivial SCC */
+        CsrGraph graph = CsrGraphTest.graphOf(4, true, 0, 1, 0, 2, 1, 3, 2, 3);
+        assertTrue(new CsrTarjan(graph).run().isEmpty());
+    }
+
+    @Test
+    void testRun3() {
+        /* Two cycles sharing a node form a single SCC */
+        CsrGraph graph = CsrGraphTest.graphOf(5, false, 0, 1, 1, 0, 1, 2, 2, 3, 3, 1, 4, 0);
+        assertEquals(
+                Collections.singleton(new HashSet<>(Arrays.asList(0, 1, 2, 3))),
+                sccSetsOf(new CsrTarjan(graph).run())
+        );
+    }
+
+    @Test
+    void testLongChain() {
+        /* A cycle that is too long for a recursive depth-first search, followed by a long path */
+        final int length = 1000000;
+        int[] edges = new int[length * 4];
+        for (int i = 0; i < length; i++) {
+            edges[i * 2] = i;
+            edges[i * 2 + 1] = (i + 1) % length;
+            edges[length * 2 + i * 2] = length + i;
+            edges[length * 2 + i * 2 + 1] = length + i + 1;
+        }
+        CsrGraph graph = CsrGraphTest.graphOf(length * 2 + 1, false, edges);
+        List<int[]> sccs = new CsrTarjan(graph).run();
+        assertEquals(1, sccs.size());
+        assertEquals(length, sccs.get(0).length);
+    }
+}
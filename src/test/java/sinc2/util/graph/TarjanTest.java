@@ -265,6 +265,24 @@ class TarjanTest {
         )), new HashSet<>(sccs));
     }
 
+    @Test
+    public void testLongChain() {
+        /* A cycle that is too long for a recursive depth-first search */
+        final int length = 200000;
+        List<GraphNode<String>> nodes = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            nodes.add(new GraphNode<>("n" + i));
+        }
+        Map<GraphNode<String>, Set<GraphNode<String>>> graph = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            graph.put(nodes.get(i), new HashSet<>(List.of(nodes.get((i + 1) % length))));
+        }
+        Tarjan<GraphNode<String>> tarjan = new Tarjan<>(graph, false);
+        List<Set<GraphNode<String>>> sccs = tarjan.run();
+        assertEquals(1, sccs.size());
+        assertEquals(length, sccs.get(0).size());
+    }
+
     @Test
     public void testAppointedStartPoints1() {
         MapWithAppointedKeySet graph = new MapWithAppointedKeySet();